@@ -1,46 +1,55 @@
 package com.blog.auth;
 
-import com.blog.auth.dto.response.CreateUserResponse;
-import com.blog.auth.service.IDPClient;
-import com.blog.auth.service.UserService;
-
-import java.util.List;
-
+import com.blog.auth.service.UserSyncService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.boot.ApplicationRunner;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Synchronizes users from the IDP in the background, once the application is ready and then every
+ * {@code idp.syncInterval}, so that startup does not wait for Keycloak.
+ */
+@Component
+@ConditionalOnProperty(
+    prefix = "idp",
+    name = "sync-enabled",
+    havingValue = "true",
+    matchIfMissing = true)
 @Slf4j
 public class AuthStartupService {
 
-  private final UserService userService;
+  private final UserSyncService userSyncService;
 
-  private final IDPClient idpClient;
+  @Autowired
+  public AuthStartupService(UserSyncService userSyncService) {
+    this.userSyncService = userSyncService;
+  }
 
-  public AuthStartupService(UserService userService,@Qualifier("KeycloakClient") IDPClient idpClient) {
-    this.idpClient = idpClient;
-    this.userService = userService;
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
+  public void syncOnStartup() {
+    log.info("Starting user sync from IDP");
+    sync();
   }
 
-  private List<CreateUserResponse> getUserFromIDPKeycloak() {
-    log.info("getUserFromIDPKeycloak called");
-    List<CreateUserResponse> list = idpClient.getAllUsers();
-    log.info("getUserFromIDPKeycloak response: {}", list);
-    return list;
+  @Scheduled(
+      initialDelayString = "${idp.syncInterval:PT1H}",
+      fixedDelayString = "${idp.syncInterval:PT1H}")
+  public void syncPeriodically() {
+    sync();
   }
 
-  @Bean
-  public ApplicationRunner initAuth() {
-    return args -> {
-      log.info("initData called for auth");
-      // Check if data already exists to avoid duplicate inserts
-      if (!getUserFromIDPKeycloak().isEmpty()) {
-        log.info("Now saving users from IDP Keycloak to user DB...");
-        userService.saveUsersFromIDP(getUserFromIDPKeycloak());
-      }
-    };
+  private void sync() {
+    try {
+      userSyncService.syncUsers();
+    } catch (RuntimeException e) {
+      // The checkpoint keeps the applied pages; the next run continues from there.
+      log.error("User sync from IDP failed", e);
+    }
   }
 }
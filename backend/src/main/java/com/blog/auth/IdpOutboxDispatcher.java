@@ -0,0 +1,34 @@
+package com.blog.auth;
+
+import com.blog.auth.service.IdpOutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies outbox entries that are due for a retry, or that were left behind by an instance that
+ * stopped before applying them. New entries are applied right after their transaction commits.
+ */
+@Component
+@Slf4j
+public class IdpOutboxDispatcher {
+
+  private final IdpOutboxService idpOutboxService;
+
+  @Autowired
+  public IdpOutboxDispatcher(IdpOutboxService idpOutboxService) {
+    this.idpOutboxService = idpOutboxService;
+  }
+
+  @Scheduled(
+      initialDelayString = "${idp.outboxPollInterval:PT30S}",
+      fixedDelayString = "${idp.outboxPollInterval:PT30S}")
+  public void dispatchDue() {
+    try {
+      idpOutboxService.dispatch();
+    } catch (RuntimeException e) {
+      log.error("Dispatching the IDP outbox failed", e);
+    }
+  }
+}
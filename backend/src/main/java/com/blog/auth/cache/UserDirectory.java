@@ -0,0 +1,249 @@
+package com.blog.auth.cache;
+
+import com.blog.auth.dto.response.CreateUserResponse;
+import com.blog.auth.model.User;
+import com.blog.auth.repository.UserRepository;
+import com.blog.sharedkernel.config.IDPConfigProperties;
+import com.blog.sharedkernel.invalidation.CacheInvalidated;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through directory of users by id, username and Keycloak id, so that resolving a user on a
+ * request path is a map lookup instead of a query or a Keycloak search. Entries live in a Caffeine
+ * cache bounded by {@code idp.userDirectoryMaxBytes}, keyed by id; the username and Keycloak id
+ * indexes point into it and are checked against the entry they lead to.
+ *
+ * <p>The IDP sync stores the users of every page it applies. Local changes evict the user once they
+ * commit, changes on other instances arrive as {@link CacheInvalidated} events. As in {@code
+ * PostResponseCache}, a user read from the database is only stored if nothing was evicted while it
+ * was being read.
+ */
+@Component
+@Slf4j
+public class UserDirectory {
+  public static final String CACHE_NAME = "user.directory";
+
+  /** Rough size of an entry without its profile image. */
+  private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+  private final UserRepository userRepository;
+  private final Cache<Long, Entry> cache;
+  private final Map<String, Long> idByUsername = new ConcurrentHashMap<>();
+  private final Map<String, Long> idByKeycloakId = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+
+  @Autowired
+  public UserDirectory(
+      UserRepository userRepository,
+      IDPConfigProperties idpConfigProperties,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    this.userRepository = userRepository;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(idpConfigProperties.getUserDirectoryMaxBytes())
+            .weigher((Long id, Entry entry) -> entry.weight())
+            .expireAfterWrite(idpConfigProperties.getUserDirectoryTtl())
+            .evictionListener((Long id, Entry entry, RemovalCause cause) -> unindex(id, entry))
+            .recordStats()
+            .build();
+    meterRegistry.ifAvailable(
+        registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+  }
+
+  /**
+   * What the directory knows about a user; immutable, unlike the entity it was taken from.
+   *
+   * @param profileImage Base64 image as stored in the users table
+   */
+  public record Entry(
+      Long id,
+      String keycloakId,
+      String username,
+      String email,
+      String firstName,
+      String lastName,
+      String role,
+      Boolean isEnabled,
+      Boolean isEmailVerified,
+      String age,
+      String profileImage) {
+
+    public static Entry of(User user) {
+      return new Entry(
+          user.getId(),
+          user.getKeycloakId(),
+          user.getUsername(),
+          user.getEmail(),
+          user.getFirstName(),
+          user.getLastName(),
+          user.getRole(),
+          user.getIsEnabled(),
+          user.getIsEmailVerified(),
+          user.getAge(),
+          user.getProfileImage());
+    }
+
+    public CreateUserResponse toResponse() {
+      return CreateUserResponse.builder()
+          .userId(id)
+          .keycloakId(keycloakId)
+          .username(username)
+          .email(email)
+          .firstName(firstName)
+          .lastName(lastName)
+          .role(role)
+          .isEnabled(isEnabled)
+          .isEmailVerified(isEmailVerified)
+          .age(age)
+          .profileImage(profileImage)
+          .build();
+    }
+
+    private int weight() {
+      return ENTRY_OVERHEAD_BYTES + (profileImage == null ? 0 : profileImage.length());
+    }
+  }
+
+  public Optional<Entry> byId(Long id) {
+    Entry entry = cache.getIfPresent(id);
+    return entry != null ? Optional.of(entry) : load(() -> userRepository.findById(id));
+  }
+
+  public Optional<Entry> byUsername(String username) {
+    Entry entry = lookup(idByUsername, username, Entry::username);
+    return entry != null ? Optional.of(entry) : load(() -> userRepository.findByUsername(username));
+  }
+
+  public Optional<Entry> byKeycloakId(String keycloakId) {
+    Entry entry = lookup(idByKeycloakId, keycloakId, Entry::keycloakId);
+    return entry != null
+        ? Optional.of(entry)
+        : load(() -> userRepository.findByKeycloakId(keycloakId));
+  }
+
+  /**
+   * Stores users that were just written, such as a page applied by the IDP sync. Like an eviction,
+   * this bumps the generation so that a read already in flight cannot replace the entry with what
+   * it read before the write.
+   */
+  public void put(User user) {
+    generation.incrementAndGet();
+    store(Entry.of(user));
+  }
+
+  /** Evicts the user once the current transaction, if any, commits. */
+  public void evict(String username) {
+    afterCommit(
+        () -> {
+          generation.incrementAndGet();
+          Long id = idByUsername.remove(username);
+          if (id != null) {
+            remove(id);
+          }
+          log.debug("Evicted user {} from the directory", username);
+        });
+  }
+
+  public void evictAll() {
+    afterCommit(
+        () -> {
+          generation.incrementAndGet();
+          cache.invalidateAll();
+          idByUsername.clear();
+          idByKeycloakId.clear();
+        });
+  }
+
+  /** Users changed on other instances. */
+  @EventListener
+  public void on(CacheInvalidated event) {
+    if (event.all()) {
+      evictAll();
+      return;
+    }
+    String username = event.id(CacheKeys.USER);
+    if (username != null) {
+      evict(username);
+    }
+  }
+
+  private Entry lookup(Map<String, Long> index, String key, Function<Entry, String> attribute) {
+    Long id = index.get(key);
+    Entry entry = id == null ? null : cache.getIfPresent(id);
+    // The index may still point at a user who has since been renamed or evicted.
+    return entry != null && key.equals(attribute.apply(entry)) ? entry : null;
+  }
+
+  private Optional<Entry> load(Supplier<Optional<User>> query) {
+    long generation = this.generation.get();
+    Optional<Entry> entry = query.get().map(Entry::of);
+    entry.ifPresent(
+        e -> {
+          if (this.generation.get() == generation) {
+            store(e);
+            // An eviction may have slipped in between the check and the put.
+            if (this.generation.get() != generation) {
+              remove(e.id());
+            }
+          }
+        });
+    return entry;
+  }
+
+  private void store(Entry entry) {
+    Entry previous = cache.asMap().put(entry.id(), entry);
+    if (previous != null) {
+      unindex(previous.id(), previous);
+    }
+    index(entry);
+  }
+
+  private void index(Entry entry) {
+    idByUsername.put(entry.username(), entry.id());
+    idByKeycloakId.put(entry.keycloakId(), entry.id());
+  }
+
+  private void remove(Long id) {
+    Entry entry = cache.asMap().remove(id);
+    if (entry != null) {
+      unindex(id, entry);
+    }
+  }
+
+  private void unindex(Long id, Entry entry) {
+    idByUsername.remove(entry.username(), id);
+    idByKeycloakId.remove(entry.keycloakId(), id);
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+}
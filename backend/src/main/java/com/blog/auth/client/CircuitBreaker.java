@@ -0,0 +1,84 @@
+package com.blog.auth.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row the circuit
+ * opens and calls are refused for {@code openDuration}; then a single trial call is let through,
+ * which closes the circuit on success and opens it again on failure.
+ */
+@Slf4j
+class CircuitBreaker {
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final String name;
+  private final int failureThreshold;
+  private final Duration openDuration;
+  private final Clock clock;
+  private State state = State.CLOSED;
+  private int failures;
+  private Instant openedAt;
+  private boolean trialInFlight;
+
+  CircuitBreaker(String name, int failureThreshold, Duration openDuration, Clock clock) {
+    this.name = name;
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+    this.clock = clock;
+  }
+
+  /**
+   * Whether a call may go ahead; every permitted call must be followed by a record call or by
+   * {@link #release()}.
+   */
+  synchronized boolean tryAcquire() {
+    if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+      state = State.HALF_OPEN;
+      trialInFlight = false;
+    }
+    return switch (state) {
+      case CLOSED -> true;
+      case OPEN -> false;
+      case HALF_OPEN -> {
+        if (trialInFlight) {
+          yield false;
+        }
+        trialInFlight = true;
+        yield true;
+      }
+    };
+  }
+
+  synchronized void recordSuccess() {
+    if (state != State.CLOSED) {
+      log.info("Circuit {} closed", name);
+    }
+    state = State.CLOSED;
+    failures = 0;
+  }
+
+  synchronized void recordFailure() {
+    failures++;
+    if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+      log.warn("Circuit {} opened after {} consecutive failures", name, failures);
+      state = State.OPEN;
+      openedAt = clock.instant();
+    }
+  }
+
+  /** Gives back a permitted call that never reached the IDP, without recording an outcome. */
+  synchronized void release() {
+    trialInFlight = false;
+  }
+
+  synchronized State state() {
+    return state;
+  }
+}
@@ -0,0 +1,120 @@
+package com.blog.auth.client;
+
+import com.blog.sharedkernel.exception.KeyCloakException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.jboss.resteasy.client.jaxrs.engines.ManualClosingApacheHttpClient43Engine;
+import org.jboss.resteasy.client.jaxrs.internal.ClientInvocation;
+import org.springframework.http.HttpStatus;
+
+/**
+ * HTTP engine of the Keycloak admin client: every request, token requests included, passes a
+ * circuit breaker and is timed. It extends the Apache engine rather than wrapping it because that
+ * engine expects to be the client's engine.
+ *
+ * <p>The bulkhead is the HTTP client's connection pool, which holds a connection until the response
+ * has been read; a request that cannot lease one in time is refused. The circuit breaker counts
+ * connection errors, timeouts and 5xx responses, but not refusals. Refused requests fail with a
+ * {@link KeyCloakException} carrying {@code 503}, without touching the network.
+ *
+ * <p>Requests are timed as {@code idp.client.requests}, tagged with the method, the path with ids
+ * replaced by {@code {id}}, the status and the outcome.
+ */
+@Slf4j
+@SuppressWarnings("removal") // see KeycloakAdminClientConfig
+class GuardedHttpEngine extends ManualClosingApacheHttpClient43Engine {
+  static final String METRIC_NAME = "idp.client.requests";
+
+  private static final Pattern REALM_PREFIX = Pattern.compile("^.*?/realms/[^/]+");
+  private static final Pattern ID_SEGMENT =
+      Pattern.compile(
+          "/[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+  private final CircuitBreaker circuitBreaker;
+  private final MeterRegistry meterRegistry;
+
+  GuardedHttpEngine(
+      HttpClient httpClient, CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+    super(httpClient, true);
+    this.circuitBreaker = circuitBreaker;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Response invoke(Invocation invocation) {
+    ClientInvocation request = (ClientInvocation) invocation;
+    String method = request.getMethod();
+    String uri = uriTemplate(request.getUri());
+    if (!circuitBreaker.tryAcquire()) {
+      record(method, uri, "NONE", "CIRCUIT_OPEN", 0);
+      throw unavailable(method, uri, "Identity provider unavailable");
+    }
+    long start = System.nanoTime();
+    Response response;
+    try {
+      response = super.invoke(invocation);
+    } catch (RuntimeException e) {
+      if (poolExhausted(e)) {
+        circuitBreaker.release();
+        record(method, uri, "NONE", "REJECTED", 0);
+        log.warn("Too many concurrent admin calls, refused {} {}", method, uri);
+        throw unavailable(method, uri, "Too many concurrent calls");
+      }
+      circuitBreaker.recordFailure();
+      record(method, uri, "IO_ERROR", "UNKNOWN", System.nanoTime() - start);
+      throw e;
+    }
+    HttpStatus.Series series = HttpStatus.Series.resolve(response.getStatus());
+    if (series == HttpStatus.Series.SERVER_ERROR) {
+      circuitBreaker.recordFailure();
+    } else {
+      circuitBreaker.recordSuccess();
+    }
+    record(
+        method,
+        uri,
+        String.valueOf(response.getStatus()),
+        series == null ? "UNKNOWN" : series.name(),
+        System.nanoTime() - start);
+    return response;
+  }
+
+  /** Whether the request gave up waiting for a pooled connection and never reached the IDP. */
+  private static boolean poolExhausted(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConnectionPoolTimeoutException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void record(String method, String uri, String status, String outcome, long nanos) {
+    Timer.builder(METRIC_NAME)
+        .description("Requests to the identity provider's admin and token endpoints")
+        .tag("method", method)
+        .tag("uri", uri)
+        .tag("status", status)
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** {@code /admin/realms/r/users/<uuid>/logout} becomes {@code /users/{id}/logout}. */
+  static String uriTemplate(URI uri) {
+    String path = REALM_PREFIX.matcher(uri.getPath()).replaceFirst("");
+    return ID_SEGMENT.matcher(path).replaceAll("/{id}");
+  }
+
+  private static KeyCloakException unavailable(String method, String uri, String reason) {
+    return new KeyCloakException(method + " " + uri, reason, "-", HttpStatus.SERVICE_UNAVAILABLE);
+  }
+}
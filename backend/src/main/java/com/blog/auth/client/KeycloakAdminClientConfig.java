@@ -0,0 +1,97 @@
+package com.blog.auth.client;
+
+import com.blog.sharedkernel.config.IDPConfigProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.client.ClientBuilder;
+import java.time.Clock;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.keycloak.OAuth2Constants;
+import org.keycloak.admin.client.JacksonProvider;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.KeycloakBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The Keycloak admin client shared by the application: one pooled HTTP client with connect and read
+ * timeouts, guarded by a circuit breaker (see {@link GuardedHttpEngine}).
+ *
+ * <p>The pool holds {@code maxConcurrentCalls} connections and is also the bulkhead: a connection
+ * stays leased until the response body has been read or the response closed, and a request that
+ * cannot lease one within {@code bulkheadWait} is refused.
+ *
+ * <p>RESTEasy 6.2 deprecates its Apache engines for removal but has no pooled replacement; the
+ * admin client uses the same engine by default, so this moves when the admin client does.
+ */
+@Configuration
+@Slf4j
+public class KeycloakAdminClientConfig {
+  static final String CIRCUIT_BREAKER_METRIC = "idp.client.circuit.open";
+
+  @Bean(destroyMethod = "close")
+  public Keycloak keycloakAdminClient(
+      IDPConfigProperties idpConfigProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+    log.info(
+        "Keycloak admin client for realm {} at {}",
+        idpConfigProperties.getRealm(),
+        idpConfigProperties.getServerUri());
+    return keycloak(
+        idpConfigProperties,
+        meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+        Clock.systemUTC());
+  }
+
+  static Keycloak keycloak(
+      IDPConfigProperties idpConfigProperties, MeterRegistry meterRegistry, Clock clock) {
+    int maxConcurrentCalls = idpConfigProperties.getMaxConcurrentCalls();
+    PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+    pool.setMaxTotal(maxConcurrentCalls);
+    pool.setDefaultMaxPerRoute(maxConcurrentCalls);
+    RequestConfig timeouts =
+        RequestConfig.custom()
+            .setConnectTimeout((int) idpConfigProperties.getConnectTimeout().toMillis())
+            .setSocketTimeout((int) idpConfigProperties.getReadTimeout().toMillis())
+            .setConnectionRequestTimeout((int) idpConfigProperties.getBulkheadWait().toMillis())
+            .build();
+    HttpClient httpClient =
+        HttpClientBuilder.create()
+            .setConnectionManager(pool)
+            .setDefaultRequestConfig(timeouts)
+            .build();
+    CircuitBreaker circuitBreaker =
+        new CircuitBreaker(
+            idpConfigProperties.getIdpName(),
+            idpConfigProperties.getCircuitBreakerFailureThreshold(),
+            idpConfigProperties.getCircuitBreakerOpenDuration(),
+            clock);
+    Gauge.builder(
+            CIRCUIT_BREAKER_METRIC,
+            circuitBreaker,
+            breaker -> breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+        .description("1 while calls to the identity provider are refused or on trial")
+        .register(meterRegistry);
+    ResteasyClientBuilder builder =
+        ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+            .httpEngine(new GuardedHttpEngine(httpClient, circuitBreaker, meterRegistry));
+    // Same provider and priority as the admin client's own default client.
+    builder.register(JacksonProvider.class, 100);
+    ResteasyClient client = builder.build();
+    return KeycloakBuilder.builder()
+        .serverUrl(idpConfigProperties.getServerUri())
+        .realm(idpConfigProperties.getRealm())
+        .clientId(idpConfigProperties.getClientId())
+        .clientSecret(idpConfigProperties.getClientSecret())
+        .grantType(OAuth2Constants.CLIENT_CREDENTIALS)
+        .resteasyClient(client)
+        .build();
+  }
+}
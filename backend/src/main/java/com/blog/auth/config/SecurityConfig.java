@@ -56,7 +56,12 @@ public class SecurityConfig {
                 .requestMatchers("/public/**", "/swagger-ui/**", "/v3/api-docs/**")
                 .permitAll()
                 // Comment endpoints - require authentication
-                .requestMatchers(HttpMethod.GET, "/v1/api/comment/**", "/v1/api/post")
+                .requestMatchers(
+                    HttpMethod.GET,
+                    "/v1/api/comment/**",
+                    "/v1/api/post",
+                    "/v1/api/post/summary",
+                    "/v1/api/search/**")
                 .permitAll() // Allow reading comments without authentication
                 // Admin endpoints
                 .requestMatchers("/v1/api/admin/**")
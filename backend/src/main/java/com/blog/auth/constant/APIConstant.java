@@ -1,5 +1,6 @@
 package com.blog.auth.constant;
 
+import java.util.List;
 import java.util.Set;
 
 public class APIConstant {
@@ -14,4 +15,6 @@ public class APIConstant {
     public static final String ROLE_ROOT = "ROOT";
     public static final String ROLE_NOT_FOUND = "Role not found";
     public static final Set<String> ALLOWED_ROLES = Set.of(ROLE_ADMIN, ROLE_USER, ROLE_ROOT);
+    /** The allowed roles, most privileged first; a user holding several is given the first. */
+    public static final List<String> ROLE_PRECEDENCE = List.of(ROLE_ROOT, ROLE_ADMIN, ROLE_USER);
 }
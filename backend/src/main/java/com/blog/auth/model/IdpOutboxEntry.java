@@ -0,0 +1,80 @@
+package com.blog.auth.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A change to a user that still has to be applied to the IDP. Written in the transaction that
+ * changes the users table and removed once the IDP has applied it.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(
+    name = "idp_outbox",
+    indexes = @Index(name = "idx_idp_outbox_due", columnList = "status, nextAttemptAt"))
+public class IdpOutboxEntry {
+
+  public enum Operation {
+    ENABLE,
+    DISABLE,
+    DELETE
+  }
+
+  public enum Status {
+    PENDING,
+    /** Gave up after {@code idp.outboxMaxAttempts}; kept for inspection. */
+    FAILED
+  }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private Operation operation;
+
+  @Column(nullable = false)
+  private String keycloakId;
+
+  /** For logs only; the IDP is addressed by {@link #keycloakId}. */
+  private String username;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private Status status = Status.PENDING;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column(nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @Column(length = 1000)
+  private String lastError;
+
+  private String claimedBy;
+
+  private LocalDateTime claimedUntil;
+
+  public IdpOutboxEntry(
+      Operation operation, String keycloakId, String username, LocalDateTime nextAttemptAt) {
+    this.operation = operation;
+    this.keycloakId = keycloakId;
+    this.username = username;
+    this.nextAttemptAt = nextAttemptAt;
+  }
+}
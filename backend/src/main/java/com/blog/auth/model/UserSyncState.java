@@ -0,0 +1,37 @@
+package com.blog.auth.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Progress of the user synchronization from one IDP, and the lease of the instance running it. */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "user_sync_state")
+public class UserSyncState {
+
+  @Id private String idpName;
+
+  /** Offset of the first page not yet applied; 0 when no pass is in progress. */
+  @Column(nullable = false)
+  private int nextOffset;
+
+  private LocalDateTime passStartedAt;
+
+  private LocalDateTime lastCompletedAt;
+
+  private String leaseOwner;
+
+  private LocalDateTime leaseUntil;
+
+  public UserSyncState(String idpName) {
+    this.idpName = idpName;
+  }
+}
@@ -0,0 +1,37 @@
+package com.blog.auth.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A user deleted here whose deletion the IDP may not have caught up with. The user sync skips
+ * tombstoned users so that it does not bring them back. The tombstone is dropped once a sync pass
+ * that started after the IDP applied the deletion has completed.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "user_tombstone")
+public class UserTombstone {
+
+  @Id private String keycloakId;
+
+  private String username;
+
+  private LocalDateTime deletedAt;
+
+  /** When the IDP deleted the user; {@code null} while the outbox entry is pending or failed. */
+  private LocalDateTime appliedAt;
+
+  public UserTombstone(String keycloakId, String username, LocalDateTime deletedAt) {
+    this.keycloakId = keycloakId;
+    this.username = username;
+    this.deletedAt = deletedAt;
+  }
+}
@@ -0,0 +1,50 @@
+package com.blog.auth.repository;
+
+import com.blog.auth.model.IdpOutboxEntry;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdpOutboxRepository extends JpaRepository<IdpOutboxEntry, Long> {
+
+  /** Pending entries whose next attempt is due, oldest first. */
+  @Query(
+      "select e from IdpOutboxEntry e"
+          + " where e.status = com.blog.auth.model.IdpOutboxEntry.Status.PENDING"
+          + " and e.nextAttemptAt <= :now order by e.id")
+  List<IdpOutboxEntry> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+  /** Whether an older change to the same user is still pending; changes are applied in order. */
+  @Query(
+      "select count(e) > 0 from IdpOutboxEntry e where e.keycloakId = :keycloakId and e.id < :id"
+          + " and e.status = com.blog.auth.model.IdpOutboxEntry.Status.PENDING")
+  boolean hasEarlierPending(@Param("keycloakId") String keycloakId, @Param("id") Long id);
+
+  /** Those of {@code keycloakIds} with a change still pending for the IDP. */
+  @Query(
+      "select distinct e.keycloakId from IdpOutboxEntry e"
+          + " where e.status = com.blog.auth.model.IdpOutboxEntry.Status.PENDING"
+          + " and e.keycloakId in :keycloakIds")
+  Set<String> findPendingKeycloakIds(@Param("keycloakIds") Collection<String> keycloakIds);
+
+  /** Claims a pending entry unless another owner holds an unexpired claim; 1 on success. */
+  @Modifying
+  @Query(
+      "update IdpOutboxEntry e set e.claimedBy = :owner, e.claimedUntil = :until"
+          + " where e.id = :id"
+          + " and e.status = com.blog.auth.model.IdpOutboxEntry.Status.PENDING"
+          + " and (e.claimedUntil is null or e.claimedUntil < :now)")
+  int claim(
+      @Param("id") Long id,
+      @Param("owner") String owner,
+      @Param("now") LocalDateTime now,
+      @Param("until") LocalDateTime until);
+}
@@ -1,12 +1,26 @@
 package com.blog.auth.repository;
 
 import com.blog.auth.model.User;
+import com.blog.sharedkernel.entity.CacheRegions;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+  /** Answered from the query cache when {@code entityCache.enabled} is set. */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.USER_BY_USERNAME)
+  })
   Optional<User> findByUsername(String username);
 
   boolean existsByUsername(String username);
@@ -14,4 +28,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
   boolean existsByEmail(String email);
 
   Optional<User> findByEmail(String email);
+
+  Optional<User> findByKeycloakId(String keycloakId);
+
+  @Modifying
+  @Query("update User u set u.isEnabled = :enabled, u.updatedAt = local datetime where u.id = :id")
+  int updateEnabled(@Param("id") Long id, @Param("enabled") boolean enabled);
+
+  List<User> findByKeycloakIdInOrUsernameIn(
+      Collection<String> keycloakIds, Collection<String> usernames);
 }
@@ -0,0 +1,31 @@
+package com.blog.auth.repository;
+
+import com.blog.auth.model.UserSyncState;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserSyncStateRepository extends JpaRepository<UserSyncState, String> {
+
+  /** Takes or extends the lease unless another owner holds an unexpired one; 1 on success. */
+  @Modifying
+  @Query(
+      "update UserSyncState s set s.leaseOwner = :owner, s.leaseUntil = :until"
+          + " where s.idpName = :idpName"
+          + " and (s.leaseOwner = :owner or s.leaseUntil is null or s.leaseUntil < :now)")
+  int claim(
+      @Param("idpName") String idpName,
+      @Param("owner") String owner,
+      @Param("now") LocalDateTime now,
+      @Param("until") LocalDateTime until);
+
+  @Modifying
+  @Query(
+      "update UserSyncState s set s.leaseOwner = null, s.leaseUntil = null"
+          + " where s.idpName = :idpName and s.leaseOwner = :owner")
+  int release(@Param("idpName") String idpName, @Param("owner") String owner);
+}
@@ -0,0 +1,22 @@
+package com.blog.auth.repository;
+
+import com.blog.auth.model.UserTombstone;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserTombstoneRepository extends JpaRepository<UserTombstone, String> {
+
+  @Modifying
+  @Query("update UserTombstone t set t.appliedAt = :now where t.keycloakId = :keycloakId")
+  int markApplied(@Param("keycloakId") String keycloakId, @Param("now") LocalDateTime now);
+
+  /** Drops tombstones the IDP had applied before {@code time}. */
+  @Modifying
+  @Query("delete from UserTombstone t where t.appliedAt < :time")
+  int deleteAppliedBefore(@Param("time") LocalDateTime time);
+}
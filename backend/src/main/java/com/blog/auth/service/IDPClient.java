@@ -5,6 +5,7 @@ import com.blog.auth.dto.request.UpdateUserRequest;
 import com.blog.auth.dto.response.CreateUserResponse;
 import jakarta.annotation.Nonnull;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface IDPClient {
@@ -32,10 +33,19 @@ public interface IDPClient {
 
   boolean deleteUser(String userName);
 
+  // delete by IDP id; a user that no longer exists counts as deleted
+  void deleteUserById(String userId);
+
   String getIdFromUserName(String userName);
 
   List<CreateUserResponse> getAllUsers();
 
+  // user id to role for users holding an allowed role, directly or through composites and groups
+  Map<String, String> getUserRoles();
+
+  // one page of users, roles taken from roleByUserId; users missing there hold no allowed role
+  List<CreateUserResponse> getUsers(int first, int max, Map<String, String> roleByUserId);
+
   void disableUser(String userId);
 
   void enableUser(String userId);
@@ -0,0 +1,12 @@
+package com.blog.auth.service;
+
+import com.blog.auth.model.IdpOutboxEntry;
+
+public interface IdpOutboxService {
+
+  // record a change for the IDP in the current transaction; applied once it commits
+  void enqueue(IdpOutboxEntry.Operation operation, String keycloakId, String username);
+
+  // apply the due entries to the IDP; returns how many were applied
+  int dispatch();
+}
@@ -0,0 +1,13 @@
+package com.blog.auth.service;
+
+public interface UserSyncService {
+
+  /**
+   * Copies new and changed users from the IDP into the users table, resuming an interrupted pass
+   * where it stopped.
+   *
+   * @return {@code false} when the pass was skipped because one is already running here or on
+   *     another instance
+   */
+  boolean syncUsers();
+}
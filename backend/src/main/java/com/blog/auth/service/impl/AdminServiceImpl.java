@@ -1,21 +1,25 @@
 package com.blog.auth.service.impl;
 
+import com.blog.auth.cache.UserDirectory;
 import com.blog.auth.constant.APIConstant;
 import com.blog.auth.dto.request.CreateUserRequest;
 import com.blog.auth.dto.response.CreateUserResponse;
 import com.blog.auth.mapper.UserMapper;
+import com.blog.auth.model.IdpOutboxEntry;
 import com.blog.auth.model.User;
 import com.blog.auth.repository.AdminRepository;
 import com.blog.auth.repository.UserRepository;
 import com.blog.auth.service.AdminService;
+import com.blog.auth.service.IdpOutboxService;
 import com.blog.sharedkernel.dto.PagingResult;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 
 import com.blog.sharedkernel.exception.OperationNotPermit;
 import com.blog.sharedkernel.exception.UserNotFoundException;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.blog.sharedkernel.invalidation.InvalidationBus;
 import com.blog.sharedkernel.utils.UserUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,14 +35,23 @@ public class AdminServiceImpl implements AdminService {
   AdminRepository adminRepository;
   KeycloakClientImpl keycloakClient;
   UserMapper userMapper;
+  UserDirectory userDirectory;
+  InvalidationBus invalidationBus;
+  IdpOutboxService idpOutboxService;
 
   @Autowired
   public AdminServiceImpl(
       AdminRepository adminRepository,
       UserRepository userRepository,
       KeycloakClientImpl keycloakClient,
-      UserMapper userMapper) {
+      UserMapper userMapper,
+      UserDirectory userDirectory,
+      InvalidationBus invalidationBus,
+      IdpOutboxService idpOutboxService) {
     this.userMapper = userMapper;
+    this.idpOutboxService = idpOutboxService;
+    this.userDirectory = userDirectory;
+    this.invalidationBus = invalidationBus;
     this.keycloakClient = keycloakClient;
     this.userRepository = userRepository;
     this.adminRepository = adminRepository;
@@ -79,16 +92,11 @@ public class AdminServiceImpl implements AdminService {
                     return new RuntimeException("User not found: " + userName);
                   });
 
-      // Delete from Keycloak
-      log.debug("Deleting user from Keycloak");
-      boolean keycloakDeleted = keycloakClient.deleteUser(userName);
-      if (!keycloakDeleted) {
-        log.error("Failed to delete user from Keycloak: {}", userName);
-        throw new RuntimeException("Failed to delete user from identity provider");
-      }
-
-      // Delete from database
+      // Delete from database; Keycloak follows through the outbox
       userRepository.delete(user);
+      idpOutboxService.enqueue(
+          IdpOutboxEntry.Operation.DELETE, user.getKeycloakId(), user.getUsername());
+      userChanged(userName);
       log.info("Successfully deleted user: {}", userName);
       return true;
 
@@ -102,52 +110,36 @@ public class AdminServiceImpl implements AdminService {
   @Transactional
   public Boolean enableUser(Long userId) {
     log.info("enableUser called with userId: {}", userId);
-    Optional<User> user = userRepository.findById(userId);
-    User user1 = user.orElseThrow(()-> new UserNotFoundException(userId.toString()));
+    UserDirectory.Entry user = userDirectory.byId(userId)
+        .orElseThrow(() -> new UserNotFoundException(userId.toString()));
     String loggedInUserName = UserUtils.getLoggedInUsername().orElseThrow(
         () -> new RuntimeException("You are not logged in")
     );
-    if(isItSelfOrRootUser(user1.getUsername())){
+    if(isItSelfOrRootUser(user.username())){
       throw new OperationNotPermit(loggedInUserName,"You can't enable/disable yourself or root user");
     }
-    try{
-      user1.setIsEnabled(true);
-      String keycloakId = user1.getKeycloakId();
-      keycloakClient.enableUser(keycloakId);
-      userRepository.save(user1);
-      return true;
-    } catch (Exception e) {
-      user1.setIsEnabled(false);
-      userRepository.save(user1);
-      log.error("Error disabling user: {}", e.getMessage(), e);
-      return false;
-    }
+    userRepository.updateEnabled(userId, true);
+    idpOutboxService.enqueue(IdpOutboxEntry.Operation.ENABLE, user.keycloakId(), user.username());
+    userChanged(user.username());
+    return true;
   }
 
   @Override
   @Transactional
   public Boolean disableUser(Long userId) {
     log.info("disableUser called with userId: {}", userId);
-    Optional<User> user = userRepository.findById(userId);
-    User user1 = user.orElseThrow(()-> new UserNotFoundException(userId.toString()));
+    UserDirectory.Entry user = userDirectory.byId(userId)
+        .orElseThrow(() -> new UserNotFoundException(userId.toString()));
     String loggedInUserName = UserUtils.getLoggedInUsername().orElseThrow(
             () -> new RuntimeException("You are not logged in")
     );
-    if(isItSelfOrRootUser(user1.getUsername())){
+    if(isItSelfOrRootUser(user.username())){
       throw new OperationNotPermit(loggedInUserName,"You can't enable/disable yourself or root user");
     }
-    try{
-      user1.setIsEnabled(false);
-      String keycloakId = user1.getKeycloakId();
-      keycloakClient.disableUser(keycloakId);
-      User savedUser = userRepository.save(user1);
-      return true;
-    } catch (Exception e) {
-      user1.setIsEnabled(true);
-      userRepository.save(user1);
-      log.error("Error disabling user: {}", e.getMessage(), e);
-      return false;
-    }
+    userRepository.updateEnabled(userId, false);
+    idpOutboxService.enqueue(IdpOutboxEntry.Operation.DISABLE, user.keycloakId(), user.username());
+    userChanged(user.username());
+    return true;
   }
 
   @Override
@@ -188,6 +180,12 @@ public class AdminServiceImpl implements AdminService {
             Objects.equals(requestedUserName, APIConstant.ROOT_USER_NAME);
   }
 
+  /** Drops the user from this instance's directory and tells the other instances. */
+  private void userChanged(String userName) {
+    userDirectory.evict(userName);
+    invalidationBus.publish(CacheKeys.user(userName));
+  }
+
   @Override
   public PagingResult<CreateUserResponse> getAllUser(Pageable pageable) {
     log.debug(
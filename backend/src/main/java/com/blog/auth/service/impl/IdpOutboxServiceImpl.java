@@ -0,0 +1,227 @@
+package com.blog.auth.service.impl;
+
+import com.blog.auth.model.IdpOutboxEntry;
+import com.blog.auth.model.UserTombstone;
+import com.blog.auth.repository.IdpOutboxRepository;
+import com.blog.auth.repository.UserTombstoneRepository;
+import com.blog.auth.service.IDPClient;
+import com.blog.auth.service.IdpOutboxService;
+import com.blog.sharedkernel.config.IDPConfigProperties;
+import jakarta.ws.rs.NotFoundException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Transactional outbox for user changes that the IDP has to follow. Admin operations record an
+ * entry in the transaction that changes the users table, so their latency and their database
+ * connection no longer include a Keycloak round trip; once the transaction commits the entry is
+ * applied on the application task executor.
+ *
+ * <p>Each entry is claimed before it is applied, so only one instance applies it, and no
+ * transaction is open during the IDP call. The operations set a state (enabled, disabled, deleted)
+ * and can be repeated safely, which covers an instance stopping between the call and the removal of
+ * the entry. Changes to one user are applied in the order they were recorded. Failed calls are
+ * retried with exponential backoff up to {@code idp.outboxMaxAttempts} times; entries that still
+ * fail are kept as {@link IdpOutboxEntry.Status#FAILED}.
+ *
+ * <p>Until an entry is applied the IDP lags the users table, so the user sync skips users with a
+ * pending entry. Deletes also leave a {@link UserTombstone}, which keeps a sync pass that listed
+ * the user before the IDP deleted it from inserting the user again.
+ */
+@Service
+@Slf4j
+public class IdpOutboxServiceImpl implements IdpOutboxService {
+  private static final int BATCH_SIZE = 100;
+
+  /** Longer than any call the admin client lets through, see {@code idp.readTimeout}. */
+  private static final Duration CLAIM_DURATION = Duration.ofMinutes(5);
+
+  private final IdpOutboxRepository outboxRepository;
+  private final UserTombstoneRepository tombstoneRepository;
+  private final IDPClient idpClient;
+  private final IDPConfigProperties idpConfigProperties;
+  private final TransactionTemplate transactionTemplate;
+  private final TaskExecutor taskExecutor;
+  private final String owner = UUID.randomUUID().toString();
+  private final AtomicBoolean running = new AtomicBoolean();
+  private final AtomicBoolean requested = new AtomicBoolean();
+
+  @Autowired
+  public IdpOutboxServiceImpl(
+      IdpOutboxRepository outboxRepository,
+      UserTombstoneRepository tombstoneRepository,
+      @Qualifier("KeycloakClient") IDPClient idpClient,
+      IDPConfigProperties idpConfigProperties,
+      TransactionTemplate transactionTemplate,
+      @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+          TaskExecutor taskExecutor) {
+    this.outboxRepository = outboxRepository;
+    this.tombstoneRepository = tombstoneRepository;
+    this.idpClient = idpClient;
+    this.idpConfigProperties = idpConfigProperties;
+    this.transactionTemplate = transactionTemplate;
+    this.taskExecutor = taskExecutor;
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueue(IdpOutboxEntry.Operation operation, String keycloakId, String username) {
+    LocalDateTime now = LocalDateTime.now();
+    outboxRepository.save(new IdpOutboxEntry(operation, keycloakId, username, now));
+    if (operation == IdpOutboxEntry.Operation.DELETE) {
+      tombstoneRepository.save(new UserTombstone(keycloakId, username, now));
+    }
+    log.debug("Recorded {} of user {} for the IDP", operation, username);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            taskExecutor.execute(() -> dispatchQuietly());
+          }
+        });
+  }
+
+  @Override
+  public int dispatch() {
+    requested.set(true);
+    if (!running.compareAndSet(false, true)) {
+      // The running dispatch goes round once more.
+      return 0;
+    }
+    int applied = 0;
+    try {
+      while (requested.getAndSet(false)) {
+        applied += dispatchDue();
+      }
+    } finally {
+      running.set(false);
+    }
+    return applied;
+  }
+
+  private int dispatchDue() {
+    int applied = 0;
+    List<IdpOutboxEntry> due;
+    Set<String> blocked = new HashSet<>();
+    do {
+      due = outboxRepository.findDue(LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+      int appliedBefore = applied;
+      for (IdpOutboxEntry entry : due) {
+        String keycloakId = entry.getKeycloakId();
+        if (blocked.contains(keycloakId)
+            || outboxRepository.hasEarlierPending(keycloakId, entry.getId())
+            || !claim(entry)
+            || !apply(entry)) {
+          blocked.add(keycloakId);
+        } else {
+          applied++;
+        }
+      }
+      // Entries left in a full batch are blocked or being retried; the next poll gets them.
+      if (applied == appliedBefore) {
+        break;
+      }
+    } while (due.size() == BATCH_SIZE);
+    return applied;
+  }
+
+  private boolean claim(IdpOutboxEntry entry) {
+    LocalDateTime now = LocalDateTime.now();
+    Integer claimed =
+        transactionTemplate.execute(
+            status -> outboxRepository.claim(entry.getId(), owner, now, now.plus(CLAIM_DURATION)));
+    return claimed != null && claimed == 1;
+  }
+
+  /** Applies the entry to the IDP and removes it, or schedules a retry; true when applied. */
+  private boolean apply(IdpOutboxEntry entry) {
+    try {
+      switch (entry.getOperation()) {
+        case ENABLE -> idpClient.enableUser(entry.getKeycloakId());
+        case DISABLE -> idpClient.disableUser(entry.getKeycloakId());
+        case DELETE -> idpClient.deleteUserById(entry.getKeycloakId());
+      }
+    } catch (NotFoundException e) {
+      fail(entry, "User no longer exists in the IDP", true);
+      return false;
+    } catch (RuntimeException e) {
+      fail(entry, e.getMessage(), false);
+      return false;
+    }
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          outboxRepository.deleteById(entry.getId());
+          if (entry.getOperation() == IdpOutboxEntry.Operation.DELETE) {
+            tombstoneRepository.markApplied(entry.getKeycloakId(), LocalDateTime.now());
+          }
+        });
+    log.info("Applied {} of user {} to the IDP", entry.getOperation(), entry.getUsername());
+    return true;
+  }
+
+  private void fail(IdpOutboxEntry entry, String error, boolean permanent) {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          IdpOutboxEntry current = outboxRepository.findById(entry.getId()).orElseThrow();
+          int attempts = current.getAttempts() + 1;
+          current.setAttempts(attempts);
+          current.setLastError(
+              error == null ? null : error.substring(0, Math.min(1000, error.length())));
+          current.setClaimedBy(null);
+          current.setClaimedUntil(null);
+          if (permanent || attempts >= idpConfigProperties.getOutboxMaxAttempts()) {
+            current.setStatus(IdpOutboxEntry.Status.FAILED);
+            log.error(
+                "Giving up on {} of user {} after {} attempts: {}",
+                current.getOperation(),
+                current.getUsername(),
+                attempts,
+                error);
+          } else {
+            Duration delay = backoff(attempts);
+            current.setNextAttemptAt(LocalDateTime.now().plus(delay));
+            log.warn(
+                "{} of user {} failed, retrying in {}: {}",
+                current.getOperation(),
+                current.getUsername(),
+                delay,
+                error);
+          }
+        });
+  }
+
+  private Duration backoff(int attempts) {
+    Duration delay = idpConfigProperties.getOutboxRetryDelay();
+    Duration max = idpConfigProperties.getOutboxMaxRetryDelay();
+    for (int i = 1; i < attempts && delay.compareTo(max) < 0; i++) {
+      delay = delay.multipliedBy(2);
+    }
+    return delay.compareTo(max) < 0 ? delay : max;
+  }
+
+  private void dispatchQuietly() {
+    try {
+      dispatch();
+    } catch (RuntimeException e) {
+      // Left in the outbox; the scheduled dispatch picks it up.
+      log.error("Dispatching the IDP outbox failed", e);
+    }
+  }
+}
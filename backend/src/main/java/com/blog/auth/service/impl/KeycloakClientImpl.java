@@ -1,5 +1,6 @@
 package com.blog.auth.service.impl;
 
+import com.blog.auth.cache.UserDirectory;
 import com.blog.auth.constant.APIConstant;
 import com.blog.auth.constant.KeycloakConstant;
 import com.blog.auth.dto.request.CreateUserRequest;
@@ -11,14 +12,30 @@ import com.blog.sharedkernel.config.IDPConfigProperties;
 import com.blog.sharedkernel.exception.DuplicateUserException;
 import com.blog.sharedkernel.exception.KeyCloakException;
 import jakarta.annotation.Nonnull;
-import jakarta.annotation.PostConstruct;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.Response;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import lombok.extern.slf4j.Slf4j;
-import org.keycloak.OAuth2Constants;
 import org.keycloak.admin.client.Keycloak;
-import org.keycloak.admin.client.KeycloakBuilder;
+import org.keycloak.admin.client.resource.GroupResource;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleResource;
 import org.keycloak.admin.client.resource.UserResource;
 import org.keycloak.representations.idm.CredentialRepresentation;
 import org.keycloak.representations.idm.RoleRepresentation;
@@ -33,10 +50,18 @@ public class KeycloakClientImpl implements KeycloakClientIDP {
 
   private UserMapper userMapper;
   private IDPConfigProperties idpConfigProperties;
+  private UserDirectory userDirectory;
+  private Keycloak keycloak;
 
   @Autowired
-  public KeycloakClientImpl(UserMapper userMapper, IDPConfigProperties idpConfigProperties) {
+  public KeycloakClientImpl(
+      UserMapper userMapper,
+      IDPConfigProperties idpConfigProperties,
+      UserDirectory userDirectory,
+      Keycloak keycloak) {
     this.idpConfigProperties = idpConfigProperties;
+    this.keycloak = keycloak;
+    this.userDirectory = userDirectory;
     this.userMapper = userMapper;
   }
 
@@ -48,10 +73,7 @@ public class KeycloakClientImpl implements KeycloakClientIDP {
   @Override
   public void resendEmail(String userName) {
     log.info("KeycloakClientImpl resendEmail called");
-    String id = keycloak.realm(idpConfigProperties.getRealm())
-            .users()
-            .search(userName, true)
-            .get(0).getId();
+    String id = getIdFromUserName(userName);
 
     log.info("ID : {}", id);
     keycloak.realm(idpConfigProperties.getRealm())
@@ -60,24 +82,6 @@ public class KeycloakClientImpl implements KeycloakClientIDP {
             .sendVerifyEmail();
   }
 
-  private static Keycloak keycloak;
-
-  @PostConstruct
-  public void init() {
-    log.info("KeycloakClientImpl initialized");
-    log.info("Realm : {}", idpConfigProperties.getRealm());
-    log.info("SERVER_URI : {}", idpConfigProperties.getServerUri());
-    log.info("CLIENT_ID : {}", idpConfigProperties.getClientId());
-    keycloak =
-        KeycloakBuilder.builder()
-            .serverUrl(idpConfigProperties.getServerUri())
-            .realm(idpConfigProperties.getRealm())
-            .clientId(idpConfigProperties.getClientId())
-            .clientSecret(idpConfigProperties.getClientSecret())
-            .grantType(OAuth2Constants.CLIENT_CREDENTIALS)
-            .build();
-  }
-
   @Override
   public CreateUserResponse createUser(CreateUserRequest createUserRequest, Set<String> userGroup) {
     log.info("KeycloakClientImpl createUser called");
@@ -207,22 +211,36 @@ public class KeycloakClientImpl implements KeycloakClientIDP {
       throw new KeyCloakException(
           "KEYCLOAK_USER_NOT_FOUND_ERROR", "Search user failed", userName, HttpStatus.NOT_FOUND);
     }
-    Response response = keycloak.realm(idpConfigProperties.getRealm()).users().delete(id);
-    if (response.getStatus() != 204) {
-      throw new KeyCloakException(
-          "KEYCLOAK_DELETE_ERROR",
-          "Delete user failed",
-          userName,
-          HttpStatus.INTERNAL_SERVER_ERROR);
+    try (Response response = keycloak.realm(idpConfigProperties.getRealm()).users().delete(id)) {
+      if (response.getStatus() != 204) {
+        throw new KeyCloakException(
+            "KEYCLOAK_DELETE_ERROR",
+            "Delete user failed",
+            userName,
+            HttpStatus.INTERNAL_SERVER_ERROR);
+      }
     }
     return true;
   }
 
   @Override
-  public Keycloak getKeycloakClientInstance() {
-    if (keycloak == null) {
-      init();
+  public void deleteUserById(String userId) {
+    try (Response response =
+        keycloak.realm(idpConfigProperties.getRealm()).users().delete(userId)) {
+      if (response.getStatus() == HttpStatus.NOT_FOUND.value()) {
+        log.info("User {} was already deleted in keycloak", userId);
+      } else if (response.getStatus() != HttpStatus.NO_CONTENT.value()) {
+        throw new KeyCloakException(
+            "KEYCLOAK_DELETE_ERROR",
+            "Delete user failed",
+            userId,
+            HttpStatus.BAD_GATEWAY);
+      }
     }
+  }
+
+  @Override
+  public Keycloak getKeycloakClientInstance() {
     return keycloak;
   }
 
@@ -240,48 +258,247 @@ public class KeycloakClientImpl implements KeycloakClientIDP {
     }
   }
 
+  /**
+   * Answered from the {@link UserDirectory} for users in the users table; Keycloak is only searched
+   * for users that are not, such as one whose creation is being rolled back.
+   */
   @Override
   public String getIdFromUserName(String userName) {
-    return keycloak
-        .realm(idpConfigProperties.getRealm())
-        .users()
-        .search(userName, true)
-        .get(0)
-        .getId();
+    return userDirectory
+        .byUsername(userName)
+        .map(UserDirectory.Entry::keycloakId)
+        .orElseGet(
+            () ->
+                keycloak
+                    .realm(idpConfigProperties.getRealm())
+                    .users()
+                    .search(userName, true)
+                    .get(0)
+                    .getId());
   }
 
+  /**
+   * Lists the realm page by page, {@code idp.userPageSize} users per call, with up to {@code
+   * idp.syncThreads} calls in flight. Roles are resolved in bulk as in {@link #getUserRoles()}.
+   */
   @Override
   public List<CreateUserResponse> getAllUsers() {
-    log.info("UserServiceImpl getAllUsers called");
-    List<UserRepresentation> list = keycloak.realm(idpConfigProperties.getRealm()).users().list();
-    return list.stream()
+    log.info("KeycloakClientImpl getAllUsers called");
+    RealmResource realm = keycloak.realm(idpConfigProperties.getRealm());
+    int pageSize = idpConfigProperties.getUserPageSize();
+    return onSyncExecutor(
+        executor -> {
+          int total = realm.users().count();
+          List<Future<List<UserRepresentation>>> pages = new ArrayList<>();
+          for (int first = 0; first < total; first += pageSize) {
+            int offset = first;
+            pages.add(executor.submit(() -> realm.users().list(offset, pageSize)));
+          }
+
+          Map<String, String> roleByUserId = resolveRoles(realm, executor);
+          Map<String, UserRepresentation> users = new LinkedHashMap<>();
+          List<UserRepresentation> page = List.of();
+          for (Future<List<UserRepresentation>> future : pages) {
+            page = future.get();
+            page.forEach(user -> users.putIfAbsent(user.getId(), user));
+          }
+          // Users created while listing push the realm past the count taken up front.
+          for (int first = pages.size() * pageSize; page.size() == pageSize; first += pageSize) {
+            page = realm.users().list(first, pageSize);
+            page.forEach(user -> users.putIfAbsent(user.getId(), user));
+          }
+          log.info("Listed {} users in {} pages", users.size(), pages.size());
+          return withRoles(users.values(), roleByUserId);
+        });
+  }
+
+  /**
+   * Roles of every user holding one of {@link APIConstant#ALLOWED_ROLES}: directly, through a
+   * composite role such as the realm's default roles, or through a group or one of its parents.
+   * Each role and group is listed once instead of reading the effective roles of each user.
+   * Realm roles reached only through a client role composite are not followed.
+   */
+  @Override
+  public Map<String, String> getUserRoles() {
+    RealmResource realm = keycloak.realm(idpConfigProperties.getRealm());
+    return onSyncExecutor(executor -> resolveRoles(realm, executor));
+  }
+
+  @Override
+  public List<CreateUserResponse> getUsers(int first, int max, Map<String, String> roleByUserId) {
+    RealmResource realm = keycloak.realm(idpConfigProperties.getRealm());
+    return withRoles(realm.users().list(first, max), roleByUserId);
+  }
+
+  /** User id to role; a user holding several allowed roles gets the most privileged one. */
+  private Map<String, String> resolveRoles(RealmResource realm, ExecutorService executor)
+      throws InterruptedException, ExecutionException {
+    int pageSize = idpConfigProperties.getUserPageSize();
+    Map<String, Set<String>> grantedBy = grantingRoles(realm, executor);
+    Map<String, Future<Set<String>>> holders = new HashMap<>();
+    for (Set<String> roles : grantedBy.values()) {
+      for (String role : roles) {
+        holders.computeIfAbsent(
+            role, name -> executor.submit(() -> roleHolderIds(realm, name, pageSize)));
+      }
+    }
+    Map<String, String> roleByUserId = new HashMap<>();
+    for (Map.Entry<String, Set<String>> entry : grantedBy.entrySet()) {
+      for (String role : entry.getValue()) {
+        for (String userId : holders.get(role).get()) {
+          roleByUserId.putIfAbsent(userId, entry.getKey());
+        }
+      }
+    }
+    return roleByUserId;
+  }
+
+  /**
+   * Each allowed role, in order of precedence, to the realm roles granting it: itself and every
+   * composite role that includes it, however deeply.
+   */
+  private static Map<String, Set<String>> grantingRoles(
+      RealmResource realm, ExecutorService executor)
+      throws InterruptedException, ExecutionException {
+    Map<String, Future<Set<RoleRepresentation>>> composites = new HashMap<>();
+    for (RoleRepresentation role : realm.roles().list()) {
+      if (role.isComposite()) {
+        String name = role.getName();
+        composites.put(
+            name, executor.submit(() -> realm.roles().get(name).getRealmRoleComposites()));
+      }
+    }
+    Map<String, Set<String>> includedBy = new HashMap<>();
+    for (Map.Entry<String, Future<Set<RoleRepresentation>>> entry : composites.entrySet()) {
+      for (RoleRepresentation included : entry.getValue().get()) {
+        includedBy.computeIfAbsent(included.getName(), name -> new HashSet<>()).add(entry.getKey());
+      }
+    }
+    Map<String, Set<String>> grantedBy = new LinkedHashMap<>();
+    for (String role : APIConstant.ROLE_PRECEDENCE) {
+      Set<String> granting = new HashSet<>();
+      Deque<String> pending = new ArrayDeque<>(List.of(role));
+      while (!pending.isEmpty()) {
+        String current = pending.pop();
+        if (granting.add(current)) {
+          pending.addAll(includedBy.getOrDefault(current, Set.of()));
+        }
+      }
+      grantedBy.put(role, granting);
+    }
+    return grantedBy;
+  }
+
+  private static List<CreateUserResponse> withRoles(
+      Collection<UserRepresentation> users, Map<String, String> roleByUserId) {
+    return users.stream()
         .map(
-            u ->
-                CreateUserResponse.builder()
-                    .email(u.getEmail())
-                    .firstName(u.getFirstName())
-                    .lastName(u.getLastName())
-                    .username(u.getUsername())
-                    .keycloakId(u.getId())
-                        .isEmailVerified(u.isEmailVerified())
-                    .isEnabled(u.isEnabled())
-                        .role(
-                                keycloak
-                                .realm(idpConfigProperties.getRealm())
-                                        .users().get(u.getId())
-                                        .roles()
-                                        .realmLevel()
-                                        .listEffective()
-                                        .stream()
-                                        .map(RoleRepresentation::getName)
-                                        .filter(APIConstant.ALLOWED_ROLES::contains)
-                                        .findFirst().orElse(APIConstant.ROLE_NOT_FOUND)
-                                )
-
-                    .build())
+            user ->
+                toCreateUserResponse(
+                    user, roleByUserId.getOrDefault(user.getId(), APIConstant.ROLE_NOT_FOUND)))
         .toList();
   }
 
+  /** Runs {@code call} on a pool of {@code idp.syncThreads} threads, shut down afterwards. */
+  private <T> T onSyncExecutor(SyncCall<T> call) {
+    ExecutorService executor = newSyncExecutor();
+    try {
+      return call.run(executor);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw listUsersFailed(e);
+    } catch (ExecutionException e) {
+      throw listUsersFailed(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private interface SyncCall<T> {
+    T run(ExecutorService executor) throws InterruptedException, ExecutionException;
+  }
+
+  private ExecutorService newSyncExecutor() {
+    AtomicInteger threads = new AtomicInteger();
+    return Executors.newFixedThreadPool(
+        idpConfigProperties.getSyncThreads(),
+        task -> {
+          Thread thread = new Thread(task, "idp-sync-" + threads.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Ids of the users the role is assigned to, directly or through a group; members of a subgroup
+   * inherit the roles of its parents.
+   */
+  private static Set<String> roleHolderIds(RealmResource realm, String role, int pageSize) {
+    Set<String> ids = new HashSet<>();
+    Deque<String> groupIds = new ArrayDeque<>();
+    RoleResource roleResource = realm.roles().get(role);
+    try {
+      forEachPage(
+          first -> roleResource.getUserMembers(first, pageSize),
+          pageSize,
+          user -> ids.add(user.getId()));
+      forEachPage(
+          first -> roleResource.getRoleGroupMembers(first, pageSize),
+          pageSize,
+          group -> groupIds.add(group.getId()));
+    } catch (NotFoundException e) {
+      log.warn("Role {} does not exist in the realm", role);
+      return ids;
+    }
+    Set<String> visited = new HashSet<>();
+    while (!groupIds.isEmpty()) {
+      String groupId = groupIds.pop();
+      if (visited.add(groupId)) {
+        GroupResource group = realm.groups().group(groupId);
+        forEachPage(
+            first -> group.members(first, pageSize), pageSize, user -> ids.add(user.getId()));
+        forEachPage(
+            first -> group.getSubGroups(first, pageSize, true),
+            pageSize,
+            subGroup -> groupIds.add(subGroup.getId()));
+      }
+    }
+    return ids;
+  }
+
+  private static <T> void forEachPage(
+      IntFunction<? extends Collection<T>> list, int pageSize, Consumer<T> action) {
+    Collection<T> page;
+    int first = 0;
+    do {
+      page = list.apply(first);
+      page.forEach(action);
+      first += pageSize;
+    } while (page.size() == pageSize);
+  }
+
+  private static CreateUserResponse toCreateUserResponse(UserRepresentation user, String role) {
+    return CreateUserResponse.builder()
+        .email(user.getEmail())
+        .firstName(user.getFirstName())
+        .lastName(user.getLastName())
+        .username(user.getUsername())
+        .keycloakId(user.getId())
+        .isEmailVerified(user.isEmailVerified())
+        .isEnabled(user.isEnabled())
+        .role(role)
+        .build();
+  }
+
+  private KeyCloakException listUsersFailed(Throwable cause) {
+    log.error("Failed to list users of realm {}", idpConfigProperties.getRealm(), cause);
+    return new KeyCloakException(
+        "KEYCLOAK_LIST_USERS_ERROR",
+        "List users failed",
+        idpConfigProperties.getRealm(),
+        HttpStatus.BAD_GATEWAY);
+  }
+
   @Override
   public void disableUser(String userId) {
     log.info("KeycloakClientImpl disableUser called");
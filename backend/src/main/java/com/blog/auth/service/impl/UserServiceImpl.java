@@ -1,5 +1,6 @@
 package com.blog.auth.service.impl;
 
+import com.blog.auth.cache.UserDirectory;
 import com.blog.auth.dto.request.CreateUserRequest;
 import com.blog.auth.dto.request.UpdateUserRequest;
 import com.blog.auth.dto.response.CreateUserResponse;
@@ -8,9 +9,10 @@ import com.blog.auth.model.User;
 import com.blog.auth.repository.UserRepository;
 import com.blog.auth.service.UserService;
 import com.blog.sharedkernel.exception.UserNotFoundException;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.blog.sharedkernel.invalidation.InvalidationBus;
 import com.blog.sharedkernel.utils.UserUtils;
 import jakarta.annotation.Nonnull;
-import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
@@ -25,13 +27,21 @@ public class UserServiceImpl implements UserService {
   UserRepository userRepository;
   KeycloakClientImpl keycloakClient;
   UserMapper userMapper;
+  InvalidationBus invalidationBus;
+  UserDirectory userDirectory;
 
   @Autowired
   public UserServiceImpl(
-      UserRepository userRepository, KeycloakClientImpl keycloakClient, UserMapper userMapper) {
+      UserRepository userRepository,
+      KeycloakClientImpl keycloakClient,
+      UserMapper userMapper,
+      InvalidationBus invalidationBus,
+      UserDirectory userDirectory) {
+    this.userDirectory = userDirectory;
     this.userMapper = userMapper;
     this.keycloakClient = keycloakClient;
     this.userRepository = userRepository;
+    this.invalidationBus = invalidationBus;
   }
 
   @Override
@@ -46,6 +56,7 @@ public class UserServiceImpl implements UserService {
       user.setIsEnabled(response.getIsEnabled());
       User savedUser = userRepository.save(user);
       response.setUserId(savedUser.getId());
+      invalidationBus.publish(CacheKeys.user(savedUser.getUsername()));
     } catch (Exception e) {
       var status = keycloakClient.deleteUser(response.getUsername());
       log.error("User deleted status: {}", status);
@@ -56,39 +67,12 @@ public class UserServiceImpl implements UserService {
   }
 
   @Override
-  public void saveUsersFromIDP(@Nonnull List<CreateUserResponse> response) {
-    log.info("UserServiceImpl createUserFromIDP called");
-    log.debug("UserServiceImpl createUserFromIDP response: {}", response);
-    for (CreateUserResponse user : response) {
-      try {
-        User user1 = userMapper.toUser(user);
-        User existingUser = userRepository.findByUsername(user.getUsername()).orElse(null);
-        if (existingUser != null) {
-          log.info("UserServiceImpl createUserFromIDP user exist: {}", user);
-          continue;
-        }
-        log.debug("UserServiceImpl createUserFromIDP user object: {}", user1);
-        User save = userRepository.save(userMapper.toUser(user));
-        log.info("Saved user with ID: {}", save.getId());
-        log.debug("UserServiceImpl createUserFromIDP after saving in DB : {}", save);
-      } catch (Exception e) {
-        var status = keycloakClient.deleteUser(user.getUsername());
-        log.error("User deleted status: {}", status);
-        log.error("Exception while creating user: {}", e.getMessage());
-        throw new RuntimeException(user.getUsername());
-      }
-    }
-  }
-
-  @Override
-  @Transactional
   public CreateUserResponse getByUserName(String userName) {
     log.info("UserServiceImpl getByUserName called");
     log.debug("UserServiceImpl getByUserName userName: {}", userName);
-    Optional<User> user = userRepository.findByUsername(userName);
-    log.info("UserServiceImpl getByUserName user: {}", user.get().getProfileImage());
     CreateUserResponse createUserResponse =
-        user.map(u -> userMapper.toCreateUserResponse(u))
+        userDirectory.byUsername(userName)
+            .map(UserDirectory.Entry::toResponse)
             .orElseThrow(() -> new UserNotFoundException(userName));
     log.debug("UserServiceImpl getByUserName response: {}", createUserResponse);
     return createUserResponse;
@@ -113,6 +97,8 @@ public class UserServiceImpl implements UserService {
     user.setAge(updateUserRequest.getAge());
     try {
       User savedUser = userRepository.save(user);
+      userDirectory.evict(savedUser.getUsername());
+      invalidationBus.publish(CacheKeys.user(savedUser.getUsername()));
       return userMapper.toCreateUserResponse(savedUser);
     } catch (Exception e) {
       log.error("Exception while updating user: {}", e.getMessage());
@@ -124,9 +110,9 @@ public class UserServiceImpl implements UserService {
   public CreateUserResponse getUserById(Long userId) {
     log.info("UserServiceImpl getUserById called");
     log.debug("UserServiceImpl getUserById userId: {}", userId);
-    Optional<User> user = userRepository.findById(userId);
     CreateUserResponse createUserResponse =
-        user.map(u -> userMapper.toCreateUserResponse(u))
+        userDirectory.byId(userId)
+            .map(UserDirectory.Entry::toResponse)
             .orElseThrow(() -> new UserNotFoundException(userId.toString()));
     log.debug("UserServiceImpl getUserById response: {}", createUserResponse);
     return createUserResponse;
@@ -0,0 +1,255 @@
+package com.blog.auth.service.impl;
+
+import com.blog.auth.cache.UserDirectory;
+import com.blog.auth.dto.response.CreateUserResponse;
+import com.blog.auth.mapper.UserMapper;
+import com.blog.auth.model.User;
+import com.blog.auth.model.UserSyncState;
+import com.blog.auth.repository.IdpOutboxRepository;
+import com.blog.auth.repository.UserRepository;
+import com.blog.auth.repository.UserSyncStateRepository;
+import com.blog.auth.repository.UserTombstoneRepository;
+import com.blog.auth.service.IDPClient;
+import com.blog.auth.service.UserSyncService;
+import com.blog.sharedkernel.config.IDPConfigProperties;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.blog.sharedkernel.invalidation.InvalidationBus;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Pages through the IDP and applies each page to the users table in one transaction: a single
+ * {@code IN} query finds the rows the page already has, new users are inserted, changed ones
+ * updated and unchanged ones left alone. The offset of the next page is stored with the page's
+ * changes, so a pass that is interrupted resumes after the last applied page. The users of each
+ * applied page are stored in the {@link UserDirectory}.
+ *
+ * <p>Keycloak offers no last-modified filter on users, so every pass reads the whole realm; a pass
+ * over an unchanged realm writes nothing but the checkpoint. Only one instance runs a pass at a
+ * time, guarded by a lease in {@code user_sync_state}. Users removed from the IDP are kept. Users
+ * with changes the IDP has not applied yet, see {@code IdpOutboxServiceImpl}, are skipped.
+ */
+@Service
+@Slf4j
+public class UserSyncServiceImpl implements UserSyncService {
+  private final IDPClient idpClient;
+  private final UserRepository userRepository;
+  private final UserSyncStateRepository stateRepository;
+  private final IdpOutboxRepository outboxRepository;
+  private final UserTombstoneRepository tombstoneRepository;
+  private final UserMapper userMapper;
+  private final IDPConfigProperties idpConfigProperties;
+  private final TransactionTemplate transactionTemplate;
+  private final InvalidationBus invalidationBus;
+  private final UserDirectory userDirectory;
+  private final String owner = UUID.randomUUID().toString();
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  @Autowired
+  public UserSyncServiceImpl(
+      @Qualifier("KeycloakClient") IDPClient idpClient,
+      UserRepository userRepository,
+      UserSyncStateRepository stateRepository,
+      IdpOutboxRepository outboxRepository,
+      UserTombstoneRepository tombstoneRepository,
+      UserMapper userMapper,
+      IDPConfigProperties idpConfigProperties,
+      TransactionTemplate transactionTemplate,
+      InvalidationBus invalidationBus,
+      UserDirectory userDirectory) {
+    this.idpClient = idpClient;
+    this.userRepository = userRepository;
+    this.stateRepository = stateRepository;
+    this.outboxRepository = outboxRepository;
+    this.tombstoneRepository = tombstoneRepository;
+    this.userMapper = userMapper;
+    this.idpConfigProperties = idpConfigProperties;
+    this.transactionTemplate = transactionTemplate;
+    this.invalidationBus = invalidationBus;
+    this.userDirectory = userDirectory;
+  }
+
+  @Override
+  public boolean syncUsers() {
+    if (!running.compareAndSet(false, true)) {
+      log.info("User sync already running on this instance");
+      return false;
+    }
+    String idpName = idpClient.getIDPName();
+    try {
+      if (!claim(idpName)) {
+        log.info("User sync is running on another instance");
+        return false;
+      }
+      runPass(idpName);
+      return true;
+    } finally {
+      transactionTemplate.executeWithoutResult(status -> stateRepository.release(idpName, owner));
+      running.set(false);
+    }
+  }
+
+  private void runPass(String idpName) {
+    int first = stateRepository.findById(idpName).orElseThrow().getNextOffset();
+    if (first > 0) {
+      log.info("Resuming user sync from {} at offset {}", idpName, first);
+    } else {
+      updateState(idpName, state -> state.setPassStartedAt(LocalDateTime.now()));
+    }
+    Map<String, String> roleByUserId = idpClient.getUserRoles();
+    int pageSize = idpConfigProperties.getUserPageSize();
+    int inserted = 0;
+    int updated = 0;
+    List<CreateUserResponse> page;
+    do {
+      page = idpClient.getUsers(first, pageSize, roleByUserId);
+      int next = page.size() < pageSize ? 0 : first + page.size();
+      List<CreateUserResponse> current = page;
+      PageChanges changes =
+          transactionTemplate.execute(status -> applyPage(idpName, current, next));
+      changes.renamedFrom().forEach(userDirectory::evict);
+      changes.users().forEach(userDirectory::put);
+      inserted += changes.inserted();
+      updated += changes.updated();
+      first = next;
+      if (next > 0 && !claim(idpName)) {
+        log.warn("Lost the user sync lease at offset {}; another instance continues", next);
+        return;
+      }
+    } while (first > 0);
+    log.info("User sync from {} done: {} inserted, {} updated", idpName, inserted, updated);
+  }
+
+  private PageChanges applyPage(String idpName, List<CreateUserResponse> idpPage, int nextOffset) {
+    List<CreateUserResponse> page = withoutHeldBack(idpPage);
+    List<User> existing =
+        userRepository.findByKeycloakIdInOrUsernameIn(
+            page.stream().map(CreateUserResponse::getKeycloakId).toList(),
+            page.stream().map(CreateUserResponse::getUsername).toList());
+    Map<String, User> byKeycloakId = new HashMap<>();
+    Map<String, User> byUsername = new HashMap<>();
+    for (User user : existing) {
+      byKeycloakId.put(user.getKeycloakId(), user);
+      byUsername.put(user.getUsername(), user);
+    }
+    List<User> inserts = new ArrayList<>();
+    List<String> changed = new ArrayList<>();
+    List<String> renamedFrom = new ArrayList<>();
+    for (CreateUserResponse idpUser : page) {
+      User user = byKeycloakId.get(idpUser.getKeycloakId());
+      if (user == null) {
+        // Recreated in the IDP under the same username.
+        user = byUsername.get(idpUser.getUsername());
+      }
+      if (user == null) {
+        inserts.add(userMapper.toUser(idpUser));
+        changed.add(idpUser.getUsername());
+      } else {
+        String username = user.getUsername();
+        if (copyFromIdp(idpUser, user)) {
+          changed.add(user.getUsername());
+          if (!username.equals(user.getUsername())) {
+            renamedFrom.add(username);
+          }
+        }
+      }
+    }
+    userRepository.saveAll(inserts);
+    UserSyncState state = stateRepository.findById(idpName).orElseThrow();
+    state.setNextOffset(nextOffset);
+    if (nextOffset == 0) {
+      if (state.getPassStartedAt() != null) {
+        // This pass listed the realm after those deletions had reached the IDP.
+        tombstoneRepository.deleteAppliedBefore(state.getPassStartedAt());
+      }
+      state.setLastCompletedAt(LocalDateTime.now());
+      state.setPassStartedAt(null);
+    }
+    // Instances holding a renamed user still find it under the old name.
+    Stream.concat(changed.stream(), renamedFrom.stream())
+        .forEach(username -> invalidationBus.publish(CacheKeys.user(username)));
+    List<User> users = new ArrayList<>(existing);
+    users.addAll(inserts);
+    return new PageChanges(users, renamedFrom, inserts.size(), changed.size() - inserts.size());
+  }
+
+  /**
+   * Leaves out users the IDP has not caught up with: those with a change pending in the outbox,
+   * which the sync would otherwise undo, and deleted ones, which it would bring back.
+   */
+  private List<CreateUserResponse> withoutHeldBack(List<CreateUserResponse> page) {
+    List<String> keycloakIds = page.stream().map(CreateUserResponse::getKeycloakId).toList();
+    Set<String> heldBack = new HashSet<>(outboxRepository.findPendingKeycloakIds(keycloakIds));
+    tombstoneRepository.findAllById(keycloakIds).forEach(t -> heldBack.add(t.getKeycloakId()));
+    if (heldBack.isEmpty()) {
+      return page;
+    }
+    log.debug("Skipping {} users with changes not yet applied to the IDP", heldBack.size());
+    return page.stream().filter(user -> !heldBack.contains(user.getKeycloakId())).toList();
+  }
+
+  /** Copies the attributes owned by the IDP; returns whether any of them differed. */
+  private static boolean copyFromIdp(CreateUserResponse idpUser, User user) {
+    boolean changed = false;
+    changed |= set(user.getKeycloakId(), idpUser.getKeycloakId(), user::setKeycloakId);
+    changed |= set(user.getUsername(), idpUser.getUsername(), user::setUsername);
+    changed |= set(user.getEmail(), idpUser.getEmail(), user::setEmail);
+    changed |= set(user.getFirstName(), idpUser.getFirstName(), user::setFirstName);
+    changed |= set(user.getLastName(), idpUser.getLastName(), user::setLastName);
+    changed |= set(user.getRole(), idpUser.getRole(), user::setRole);
+    changed |= set(user.getIsEnabled(), idpUser.getIsEnabled(), user::setIsEnabled);
+    changed |=
+        set(user.getIsEmailVerified(), idpUser.getIsEmailVerified(), user::setIsEmailVerified);
+    return changed;
+  }
+
+  private static <T> boolean set(T current, T value, Consumer<T> setter) {
+    if (value == null || Objects.equals(current, value)) {
+      return false;
+    }
+    setter.accept(value);
+    return true;
+  }
+
+  private boolean claim(String idpName) {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime until = now.plus(idpConfigProperties.getSyncLease());
+    Supplier<Integer> claim = () -> stateRepository.claim(idpName, owner, now, until);
+    Integer claimed = transactionTemplate.execute(status -> claim.get());
+    if (claimed == 0 && !stateRepository.existsById(idpName)) {
+      try {
+        transactionTemplate.executeWithoutResult(
+            status -> stateRepository.save(new UserSyncState(idpName)));
+      } catch (DataIntegrityViolationException e) {
+        log.debug("Sync state for {} created concurrently", idpName);
+      }
+      claimed = transactionTemplate.execute(status -> claim.get());
+    }
+    return claimed != null && claimed == 1;
+  }
+
+  private void updateState(String idpName, Consumer<UserSyncState> change) {
+    transactionTemplate.executeWithoutResult(
+        status -> change.accept(stateRepository.findById(idpName).orElseThrow()));
+  }
+
+  private record PageChanges(
+      List<User> users, List<String> renamedFrom, int inserted, int updated) {}
+}
@@ -0,0 +1,8 @@
+package com.blog.comments.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CommentProperties.class)
+public class CommentConfig {}
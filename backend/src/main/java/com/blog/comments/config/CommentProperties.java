@@ -0,0 +1,68 @@
+package com.blog.comments.config;
+
+import jakarta.validation.constraints.Min;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "comments")
+@Data
+public class CommentProperties {
+  /** How long a post's comment count is served from memory before it is counted again. */
+  private Duration countCacheTtl = Duration.ofSeconds(5);
+
+  /** Cached counts kept at most; the least recently used are evicted beyond this. */
+  @Min(1)
+  private int countCacheMaxEntries = 10_000;
+
+  /** Upper bound for the number of post ids in one bulk count request. */
+  @Min(1)
+  private int maxBulkCountPosts = 100;
+
+  /**
+   * Events buffered per live stream subscriber. A subscriber that falls this far behind gets its
+   * buffer replaced by a single {@code resync} event instead of slowing down everyone else.
+   */
+  @Min(1)
+  private int streamBufferSize = 64;
+
+  /** Open live streams across all posts; further subscriptions are rejected. */
+  @Min(1)
+  private int maxStreamSubscribers = 10_000;
+
+  /** Threads writing events to subscribers. */
+  @Min(1)
+  private int streamSenderThreads = 4;
+
+  /** Lifetime of one stream connection; clients reconnect afterwards. */
+  private Duration streamTimeout = Duration.ofMinutes(30);
+
+  /** Gap after which an idle stream receives a keep-alive comment. */
+  private Duration streamHeartbeatInterval = Duration.ofSeconds(15);
+
+  /**
+   * Accept new comments into a bounded queue and insert them in JDBC batches. Callers still get
+   * their comment back only once it is committed. Needs PostgreSQL.
+   */
+  private boolean writeBehindEnabled = false;
+
+  /** Comments waiting to be written; once full, callers wait up to {@link #writeBehindTimeout}. */
+  @Min(1)
+  private int writeBehindQueueCapacity = 10_000;
+
+  /** Rows inserted per JDBC batch. */
+  @Min(1)
+  private int writeBehindBatchSize = 200;
+
+  /** How long the writer keeps collecting comments before flushing a partial batch. */
+  private Duration writeBehindFlushInterval = Duration.ofMillis(5);
+
+  /** Comment ids reserved from the sequence per round trip. */
+  @Min(1)
+  private int writeBehindIdBlockSize = 500;
+
+  /** Longest a caller waits for its comment to be queued and committed. */
+  private Duration writeBehindTimeout = Duration.ofSeconds(5);
+}
@@ -2,8 +2,12 @@ package com.blog.comments.controller;
 
 import com.blog.comments.dto.request.CreateCommentDTO;
 import com.blog.comments.dto.request.UpdateCommentDTO;
+import com.blog.comments.dto.response.CommentThreadDTO;
 import com.blog.comments.dto.response.ResponseCommentDTO;
 import com.blog.comments.service.CommentService;
+import com.blog.comments.stream.CommentStreamHub;
+import com.blog.sharedkernel.dto.ContentVersion;
+import com.blog.sharedkernel.dto.CursorPagingResult;
 import com.blog.sharedkernel.utils.UserUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,6 +18,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.net.URI;
+import java.util.Map;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -22,6 +28,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * REST controller for managing blog post comments. Provides endpoints for creating, reading,
@@ -34,9 +42,11 @@ import org.springframework.web.bind.annotation.*;
 public class CommentController {
 
   private final CommentService commentService;
+  private final CommentStreamHub commentStreamHub;
 
-  public CommentController(CommentService commentService) {
+  public CommentController(CommentService commentService, CommentStreamHub commentStreamHub) {
     this.commentService = commentService;
+    this.commentStreamHub = commentStreamHub;
   }
 
   @GetMapping("/post/{postId}")
@@ -45,14 +55,111 @@ public class CommentController {
           @PathVariable
           Long postId,
       @Parameter(description = "Pagination and sorting parameters") @PageableDefault(size = 10)
-          Pageable pageable) {
+          Pageable pageable,
+      WebRequest request) {
     log.info("GetCommentsForPost called");
     log.debug("Retrieving comments for post with ID: {}", postId);
+    ContentVersion version = commentService.getCommentsVersion(postId);
+    if (request.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+      log.debug("Comments of post with ID: {} not modified", postId);
+      return null;
+    }
     Page<ResponseCommentDTO> comments = commentService.getCommentsForPost(postId, pageable);
     log.debug("Retrieved {} comments for post with ID: {}", comments.getContent().size(), postId);
     return ResponseEntity.ok(comments);
   }
 
+  @Operation(
+      summary = "Get comment threads for a post",
+      description =
+          "Returns a keyset page of top-level comments, newest first, each with its first replies"
+              + " in thread order. Pass nextCursor from the previous page to continue.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved comment threads",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor")
+      })
+  @GetMapping("/post/{postId}/threads")
+  public ResponseEntity<CursorPagingResult<CommentThreadDTO>> getCommentThreads(
+      @Parameter(description = "ID of the post to retrieve comments for", required = true)
+          @PathVariable
+          Long postId,
+      @Parameter(description = "Opaque cursor returned as nextCursor by the previous page")
+          @RequestParam(required = false)
+          String cursor,
+      @Parameter(description = "Number of top-level comments per page (max 50)", example = "10")
+          @RequestParam(defaultValue = "" + CommentService.DEFAULT_PAGE_SIZE)
+          int size,
+      @Parameter(description = "Replies included per thread (max 20)", example = "3")
+          @RequestParam(defaultValue = "" + CommentService.DEFAULT_REPLIES_PER_THREAD)
+          int replies) {
+    log.info("GetCommentThreads called");
+    log.debug("Retrieving comment threads for post with ID: {}", postId);
+    CursorPagingResult<CommentThreadDTO> threads =
+        commentService.getCommentThreads(postId, cursor, size, replies);
+    log.debug(
+        "Retrieved {} comment threads for post with ID: {}", threads.getContent().size(), postId);
+    return ResponseEntity.ok(threads);
+  }
+
+  @Operation(
+      summary = "Get replies to a comment",
+      description =
+          "Returns a keyset page of the replies below a comment, at any depth, in thread order."
+              + " Use repliesCursor of a thread or nextCursor of the previous page to continue.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved replies",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+        @ApiResponse(responseCode = "404", description = "Comment not found")
+      })
+  @GetMapping("/{commentId}/replies")
+  public ResponseEntity<CursorPagingResult<ResponseCommentDTO>> getReplies(
+      @Parameter(description = "ID of the comment whose replies are requested", required = true)
+          @PathVariable
+          Long commentId,
+      @Parameter(description = "Opaque cursor returned by the previous page")
+          @RequestParam(required = false)
+          String cursor,
+      @Parameter(description = "Number of replies per page (max 50)", example = "10")
+          @RequestParam(defaultValue = "" + CommentService.DEFAULT_PAGE_SIZE)
+          int size) {
+    log.info("GetReplies called");
+    log.debug("Retrieving replies of comment with ID: {}", commentId);
+    CursorPagingResult<ResponseCommentDTO> replies =
+        commentService.getReplies(commentId, cursor, size);
+    log.debug(
+        "Retrieved {} replies of comment with ID: {}", replies.getContent().size(), commentId);
+    return ResponseEntity.ok(replies);
+  }
+
+  @Operation(
+      summary = "Stream comment changes of a post",
+      description =
+          "Opens a Server-Sent Events stream of the comments created, updated and deleted on a"
+              + " post. A client that falls behind receives a 'resync' event and should reload"
+              + " the comments.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Stream opened"),
+        @ApiResponse(responseCode = "400", description = "Too many open streams")
+      })
+  @GetMapping(value = "/post/{postId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamComments(
+      @Parameter(description = "ID of the post to stream comments for", required = true)
+          @PathVariable
+          Long postId) {
+    log.info("StreamComments called");
+    log.debug("Opening comment stream for post with ID: {}", postId);
+    return commentStreamHub.subscribe(postId);
+  }
+
   @Operation(
       summary = "Create a new comment",
       description =
@@ -118,6 +225,31 @@ public class CommentController {
     return ResponseEntity.noContent().build();
   }
 
+  @Operation(
+      summary = "Get comment counts for several posts",
+      description =
+          "Returns the number of comments for each requested post in one call, 0 for posts"
+              + " without comments. Counts may be a few seconds stale.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved comment counts",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
+        @ApiResponse(responseCode = "400", description = "Too many post ids")
+      })
+  @GetMapping("/post/counts")
+  public ResponseEntity<Map<Long, Long>> getCommentCounts(
+      @Parameter(description = "Comma separated post ids", required = true, example = "1,2,3")
+          @RequestParam
+          Set<Long> postIds) {
+    log.info("GetCommentCounts called");
+    log.debug("Fetching comment counts for post IDs: {}", postIds);
+    Map<Long, Long> commentCounts = commentService.getCommentCountsForPosts(postIds);
+    log.debug("Successfully fetched {} comment counts", commentCounts.size());
+    return ResponseEntity.ok(commentCounts);
+  }
+
   @Operation(
       summary = "Get comment count for a post",
       description = "Returns the total number of comments for a specific blog post.")
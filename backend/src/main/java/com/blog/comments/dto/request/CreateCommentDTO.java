@@ -24,6 +24,9 @@ public class CreateCommentDTO {
       example = "This is a great post! Thanks for sharing.")
   private String comment; // Actual comment text
 
+  @Schema(description = "ID of the comment this one replies to, empty for a top-level comment")
+  private Long parentId;
+
   @Null @JsonIgnore // ID of the person commenting
   private String authorUserName; // Name of the person commenting
   @Null @JsonIgnore private String authorEmail; // (Optional) Email of commenter
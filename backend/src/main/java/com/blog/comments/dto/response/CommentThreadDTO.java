@@ -0,0 +1,21 @@
+package com.blog.comments.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.*;
+
+/** A top-level comment with the first replies of its thread, in depth-first order. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentThreadDTO {
+  private ResponseCommentDTO comment;
+  @Builder.Default private List<ResponseCommentDTO> replies = new ArrayList<>();
+
+  /** Number of replies in the whole thread, at any depth. */
+  private long replyCount;
+
+  /** Cursor for the replies after {@link #replies}, {@code null} when all are included. */
+  private String repliesCursor;
+}
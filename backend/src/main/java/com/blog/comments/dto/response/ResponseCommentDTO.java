@@ -6,6 +6,9 @@ import lombok.*;
 @Data
 public class ResponseCommentDTO extends BaseDto {
   private Long postId; // Blog post ID that this comment belongs to
+  private Long parentId; // Comment this one replies to, null for top-level comments
+  private Long rootId; // Top-level comment of the thread
+  private int depth; // 0 for top-level comments
   private String comment; // Actual comment text
   private String authorUserName; // Name of the person commenting
   private String authorEmail; // (Optional) Email of commenter
@@ -0,0 +1,4 @@
+package com.blog.comments.event;
+
+/** Published when a comment has been added to a post. */
+public record CommentCreated(Long commentId, Long postId) {}
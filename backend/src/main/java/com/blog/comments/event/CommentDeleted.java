@@ -0,0 +1,8 @@
+package com.blog.comments.event;
+
+/**
+ * Published when a comment has been removed from a post, together with its replies.
+ *
+ * @param removed number of comments removed: the comment and all replies below it
+ */
+public record CommentDeleted(Long commentId, Long postId, int removed) {}
@@ -0,0 +1,4 @@
+package com.blog.comments.event;
+
+/** Published when the text of a comment has been edited. */
+public record CommentUpdated(Long commentId, Long postId) {}
@@ -0,0 +1,8 @@
+/**
+ * Domain events published by the comments module once a comment change is committed. Other modules
+ * react to them through the Spring Modulith event publication registry.
+ */
+@NamedInterface("comments.event")
+package com.blog.comments.event;
+
+import org.springframework.modulith.NamedInterface;
@@ -15,5 +15,6 @@ public interface CommentMapper {
   @Mappings({@Mapping(target = "isEdited", constant = "false")})
   Comment toEntity(CreateCommentDTO dto);
 
+  @Mapping(target = "depth", expression = "java(entity.depth())")
   ResponseCommentDTO toResponseDto(Comment entity);
 }
@@ -7,13 +7,28 @@ import lombok.*;
 /**
  * Entity representing a comment in the blog application. Comments can be either top-level or
  * replies to other comments.
+ *
+ * <p>Threads use a materialized path: {@link #path} is the chain of ids from the top-level comment
+ * down to this one, each encoded with {@link #PATH_SEGMENT_LENGTH} base-36 digits and joined by
+ * {@code '.'}. Sorting a thread by path yields depth-first reply order, and a subtree is a path
+ * prefix range.
  */
 @Entity
-@Table(name = "comments")
+@Table(
+    name = "comments",
+    indexes = {
+      @Index(
+          name = "idx_comments_post_parent_created_id",
+          columnList = "post_id, parent_id, created_at DESC, id DESC"),
+      @Index(name = "idx_comments_root_path", columnList = "root_id, path")
+    })
 @Data
 @ToString(callSuper = true)
 @EqualsAndHashCode(callSuper = true)
 public class Comment extends BaseEntity {
+  public static final int PATH_SEGMENT_LENGTH = 13; // Long.MAX_VALUE in base 36
+  public static final char PATH_SEPARATOR = '.';
+
   @Column(columnDefinition = "TEXT", nullable = false)
   private String comment;
 
@@ -28,4 +43,47 @@ public class Comment extends BaseEntity {
 
   @Column(name = "is_edited", nullable = false)
   private Boolean isEdited;
+
+  /** Comment this one replies to; {@code null} for top-level comments. */
+  @Column(name = "parent_id")
+  private Long parentId;
+
+  /** Top-level comment of the thread; its own id for top-level comments. */
+  @Column(name = "root_id")
+  private Long rootId;
+
+  @Column(name = "path", length = 1024)
+  private String path;
+
+  /** Path segment of {@code id}, zero-padded so that string order matches numeric order. */
+  public static String pathSegment(long id) {
+    String digits = Long.toString(id, 36);
+    return "0".repeat(PATH_SEGMENT_LENGTH - digits.length()) + digits;
+  }
+
+  /**
+   * Completes {@link #rootId} and {@link #path} once the id is known.
+   *
+   * @param parent comment replied to, {@code null} for a top-level comment
+   */
+  public void placeInThread(Comment parent) {
+    String segment = pathSegment(getId());
+    if (parent == null) {
+      rootId = getId();
+      path = segment;
+    } else {
+      rootId = parent.getRootId();
+      path = parent.descendantPathPrefix() + segment;
+    }
+  }
+
+  /** Number of ancestors, 0 for top-level comments. */
+  public int depth() {
+    return path == null ? 0 : path.length() / (PATH_SEGMENT_LENGTH + 1);
+  }
+
+  /** Prefix shared by the paths of all replies below this comment, at any depth. */
+  public String descendantPathPrefix() {
+    return path + PATH_SEPARATOR;
+  }
 }
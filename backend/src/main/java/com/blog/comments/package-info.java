@@ -1,6 +1,9 @@
 /**
  * Module containing all comment-related functionality. This includes comment management,
  * moderation, and tree structure.
+ *
+ * <p>Other modules learn about comment changes from its events and read aggregate figures through
+ * its statistics API; they never access comment persistence directly.
  */
 @org.springframework.modulith.NamedInterface("comments")
 @ApplicationModule(
@@ -9,7 +12,8 @@
       "sharedkernel::sharedkernel.dto",
       "sharedkernel::sharedkernel.entity",
       "sharedkernel::sharedkernel.mapper",
-      "sharedkernel::sharedkernel.utils"
+      "sharedkernel::sharedkernel.utils",
+      "sharedkernel::sharedkernel.invalidation"
     })
 package com.blog.comments;
 
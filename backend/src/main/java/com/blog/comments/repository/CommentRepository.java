@@ -1,10 +1,16 @@
 package com.blog.comments.repository;
 
 import com.blog.comments.model.Comment;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -14,4 +20,87 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
   List<Comment> findByPostId(Long postId);
 
   Long countByPostId(Long postId);
+
+  @Query(
+      """
+      select count(c) as comments, max(c.updatedAt) as updatedAt, coalesce(sum(c.id), 0) as idSum
+      from Comment c where c.postId = :postId
+      """)
+  CommentSetVersionRow findVersionByPostId(@Param("postId") Long postId);
+
+  /**
+   * Keyset page of a post's top-level comments, newest first. Rows strictly after the cursor {@code
+   * (cursorCreatedAt, cursorId)} are returned; pass {@code null} cursor values for the first page.
+   * Only the page size of {@code pageable} is used.
+   */
+  @Query(
+      """
+      select c from Comment c
+      where c.postId = :postId and c.parentId is null
+        and (:cursorCreatedAt is null
+             or c.createdAt < :cursorCreatedAt
+             or (c.createdAt = :cursorCreatedAt and c.id < :cursorId))
+      order by c.createdAt desc, c.id desc
+      """)
+  List<Comment> findTopLevelPage(
+      @Param("postId") Long postId,
+      @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+      @Param("cursorId") Long cursorId,
+      Pageable pageable);
+
+  /**
+   * Ids of the first {@code limit} replies (in path order) of each given thread, plus every
+   * thread's total reply count. A thread's first reply is always returned so its total is known
+   * even for {@code limit = 0}; {@code pos} tells the rows apart.
+   */
+  @Query(
+      value =
+          """
+          select r.id as id, r.root_id as root, r.total as total, r.pos as pos from (
+            select c.id, c.root_id,
+                   row_number() over (partition by c.root_id order by c.path) as pos,
+                   count(*) over (partition by c.root_id) as total
+            from comments c
+            where c.root_id in (:rootIds) and c.parent_id is not null
+          ) r
+          where r.pos <= greatest(:limit, 1)
+          """,
+      nativeQuery = true)
+  List<ThreadReplyRow> findFirstRepliesByRootIdIn(
+      @Param("rootIds") Collection<Long> rootIds, @Param("limit") int limit);
+
+  /**
+   * Keyset page of the replies below a comment in depth-first order: rows of thread {@code rootId}
+   * whose path starts with {@code pathPrefix} and sorts after {@code afterPath}.
+   */
+  @Query(
+      """
+      select c from Comment c
+      where c.rootId = :rootId and c.path like :pathPrefix and c.path > :afterPath
+      order by c.path
+      """)
+  List<Comment> findSubtreePage(
+      @Param("rootId") Long rootId,
+      @Param("pathPrefix") String pathPrefix,
+      @Param("afterPath") String afterPath,
+      Pageable pageable);
+
+  /**
+   * Deletes comment {@code id} of thread {@code rootId} together with the replies below it, whose
+   * paths start with {@code pathPrefix}, in one statement.
+   *
+   * @return the number of deleted comments
+   */
+  @Modifying
+  @Query(
+      "delete from Comment c where c.rootId = :rootId and (c.id = :id or c.path like :pathPrefix)")
+  int deleteSubtree(
+      @Param("rootId") Long rootId, @Param("id") Long id, @Param("pathPrefix") String pathPrefix);
+
+  Optional<Comment> findByIdAndPostId(Long id, Long postId);
+
+  @Query(
+      "select c.postId as postId, count(c) as comments from Comment c where c.postId in :postIds"
+          + " group by c.postId")
+  List<PostCommentCount> countByPostIdIn(@Param("postIds") Collection<Long> postIds);
 }
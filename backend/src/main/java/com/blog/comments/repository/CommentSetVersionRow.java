@@ -0,0 +1,15 @@
+package com.blog.comments.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate version of all comments of a post: any insert, edit or delete changes at least one of
+ * the values.
+ */
+public interface CommentSetVersionRow {
+  long getComments();
+
+  LocalDateTime getUpdatedAt();
+
+  long getIdSum();
+}
@@ -0,0 +1,8 @@
+package com.blog.comments.repository;
+
+/** Number of comments of one post, a row of a {@code GROUP BY post_id} query. */
+public interface PostCommentCount {
+  Long getPostId();
+
+  long getComments();
+}
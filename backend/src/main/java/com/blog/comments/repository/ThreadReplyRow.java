@@ -0,0 +1,14 @@
+package com.blog.comments.repository;
+
+/** A reply selected among the first of its thread, with the thread's total reply count. */
+public interface ThreadReplyRow {
+  Long getId();
+
+  /** Id of the thread's top-level comment. */
+  Long getRoot();
+
+  long getTotal();
+
+  /** 1-based position of the reply within its thread. */
+  long getPos();
+}
@@ -2,16 +2,42 @@ package com.blog.comments.service;
 
 import com.blog.comments.dto.request.CreateCommentDTO;
 import com.blog.comments.dto.request.UpdateCommentDTO;
+import com.blog.comments.dto.response.CommentThreadDTO;
 import com.blog.comments.dto.response.ResponseCommentDTO;
+import com.blog.sharedkernel.dto.ContentVersion;
+import com.blog.sharedkernel.dto.CursorPagingResult;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 public interface CommentService {
+  int DEFAULT_PAGE_SIZE = 10;
+  int MAX_PAGE_SIZE = 50;
+  int DEFAULT_REPLIES_PER_THREAD = 3;
+  int MAX_REPLIES_PER_THREAD = 20;
 
   /** Get paginated comments for a specific blog post. */
   Page<ResponseCommentDTO> getCommentsForPost(Long postId, Pageable pageable);
 
-  /** Create a new comment. */
+  /**
+   * Validators of every {@link #getCommentsForPost} page of a post, read with one aggregate query
+   * instead of loading the comments. Only the ETag is set.
+   */
+  ContentVersion getCommentsVersion(Long postId);
+
+  /**
+   * Get a keyset page of a post's top-level comments, newest first, each with its first {@code
+   * replies} replies. Pass the previous page's {@code nextCursor} to continue; the cost does not
+   * grow with the page depth.
+   */
+  CursorPagingResult<CommentThreadDTO> getCommentThreads(
+      Long postId, String cursor, int size, int replies);
+
+  /** Get a keyset page of the replies below a comment, at any depth, in thread order. */
+  CursorPagingResult<ResponseCommentDTO> getReplies(Long commentId, String cursor, int size);
+
+  /** Create a new comment, or a reply when {@code parentId} is set. */
   ResponseCommentDTO createComment(CreateCommentDTO createCommentDTO);
 
   /** Update an existing comment. */
@@ -22,4 +48,10 @@ public interface CommentService {
 
   /** Get total comment count for a blog post. */
   Long getCommentCountForPost(Long postId);
+
+  /**
+   * Get comment counts for several posts at once. Every requested id is present in the result, with
+   * {@code 0} for posts without comments.
+   */
+  Map<Long, Long> getCommentCountsForPosts(Set<Long> postIds);
 }
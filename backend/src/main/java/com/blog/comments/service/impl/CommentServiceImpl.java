@@ -1,32 +1,107 @@
 package com.blog.comments.service.impl;
 
+import com.blog.comments.config.CommentProperties;
 import com.blog.comments.dto.request.CreateCommentDTO;
 import com.blog.comments.dto.request.UpdateCommentDTO;
+import com.blog.comments.dto.response.CommentThreadDTO;
 import com.blog.comments.dto.response.ResponseCommentDTO;
+import com.blog.comments.event.CommentCreated;
+import com.blog.comments.event.CommentDeleted;
+import com.blog.comments.event.CommentUpdated;
 import com.blog.comments.mapper.CommentMapper;
 import com.blog.comments.model.Comment;
 import com.blog.comments.repository.CommentRepository;
+import com.blog.comments.repository.CommentSetVersionRow;
+import com.blog.comments.repository.PostCommentCount;
+import com.blog.comments.repository.ThreadReplyRow;
 import com.blog.comments.service.CommentService;
+import com.blog.sharedkernel.dto.ContentVersion;
+import com.blog.sharedkernel.dto.CursorPagingResult;
+import com.blog.sharedkernel.dto.KeysetCursor;
+import com.blog.sharedkernel.exception.InvalidCursorException;
+import com.blog.sharedkernel.exception.LimitExceededException;
 import com.blog.sharedkernel.exception.ResourceNotFoundException;
+import com.blog.sharedkernel.invalidation.CacheInvalidated;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.blog.sharedkernel.invalidation.InvalidationBus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /** Service for managing blog post comments. */
 @Slf4j
 @Service
 public class CommentServiceImpl implements CommentService {
+  /** Replies deeper than this are attached to their parent's parent to keep threads readable. */
+  static final int MAX_REPLY_DEPTH = 8;
+
+  static final String COUNT_CACHE_NAME = "comments.count";
+
+  private static final Pattern PATH_PATTERN = Pattern.compile("[0-9a-z]+(\\.[0-9a-z]+)*");
 
   private final CommentRepository commentRepository;
   private final CommentMapper commentMapper;
+  private final ApplicationEventPublisher events;
+  private final CommentProperties commentProperties;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectProvider<CommentWriteBehindQueue> writeBehindQueue;
+  private final InvalidationBus invalidationBus;
+
+  /**
+   * Short-lived comment counts per post id, bounded by {@code comments.countCacheMaxEntries}.
+   * Writes through this service evict the post's entry once they commit, on this node directly and
+   * on the others through the {@link InvalidationBus}.
+   */
+  private final Cache<Long, Long> countCache;
 
   @Autowired
-  public CommentServiceImpl(CommentRepository commentRepository, CommentMapper commentMapper) {
+  public CommentServiceImpl(
+      CommentRepository commentRepository,
+      CommentMapper commentMapper,
+      ApplicationEventPublisher events,
+      CommentProperties commentProperties,
+      TransactionTemplate transactionTemplate,
+      ObjectProvider<CommentWriteBehindQueue> writeBehindQueue,
+      InvalidationBus invalidationBus,
+      ObjectProvider<MeterRegistry> meterRegistry) {
     this.commentRepository = commentRepository;
     this.commentMapper = commentMapper;
+    this.events = events;
+    this.commentProperties = commentProperties;
+    this.transactionTemplate = transactionTemplate;
+    this.writeBehindQueue = writeBehindQueue;
+    this.invalidationBus = invalidationBus;
+    this.countCache =
+        Caffeine.newBuilder()
+            .maximumSize(commentProperties.getCountCacheMaxEntries())
+            .expireAfterWrite(commentProperties.getCountCacheTtl())
+            .recordStats()
+            .build();
+    meterRegistry.ifAvailable(
+        registry -> CaffeineCacheMetrics.monitor(registry, countCache, COUNT_CACHE_NAME));
   }
 
   @Override
@@ -44,17 +119,202 @@ public class CommentServiceImpl implements CommentService {
   }
 
   @Override
-  @Transactional
+  @Transactional(readOnly = true)
+  public ContentVersion getCommentsVersion(Long postId) {
+    CommentSetVersionRow row = commentRepository.findVersionByPostId(postId);
+    // No Last-Modified: the newest update moves backwards when a comment is deleted.
+    return ContentVersion.of(
+        null, List.of(postId, row.getComments(), row.getIdSum(), row.getUpdatedAt()));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public CursorPagingResult<CommentThreadDTO> getCommentThreads(
+      Long postId, String cursor, int size, int replies) {
+    log.info("GetCommentThreads called");
+    int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    int replyLimit = Math.min(Math.max(replies, 0), MAX_REPLIES_PER_THREAD);
+    KeysetCursor after = KeysetCursor.decode(cursor);
+    log.debug(
+        "Retrieving comment threads for post with ID: {} after cursor: {} size: {} replies: {}",
+        postId,
+        after,
+        pageSize,
+        replyLimit);
+
+    // Fetch one extra row to learn whether another page exists without counting.
+    List<Comment> roots =
+        commentRepository.findTopLevelPage(
+            postId,
+            after == null ? null : after.createdAt(),
+            after == null ? null : after.id(),
+            PageRequest.of(0, pageSize + 1));
+    boolean hasNext = roots.size() > pageSize;
+    List<Comment> page = hasNext ? roots.subList(0, pageSize) : roots;
+    String nextCursor = null;
+    if (hasNext) {
+      Comment last = page.get(page.size() - 1);
+      nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+    }
+
+    Map<Long, CommentThreadDTO> threads = new HashMap<>();
+    List<CommentThreadDTO> content = new ArrayList<>(page.size());
+    for (Comment root : page) {
+      CommentThreadDTO thread =
+          CommentThreadDTO.builder().comment(commentMapper.toResponseDto(root)).build();
+      threads.put(root.getId(), thread);
+      content.add(thread);
+    }
+    if (!threads.isEmpty()) {
+      attachFirstReplies(threads, replyLimit);
+    }
+    log.debug("Retrieved {} comment threads for post with ID: {}", content.size(), postId);
+    return CursorPagingResult.<CommentThreadDTO>builder()
+        .content(content)
+        .size(pageSize)
+        .hasNext(hasNext)
+        .nextCursor(nextCursor)
+        .build();
+  }
+
+  /**
+   * Fills the first {@code replyLimit} replies and the reply count of each thread with two
+   * statements, however many threads there are.
+   */
+  private void attachFirstReplies(Map<Long, CommentThreadDTO> threads, int replyLimit) {
+    List<ThreadReplyRow> rows =
+        commentRepository.findFirstRepliesByRootIdIn(threads.keySet(), replyLimit);
+    List<Long> shownIds = new ArrayList<>();
+    for (ThreadReplyRow row : rows) {
+      threads.get(row.getRoot()).setReplyCount(row.getTotal());
+      if (row.getPos() <= replyLimit) {
+        shownIds.add(row.getId());
+      }
+    }
+    if (shownIds.isEmpty()) {
+      return;
+    }
+    Map<Long, String> lastShownPath = new HashMap<>();
+    commentRepository.findAllById(shownIds).stream()
+        .sorted(Comparator.comparing(Comment::getPath))
+        .forEach(
+            reply -> {
+              threads.get(reply.getRootId()).getReplies().add(commentMapper.toResponseDto(reply));
+              lastShownPath.put(reply.getRootId(), reply.getPath());
+            });
+    lastShownPath.forEach(
+        (rootId, path) -> {
+          CommentThreadDTO thread = threads.get(rootId);
+          if (thread.getReplyCount() > thread.getReplies().size()) {
+            thread.setRepliesCursor(encodePath(path));
+          }
+        });
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public CursorPagingResult<ResponseCommentDTO> getReplies(
+      Long commentId, String cursor, int size) {
+    log.info("GetReplies called");
+    int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    Comment parent =
+        commentRepository
+            .findById(commentId)
+            .orElseThrow(
+                () -> new ResourceNotFoundException("Comment not found", "commentId ", commentId));
+    String prefix = parent.descendantPathPrefix();
+    String afterPath = cursor == null || cursor.isBlank() ? parent.getPath() : decodePath(cursor);
+    if (!afterPath.startsWith(parent.getPath())) {
+      throw new InvalidCursorException(cursor);
+    }
+    log.debug("Retrieving replies of comment with ID: {} after path: {}", commentId, afterPath);
+
+    List<Comment> rows =
+        commentRepository.findSubtreePage(
+            parent.getRootId(), prefix + "%", afterPath, PageRequest.of(0, pageSize + 1));
+    boolean hasNext = rows.size() > pageSize;
+    List<Comment> page = hasNext ? rows.subList(0, pageSize) : rows;
+    log.debug("Retrieved {} replies of comment with ID: {}", page.size(), commentId);
+    return CursorPagingResult.<ResponseCommentDTO>builder()
+        .content(page.stream().map(commentMapper::toResponseDto).toList())
+        .size(pageSize)
+        .hasNext(hasNext)
+        .nextCursor(hasNext ? encodePath(page.get(page.size() - 1).getPath()) : null)
+        .build();
+  }
+
+  private static String encodePath(String path) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(path.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static String decodePath(String cursor) {
+    try {
+      String path =
+          new String(Base64.getUrlDecoder().decode(cursor.strip()), StandardCharsets.US_ASCII);
+      if (PATH_PATTERN.matcher(path).matches()) {
+        return path;
+      }
+    } catch (IllegalArgumentException e) {
+      // fall through
+    }
+    throw new InvalidCursorException(cursor);
+  }
+
+  @Override
   public ResponseCommentDTO createComment(CreateCommentDTO createCommentDTO) {
     log.info("CreateComment called");
     log.info("Creating comment for post : {}", createCommentDTO);
-    Comment comment = commentMapper.toEntity(createCommentDTO);
-    comment = commentRepository.save(comment);
+    CommentWriteBehindQueue queue = writeBehindQueue.getIfAvailable();
+    Comment comment;
+    if (queue != null) {
+      // Resolved outside a transaction so that waiting for the batch does not hold a connection.
+      comment =
+          queue.insert(commentMapper.toEntity(createCommentDTO), findParent(createCommentDTO));
+    } else {
+      comment = transactionTemplate.execute(status -> insertComment(createCommentDTO));
+    }
     log.info("Comment saved with ID: {}", comment.getId());
+    countCache.invalidate(comment.getPostId());
+    invalidationBus.publish(CacheKeys.postComments(comment.getPostId()));
     return commentMapper.toResponseDto(comment);
   }
 
+  private Comment insertComment(CreateCommentDTO createCommentDTO) {
+    Comment parent = findParent(createCommentDTO);
+    Comment comment = commentMapper.toEntity(createCommentDTO);
+    if (parent != null) {
+      comment.setParentId(parent.getId());
+    }
+    comment = commentRepository.save(comment);
+    // The path embeds the generated id, so it is completed after the insert and flushed as an
+    // update within the same transaction.
+    comment.placeInThread(parent);
+    events.publishEvent(new CommentCreated(comment.getId(), comment.getPostId()));
+    return comment;
+  }
+
+  /** The comment a reply is attached to, or {@code null} for a top-level comment. */
+  private Comment findParent(CreateCommentDTO createCommentDTO) {
+    if (createCommentDTO.getParentId() == null) {
+      return null;
+    }
+    Comment parent =
+        commentRepository
+            .findByIdAndPostId(createCommentDTO.getParentId(), createCommentDTO.getPostId())
+            .orElseThrow(
+                () ->
+                    new ResourceNotFoundException(
+                        "Comment not found", "parentId ", createCommentDTO.getParentId()));
+    if (parent.depth() + 1 > MAX_REPLY_DEPTH) {
+      parent = commentRepository.findById(parent.getParentId()).orElseThrow();
+    }
+    return parent;
+  }
+
   @Override
+  @Transactional
   public void updateComment(Long id, UpdateCommentDTO updateCommentDTO) {
     log.info("UpdateComment called");
     log.debug("Updating comment with ID: {}", id);
@@ -63,13 +323,16 @@ public class CommentServiceImpl implements CommentService {
             .findById(id)
             .orElseThrow(
                 () -> new ResourceNotFoundException("Comment not found", "commentId ", id));
-    updateCommentDTO.setComment(comment.getComment());
-    comment.setUpdatedAt(updateCommentDTO.getUpdatedAt());
+    comment.setComment(updateCommentDTO.getComment());
+    comment.setIsEdited(true);
     commentRepository.save(comment);
+    events.publishEvent(new CommentUpdated(id, comment.getPostId()));
+    invalidationBus.publish(CacheKeys.postComments(comment.getPostId()));
     log.debug("Comment updated with ID: {}", id);
   }
 
   @Override
+  @Transactional
   public void deleteComment(Long commentId) {
     log.info("DeleteComment called");
     log.debug("Deleting comment with ID: {}", commentId);
@@ -78,7 +341,14 @@ public class CommentServiceImpl implements CommentService {
             .findById(commentId)
             .orElseThrow(
                 () -> new ResourceNotFoundException("Comment not found", "commentId ", commentId));
-    commentRepository.delete(comment);
+    // Replies go with the comment; the event carries how many so counters stay exact.
+    int deleted =
+        commentRepository.deleteSubtree(
+            comment.getRootId(), commentId, comment.descendantPathPrefix() + "%");
+    events.publishEvent(new CommentDeleted(commentId, comment.getPostId(), deleted));
+    // A count read before the commit would otherwise be cached again and outlive the delete.
+    afterCommit(() -> countCache.invalidate(comment.getPostId()));
+    invalidationBus.publish(CacheKeys.postComments(comment.getPostId()));
     log.debug("Comment deleted with ID: {}", commentId);
   }
 
@@ -86,8 +356,54 @@ public class CommentServiceImpl implements CommentService {
   public Long getCommentCountForPost(Long postId) {
     log.info("GetCommentCountForPost called");
     log.debug("Retrieving comment count for post with ID: {}", postId);
-    Long l = commentRepository.countByPostId(postId);
+    Long l = getCommentCountsForPosts(Set.of(postId)).get(postId);
     log.debug("Retrieved comment count: {}", l);
     return l;
   }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Map<Long, Long> getCommentCountsForPosts(Set<Long> postIds) {
+    log.info("GetCommentCountsForPosts called");
+    if (postIds.size() > commentProperties.getMaxBulkCountPosts()) {
+      throw new LimitExceededException("post ids", commentProperties.getMaxBulkCountPosts());
+    }
+    Map<Long, Long> counts = new HashMap<>(countCache.getAllPresent(postIds));
+    List<Long> misses = postIds.stream().filter(postId -> !counts.containsKey(postId)).toList();
+    log.debug("Comment counts for {} posts, {} not cached", postIds.size(), misses.size());
+    if (!misses.isEmpty()) {
+      misses.forEach(postId -> counts.put(postId, 0L));
+      for (PostCommentCount row : commentRepository.countByPostIdIn(misses)) {
+        counts.put(row.getPostId(), row.getComments());
+      }
+      misses.forEach(postId -> countCache.put(postId, counts.get(postId)));
+    }
+    return counts;
+  }
+
+  @EventListener
+  public void on(CacheInvalidated event) {
+    if (event.all()) {
+      countCache.invalidateAll();
+    } else {
+      Long postId = event.longId(CacheKeys.POST_COMMENTS);
+      if (postId != null) {
+        countCache.invalidate(postId);
+      }
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
 }
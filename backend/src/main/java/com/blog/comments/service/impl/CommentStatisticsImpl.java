@@ -0,0 +1,34 @@
+package com.blog.comments.service.impl;
+
+import com.blog.comments.repository.CommentRepository;
+import com.blog.comments.repository.PostCommentCount;
+import com.blog.comments.stats.CommentStatistics;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Slf4j
+public class CommentStatisticsImpl implements CommentStatistics {
+  private final CommentRepository commentRepository;
+
+  @Autowired
+  public CommentStatisticsImpl(CommentRepository commentRepository) {
+    this.commentRepository = commentRepository;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Map<Long, Long> countByPostIds(Collection<Long> postIds) {
+    if (postIds.isEmpty()) {
+      return Map.of();
+    }
+    log.debug("Counting comments for {} posts", postIds.size());
+    return commentRepository.countByPostIdIn(postIds).stream()
+        .collect(Collectors.toMap(PostCommentCount::getPostId, PostCommentCount::getComments));
+  }
+}
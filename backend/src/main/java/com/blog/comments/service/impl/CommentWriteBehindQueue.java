@@ -0,0 +1,306 @@
+package com.blog.comments.service.impl;
+
+import com.blog.comments.config.CommentProperties;
+import com.blog.comments.event.CommentCreated;
+import com.blog.comments.model.Comment;
+import com.blog.sharedkernel.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind path for new comments, enabled with {@code comments.writeBehindEnabled}.
+ *
+ * <p>Request threads hand their comment to a bounded queue and wait. A single writer thread
+ * collects comments for up to {@code writeBehindFlushInterval} or {@code writeBehindBatchSize}
+ * rows, assigns ids from the entity's sequence generator (or from blocks reserved on the table's
+ * identity sequence when ids come from identity columns), inserts the batch with one JDBC batch
+ * statement and publishes the {@link CommentCreated} events in the same transaction. Waiting
+ * callers are released after the commit, so a returned comment is as durable as one saved directly.
+ * A batch that fails is retried row by row, so a bad comment fails only its own caller.
+ *
+ * <p>A caller whose comment is not picked up within {@code writeBehindTimeout} withdraws it before
+ * answering 503, so a client retrying the request does not end up with the comment twice. Once the
+ * writer has taken a comment, its caller waits for the outcome of that write instead.
+ */
+@Component
+@ConditionalOnProperty(prefix = "comments", name = "write-behind-enabled", havingValue = "true")
+@Slf4j
+class CommentWriteBehindQueue {
+  private static final String RESERVE_IDS =
+      "select nextval(pg_get_serial_sequence('comments', 'id')) from generate_series(1, ?)";
+  private static final String INSERT =
+      """
+      insert into comments (id, comment, author_username, author_email, post_id, is_edited,
+                            parent_id, root_id, path, created_at, updated_at)
+      values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher events;
+  private final CommentProperties commentProperties;
+  private final BlockingQueue<Pending> queue;
+  private final ArrayDeque<Long> reservedIds = new ArrayDeque<>();
+  private final SessionFactoryImplementor sessionFactory;
+  private final BeforeExecutionGenerator idGenerator;
+  private final Thread writer = new Thread(this::run, "comment-write-behind");
+  private volatile boolean running = true;
+
+  @Autowired
+  CommentWriteBehindQueue(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      ApplicationEventPublisher events,
+      CommentProperties commentProperties,
+      EntityManagerFactory entityManagerFactory) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.events = events;
+    this.commentProperties = commentProperties;
+    this.queue = new ArrayBlockingQueue<>(commentProperties.getWriteBehindQueueCapacity());
+    this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    // A sequence generator (see META-INF/pooled-ids.xml) keeps ids consistent with JPA inserts.
+    this.idGenerator =
+        sessionFactory.getMappingMetamodel().getEntityDescriptor(Comment.class).getGenerator()
+                instanceof BeforeExecutionGenerator generator
+            ? generator
+            : null;
+  }
+
+  @PostConstruct
+  void start() {
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /** Writes remaining comments before the datasource goes away. */
+  @PreDestroy
+  void stop() throws InterruptedException {
+    running = false;
+    writer.join(commentProperties.getWriteBehindTimeout().toMillis());
+  }
+
+  /**
+   * Queues a new comment and waits until it is committed.
+   *
+   * @param parent comment replied to, {@code null} for a top-level comment
+   * @return the comment with its id and thread position assigned
+   */
+  Comment insert(Comment comment, Comment parent) {
+    Pending pending = new Pending(comment, parent, new CompletableFuture<>(), new AtomicBoolean());
+    long timeout = commentProperties.getWriteBehindTimeout().toNanos();
+    long deadline = System.nanoTime() + timeout;
+    try {
+      if (!running || !queue.offer(pending, timeout, TimeUnit.NANOSECONDS)) {
+        throw new ServiceUnavailableException("Commenting");
+      }
+      try {
+        return pending.done().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        if (withdraw(pending)) {
+          log.warn("Comment for post: {} not written within the timeout", comment.getPostId());
+          throw new ServiceUnavailableException("Commenting");
+        }
+        // Being written; answering 503 now could make the client post it a second time.
+        return pending.done().get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      withdraw(pending);
+      throw new ServiceUnavailableException("Commenting");
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof RuntimeException runtime
+          ? runtime
+          : new IllegalStateException(e.getCause());
+    }
+  }
+
+  /** Takes the comment back unless the writer already has it. */
+  private boolean withdraw(Pending pending) {
+    if (!pending.taken().compareAndSet(false, true)) {
+      return false;
+    }
+    queue.remove(pending);
+    return true;
+  }
+
+  private void run() {
+    List<Pending> batch = new ArrayList<>(commentProperties.getWriteBehindBatchSize());
+    while (running || !queue.isEmpty()) {
+      try {
+        collect(batch);
+      } catch (InterruptedException e) {
+        running = false;
+      }
+      try {
+        if (!batch.isEmpty()) {
+          flush(batch);
+        }
+      } catch (Throwable e) {
+        // Keep the writer alive; a dead writer would leave every caller waiting for its timeout.
+        log.error("Comment writer failed on {} queued comments", batch.size(), e);
+        batch.forEach(pending -> pending.done().completeExceptionally(e));
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  /** Waits for a first comment, then keeps collecting until the batch is full or time is up. */
+  private void collect(List<Pending> batch) throws InterruptedException {
+    Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+    if (first == null) {
+      return;
+    }
+    batch.add(first);
+    long deadline = System.nanoTime() + commentProperties.getWriteBehindFlushInterval().toNanos();
+    int batchSize = commentProperties.getWriteBehindBatchSize();
+    while (batch.size() < batchSize) {
+      queue.drainTo(batch, batchSize - batch.size());
+      long remaining = deadline - System.nanoTime();
+      if (batch.size() >= batchSize || remaining <= 0) {
+        return;
+      }
+      Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+    }
+  }
+
+  /**
+   * Writes the batch in one transaction. If that fails, the rows are written one by one so that a
+   * single bad comment, such as a reply to a comment deleted meanwhile, fails only its own caller.
+   */
+  private void flush(List<Pending> batch) {
+    batch.removeIf(pending -> !pending.taken().compareAndSet(false, true));
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      prepare(batch);
+    } catch (RuntimeException e) {
+      log.error("Failed to assign ids to {} queued comments", batch.size(), e);
+      batch.forEach(pending -> pending.done().completeExceptionally(e));
+      return;
+    }
+    try {
+      write(batch);
+      log.debug("Wrote {} queued comments", batch.size());
+      batch.forEach(pending -> pending.done().complete(pending.comment()));
+    } catch (RuntimeException e) {
+      if (batch.size() == 1) {
+        log.error("Failed to write queued comment for post: {}", postId(batch.get(0)), e);
+        batch.get(0).done().completeExceptionally(e);
+        return;
+      }
+      log.warn("Failed to write {} queued comments, retrying one by one", batch.size(), e);
+      for (Pending pending : batch) {
+        try {
+          write(List.of(pending));
+          pending.done().complete(pending.comment());
+        } catch (RuntimeException rowFailure) {
+          log.error("Failed to write queued comment for post: {}", postId(pending), rowFailure);
+          pending.done().completeExceptionally(rowFailure);
+        }
+      }
+    }
+  }
+
+  private void prepare(List<Pending> batch) {
+    try (StatelessSession session =
+        idGenerator == null ? null : sessionFactory.openStatelessSession()) {
+      LocalDateTime now = LocalDateTime.now();
+      for (Pending pending : batch) {
+        Comment comment = pending.comment();
+        comment.setId(nextId(session, comment));
+        comment.setCreatedAt(now);
+        comment.setUpdatedAt(now);
+        if (pending.parent() != null) {
+          comment.setParentId(pending.parent().getId());
+        }
+        comment.placeInThread(pending.parent());
+      }
+    }
+  }
+
+  /** Inserts the comments and publishes their events in one transaction. */
+  private void write(List<Pending> batch) {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          jdbcTemplate.batchUpdate(
+              INSERT,
+              batch,
+              batch.size(),
+              (ps, pending) -> {
+                Comment comment = pending.comment();
+                ps.setLong(1, comment.getId());
+                ps.setString(2, comment.getComment());
+                ps.setString(3, comment.getAuthorUserName());
+                ps.setString(4, comment.getAuthorEmail());
+                ps.setLong(5, comment.getPostId());
+                ps.setBoolean(6, comment.getIsEdited());
+                ps.setObject(7, comment.getParentId(), Types.BIGINT);
+                ps.setLong(8, comment.getRootId());
+                ps.setString(9, comment.getPath());
+                ps.setTimestamp(10, Timestamp.valueOf(comment.getCreatedAt()));
+                ps.setTimestamp(11, Timestamp.valueOf(comment.getUpdatedAt()));
+              });
+          batch.forEach(
+              pending ->
+                  events.publishEvent(
+                      new CommentCreated(
+                          pending.comment().getId(), pending.comment().getPostId())));
+        });
+  }
+
+  private static Long postId(Pending pending) {
+    return pending.comment().getPostId();
+  }
+
+  /** Next id from the generator or the reserved block, reserving a new block when it runs out. */
+  private long nextId(StatelessSession session, Comment comment) {
+    if (idGenerator != null) {
+      return (Long)
+          idGenerator.generate(
+              (SharedSessionContractImplementor) session, comment, null, EventType.INSERT);
+    }
+    if (reservedIds.isEmpty()) {
+      reservedIds.addAll(
+          jdbcTemplate.queryForList(
+              RESERVE_IDS, Long.class, commentProperties.getWriteBehindIdBlockSize()));
+    }
+    return reservedIds.removeFirst();
+  }
+
+  /** A queued comment; {@code taken} is set by the writer or by a caller withdrawing it. */
+  private record Pending(
+      Comment comment, Comment parent, CompletableFuture<Comment> done, AtomicBoolean taken) {}
+}
@@ -0,0 +1,14 @@
+package com.blog.comments.stats;
+
+import java.util.Collection;
+import java.util.Map;
+
+/** Module API giving other modules comment counts without loading comments. */
+public interface CommentStatistics {
+
+  /**
+   * Get the number of comments per post in one grouped query. Posts without comments are absent
+   * from the result.
+   */
+  Map<Long, Long> countByPostIds(Collection<Long> postIds);
+}
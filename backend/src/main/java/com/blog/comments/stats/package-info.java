@@ -0,0 +1,5 @@
+/** Read API of the comments module for other modules, exposing aggregate comment figures. */
+@NamedInterface("comments.stats")
+package com.blog.comments.stats;
+
+import org.springframework.modulith.NamedInterface;
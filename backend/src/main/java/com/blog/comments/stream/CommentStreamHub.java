@@ -0,0 +1,275 @@
+package com.blog.comments.stream;
+
+import com.blog.comments.config.CommentProperties;
+import com.blog.comments.event.CommentCreated;
+import com.blog.comments.event.CommentDeleted;
+import com.blog.comments.event.CommentUpdated;
+import com.blog.comments.mapper.CommentMapper;
+import com.blog.comments.repository.CommentRepository;
+import com.blog.sharedkernel.exception.LimitExceededException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * In-process fan-out of comment changes to Server-Sent Events subscribers, keyed by post id.
+ *
+ * <p>Each change is serialized to JSON once and the same bytes are offered to every subscriber of
+ * the post, so sending does not run the message converter per subscriber. Subscribers own a bounded
+ * buffer drained by a small sender pool, so a slow client never blocks the request that changed the
+ * comment nor other subscribers: when its buffer is full it is replaced by one {@code resync} event
+ * telling the client to reload the comments. Changes are pushed only after their transaction
+ * commits and nothing is read from the database while a post has no subscribers.
+ */
+@Component
+@Slf4j
+public class CommentStreamHub {
+  static final String CREATED = "created";
+  static final String UPDATED = "updated";
+  static final String DELETED = "deleted";
+  static final String RESYNC = "resync";
+
+  private final CommentRepository commentRepository;
+  private final CommentMapper commentMapper;
+  private final CommentProperties commentProperties;
+  private final ObjectMapper objectMapper;
+  private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+  private final AtomicInteger subscriberCount = new AtomicInteger();
+  private final ExecutorService senders;
+
+  @Autowired
+  public CommentStreamHub(
+      CommentRepository commentRepository,
+      CommentMapper commentMapper,
+      CommentProperties commentProperties,
+      ObjectMapper objectMapper) {
+    this(
+        commentRepository,
+        commentMapper,
+        commentProperties,
+        objectMapper,
+        senders(commentProperties.getStreamSenderThreads()));
+  }
+
+  CommentStreamHub(
+      CommentRepository commentRepository,
+      CommentMapper commentMapper,
+      CommentProperties commentProperties,
+      ObjectMapper objectMapper,
+      ExecutorService senders) {
+    this.commentRepository = commentRepository;
+    this.commentMapper = commentMapper;
+    this.commentProperties = commentProperties;
+    this.objectMapper = objectMapper;
+    this.senders = senders;
+  }
+
+  private static ExecutorService senders(int threads) {
+    AtomicInteger count = new AtomicInteger();
+    return Executors.newFixedThreadPool(
+        threads,
+        runnable -> {
+          Thread thread = new Thread(runnable, "comment-stream-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /** Opens a stream of the comment changes of one post. */
+  public SseEmitter subscribe(Long postId) {
+    if (subscriberCount.incrementAndGet() > commentProperties.getMaxStreamSubscribers()) {
+      subscriberCount.decrementAndGet();
+      throw new LimitExceededException("live streams", commentProperties.getMaxStreamSubscribers());
+    }
+    SseEmitter emitter = new SseEmitter(commentProperties.getStreamTimeout().toMillis());
+    Subscriber subscriber = new Subscriber(postId, emitter);
+    // Added inside compute so that a concurrent close cannot drop the set in between.
+    subscribers.compute(
+        postId,
+        (id, forPost) -> {
+          Set<Subscriber> set = forPost == null ? ConcurrentHashMap.newKeySet() : forPost;
+          set.add(subscriber);
+          return set;
+        });
+    emitter.onCompletion(subscriber::close);
+    emitter.onTimeout(subscriber::close);
+    emitter.onError(error -> subscriber.close());
+    log.debug("Stream subscriber added for post: {}, open streams: {}", postId, subscriberCount);
+    return emitter;
+  }
+
+  /** Number of open streams of a post. */
+  public int subscriberCount(Long postId) {
+    Set<Subscriber> forPost = subscribers.get(postId);
+    return forPost == null ? 0 : forPost.size();
+  }
+
+  @EventListener
+  public void on(CommentCreated event) {
+    afterCommit(() -> publishComment(event.postId(), event.commentId(), CREATED));
+  }
+
+  @EventListener
+  public void on(CommentUpdated event) {
+    afterCommit(() -> publishComment(event.postId(), event.commentId(), UPDATED));
+  }
+
+  @EventListener
+  public void on(CommentDeleted event) {
+    afterCommit(() -> publish(event.postId(), DELETED, event.commentId(), event.commentId()));
+  }
+
+  /** Keeps idle connections open through proxies and detects clients that went away. */
+  @Scheduled(fixedDelayString = "${comments.streamHeartbeatInterval:PT15S}")
+  public void heartbeat() {
+    if (subscriberCount.get() == 0) {
+      return;
+    }
+    Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+    subscribers.values().forEach(forPost -> forPost.forEach(s -> s.offerIfIdle(ping)));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    subscribers.values().forEach(forPost -> forPost.forEach(s -> s.emitter.complete()));
+    senders.shutdownNow();
+  }
+
+  private void publishComment(Long postId, Long commentId, String type) {
+    if (subscriberCount(postId) == 0) {
+      return;
+    }
+    commentRepository
+        .findById(commentId)
+        .map(commentMapper::toResponseDto)
+        .ifPresent(comment -> publish(postId, type, commentId, comment));
+  }
+
+  private void publish(Long postId, String type, Long commentId, Object data) {
+    Set<Subscriber> forPost = subscribers.get(postId);
+    if (forPost == null) {
+      return;
+    }
+    byte[] json;
+    try {
+      json = objectMapper.writeValueAsBytes(data);
+    } catch (JsonProcessingException e) {
+      log.error("Could not serialize {} event of comment: {}", type, commentId, e);
+      return;
+    }
+    Set<DataWithMediaType> event =
+        SseEmitter.event()
+            .name(type)
+            .id(String.valueOf(commentId))
+            .data(json, MediaType.APPLICATION_JSON)
+            .build();
+    forPost.forEach(subscriber -> subscriber.offer(event));
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+
+  private final class Subscriber {
+    private final Long postId;
+    private final SseEmitter emitter;
+    private final ArrayBlockingQueue<Set<DataWithMediaType>> buffer;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Subscriber(Long postId, SseEmitter emitter) {
+      this.postId = postId;
+      this.emitter = emitter;
+      this.buffer = new ArrayBlockingQueue<>(commentProperties.getStreamBufferSize());
+    }
+
+    void offer(Set<DataWithMediaType> event) {
+      if (closed.get()) {
+        return;
+      }
+      if (!buffer.offer(event)) {
+        log.debug("Stream subscriber of post: {} fell behind, asking it to resync", postId);
+        buffer.clear();
+        buffer.offer(SseEmitter.event().name(RESYNC).data("").build());
+      }
+      scheduleDrain();
+    }
+
+    void offerIfIdle(Set<DataWithMediaType> event) {
+      if (buffer.isEmpty()) {
+        offer(event);
+      }
+    }
+
+    private void scheduleDrain() {
+      if (draining.compareAndSet(false, true)) {
+        try {
+          senders.execute(this::drain);
+        } catch (RuntimeException e) {
+          draining.set(false);
+          close();
+        }
+      }
+    }
+
+    private void drain() {
+      try {
+        Set<DataWithMediaType> event;
+        while (!closed.get() && (event = buffer.poll()) != null) {
+          emitter.send(event);
+        }
+      } catch (IOException | IllegalStateException e) {
+        log.debug("Stream subscriber of post: {} disconnected", postId);
+        close();
+        emitter.completeWithError(e);
+      } finally {
+        draining.set(false);
+      }
+      if (!closed.get() && !buffer.isEmpty()) {
+        scheduleDrain();
+      }
+    }
+
+    void close() {
+      if (closed.compareAndSet(false, true)) {
+        buffer.clear();
+        subscribers.computeIfPresent(
+            postId,
+            (id, forPost) -> {
+              forPost.remove(this);
+              return forPost.isEmpty() ? null : forPost;
+            });
+        subscriberCount.decrementAndGet();
+      }
+    }
+  }
+}
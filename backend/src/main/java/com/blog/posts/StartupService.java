@@ -1,7 +1,10 @@
 package com.blog.posts;
 
+import com.blog.posts.cache.TaxonomyCache;
 import com.blog.posts.model.Category;
 import com.blog.posts.repository.CategoryRepository;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.blog.sharedkernel.invalidation.InvalidationBus;
 import java.util.List;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
@@ -11,9 +14,16 @@ import org.springframework.context.annotation.Configuration;
 public class StartupService {
 
   private final CategoryRepository categoryRepository;
+  private final TaxonomyCache taxonomyCache;
+  private final InvalidationBus invalidationBus;
 
-  public StartupService(CategoryRepository categoryRepository) {
+  public StartupService(
+      CategoryRepository categoryRepository,
+      TaxonomyCache taxonomyCache,
+      InvalidationBus invalidationBus) {
     this.categoryRepository = categoryRepository;
+    this.taxonomyCache = taxonomyCache;
+    this.invalidationBus = invalidationBus;
   }
 
   @Bean
@@ -39,7 +49,10 @@ public class StartupService {
                 new Category("Finance", "finance", "Personal finance and investments"));
 
         categoryRepository.saveAll(categories);
+        // Instances that started alongside this one may have loaded no categories.
+        invalidationBus.publish(CacheKeys.TAXONOMY);
       }
+      taxonomyCache.reload();
     };
   }
 }
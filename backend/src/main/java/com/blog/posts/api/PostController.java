@@ -1,9 +1,13 @@
 package com.blog.posts.api;
 
 import com.blog.posts.dto.request.PostDTO;
+import com.blog.posts.dto.request.PostFilterDTO;
+import com.blog.posts.dto.response.PostSummaryDTO;
 import com.blog.posts.dto.response.ResponsePostDTO;
 import com.blog.posts.service.CategoriesService;
 import com.blog.posts.service.PostService;
+import com.blog.sharedkernel.dto.ContentVersion;
+import com.blog.sharedkernel.dto.CursorPagingResult;
 import com.blog.sharedkernel.utils.UserUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,7 +17,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -21,6 +24,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/v1/api/post")
@@ -36,17 +40,52 @@ public class PostController {
     this.categoriesService = categoriesService;
   }
 
-  @Operation(summary = "Get all posts", description = "Retrieves a list of all blog posts")
-  @ApiResponse(
-      responseCode = "200",
-      description = "Successfully retrieved list of blogs",
-      content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE))
-  @GetMapping
-  public ResponseEntity<List<ResponsePostDTO>> getAllBlogs() {
-    log.info("Fetching all postDTOS");
-    List<ResponsePostDTO> postDTOS = postService.getAllPosts();
-    log.debug("Successfully fetched {} postDTOS", postDTOS);
-    return ResponseEntity.ok(postDTOS);
+  @Operation(
+      summary = "Get posts",
+      description =
+          "Retrieves a page of post summaries (no body), newest first. Pass the returned nextCursor"
+              + " to fetch the following page; the full post comes from GET /v1/api/post/{id}."
+              + " /v1/api/post/summary is the same endpoint.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved page of post summaries",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Page unchanged since the ETag or date sent",
+            content = @Content),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content)
+      })
+  @GetMapping(
+      value = {"", "/summary"},
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<CursorPagingResult<PostSummaryDTO>> getAllBlogs(
+      @Parameter(description = "Opaque cursor returned by the previous page")
+          @RequestParam(required = false)
+          String cursor,
+      @Parameter(description = "Number of posts per page (max 100)", example = "20")
+          @RequestParam(defaultValue = "" + PostService.DEFAULT_PAGE_SIZE)
+          int size,
+      @Parameter(description = "Only published or only draft posts") @RequestParam(required = false)
+          Boolean published,
+      @Parameter(description = "Only posts in this category") @RequestParam(required = false)
+          Long categoryId,
+      @Parameter(description = "Only posts with this tag name") @RequestParam(required = false)
+          String tag,
+      WebRequest request) {
+    log.info("Fetching posts page");
+    PostFilterDTO filter = new PostFilterDTO(published, categoryId, tag);
+    ContentVersion version = postService.getPostsVersion(cursor, size, filter);
+    if (request.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+      log.debug("Posts page not modified");
+      return null;
+    }
+    CursorPagingResult<PostSummaryDTO> summaries =
+        postService.getPostSummaries(cursor, size, filter);
+    log.debug("Successfully fetched {} post summaries", summaries.getContent().size());
+    return ResponseEntity.ok(summaries);
   }
 
   @Operation(summary = "Get post by ID", description = "Retrieves a specific blog post by its ID")
@@ -56,14 +95,24 @@ public class PostController {
             responseCode = "200",
             description = "Successfully retrieved blog post",
             content = @Content(schema = @Schema(implementation = ResponsePostDTO.class))),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Blog post unchanged since the ETag or date sent",
+            content = @Content),
         @ApiResponse(responseCode = "404", description = "Blog post not found", content = @Content)
       })
   @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<ResponsePostDTO> getPostById(
       @Parameter(description = "ID of the blog post to be retrieved", required = true) @PathVariable
-          Long id) {
+          Long id,
+      WebRequest request) {
     log.info("getPostById called");
     log.debug("Fetching blog post by id: {}", id);
+    ContentVersion version = postService.getPostVersion(id);
+    if (request.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+      log.debug("Blog post {} not modified", id);
+      return null;
+    }
     ResponsePostDTO post = postService.getPostById(id);
     log.debug("Successfully fetched blog post: {}", post);
     return ResponseEntity.ok(post);
@@ -0,0 +1,190 @@
+package com.blog.posts.cache;
+
+import com.blog.posts.config.PostProperties;
+import com.blog.posts.event.PostCreated;
+import com.blog.posts.event.PostDeleted;
+import com.blog.posts.event.PostUpdated;
+import com.blog.sharedkernel.invalidation.CacheInvalidated;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Serialized JSON bodies of public post reads, keyed by endpoint and canonical parameters, in a
+ * size-bounded Caffeine (W-TinyLFU) cache so that hot posts and feed pages are written out without
+ * Hibernate or Jackson. Hit, miss and eviction counts are published as {@code cache.*} metrics with
+ * {@code cache=post.responses}.
+ *
+ * <p>A post change evicts the post's own entry and every feed page, after the change commits. Feed
+ * pages are stored under the feed generation current when they were filled, so evicting all of them
+ * is a counter increment; pages of older generations are never hit again and age out of the cache.
+ * A comment only changes the post's counter and evicts just the post's entry; feed pages show the
+ * counter as of their fill until they expire.
+ *
+ * <p>Fills race with evictions: a body read before an eviction may only be stored if no eviction of
+ * its kind happened since the read started, which {@link #generation(Key)} tracks. Changes made on
+ * other instances arrive as {@link CacheInvalidated} events.
+ */
+@Component
+@Slf4j
+public class PostResponseCache {
+  public static final String CACHE_NAME = "post.responses";
+
+  private final Cache<StoredKey, CachedResponse> cache;
+  private final AtomicLong postGeneration = new AtomicLong();
+  private final AtomicLong feedGeneration = new AtomicLong();
+
+  @Autowired
+  public PostResponseCache(
+      PostProperties postProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(postProperties.getResponseCacheMaxBytes())
+            .weigher((StoredKey key, CachedResponse response) -> response.body().length)
+            .expireAfterWrite(postProperties.getResponseCacheTtl())
+            .recordStats()
+            .build();
+    meterRegistry.ifAvailable(
+        registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+  }
+
+  /** What the cached body is the response to. */
+  public record Key(Endpoint endpoint, String params) {}
+
+  public enum Endpoint {
+    POST,
+    FEED
+  }
+
+  public record CachedResponse(byte[] body, String etag, long lastModified) {}
+
+  /** A key as stored: feed pages carry the feed generation they were filled in, posts 0. */
+  private record StoredKey(Key key, long feedGeneration) {}
+
+  public CachedResponse get(Key key) {
+    return cache.getIfPresent(stored(key, feedGeneration.get()));
+  }
+
+  /**
+   * Evictions affecting {@code key} so far; read it before producing a response that is then passed
+   * to {@link #put}.
+   */
+  public long generation(Key key) {
+    return key.endpoint() == Endpoint.FEED ? feedGeneration.get() : postGeneration.get();
+  }
+
+  /**
+   * Stores a response unless an eviction affecting it happened since {@code generation} was read.
+   */
+  public void put(Key key, CachedResponse response, long generation) {
+    if (key.endpoint() == Endpoint.FEED) {
+      // Stored under the generation it was read in; if the feed was evicted since, it is never hit.
+      if (feedGeneration.get() == generation) {
+        cache.put(stored(key, generation), response);
+      }
+      return;
+    }
+    if (postGeneration.get() == generation) {
+      StoredKey stored = stored(key, 0);
+      cache.put(stored, response);
+      // An eviction may have slipped in between the check and the put.
+      if (postGeneration.get() != generation) {
+        cache.invalidate(stored);
+      }
+    }
+  }
+
+  /** Evicts the post and all feed pages once the current transaction, if any, commits. */
+  public void evictPost(Long postId) {
+    afterCommit(
+        () -> {
+          postGeneration.incrementAndGet();
+          cache.invalidate(postKey(postId));
+          feedGeneration.incrementAndGet();
+          log.debug("Evicted cached responses of post {} and all feed pages", postId);
+        });
+  }
+
+  /** Evicts only the post, whose comment counter changed, once the transaction commits. */
+  public void evictCommentCount(Long postId) {
+    afterCommit(
+        () -> {
+          postGeneration.incrementAndGet();
+          cache.invalidate(postKey(postId));
+        });
+  }
+
+  public void evictAll() {
+    afterCommit(
+        () -> {
+          postGeneration.incrementAndGet();
+          feedGeneration.incrementAndGet();
+          cache.invalidateAll();
+        });
+  }
+
+  @EventListener
+  public void on(PostCreated event) {
+    evictPost(event.postId());
+  }
+
+  @EventListener
+  public void on(PostUpdated event) {
+    evictPost(event.postId());
+  }
+
+  @EventListener
+  public void on(PostDeleted event) {
+    evictPost(event.postId());
+  }
+
+  /** Post changes made on other instances; comments change the post's counter. */
+  @EventListener
+  public void on(CacheInvalidated event) {
+    if (event.all()) {
+      evictAll();
+      return;
+    }
+    Long postId = event.longId(CacheKeys.POST);
+    if (postId != null) {
+      evictPost(postId);
+      return;
+    }
+    postId = event.longId(CacheKeys.POST_COMMENTS);
+    if (postId != null) {
+      evictCommentCount(postId);
+    }
+  }
+
+  private static StoredKey postKey(Long postId) {
+    return new StoredKey(new Key(Endpoint.POST, String.valueOf(postId)), 0);
+  }
+
+  private static StoredKey stored(Key key, long feedGeneration) {
+    return new StoredKey(key, key.endpoint() == Endpoint.FEED ? feedGeneration : 0);
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.blog.posts.cache;
+
+import com.blog.posts.cache.PostResponseCache.CachedResponse;
+import com.blog.posts.cache.PostResponseCache.Endpoint;
+import com.blog.posts.cache.PostResponseCache.Key;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Answers {@code GET /v1/api/post} and {@code GET /v1/api/post/{id}} from the {@link
+ * PostResponseCache} and fills it from successful responses. Runs after Spring Security, so access
+ * rules still apply to cached reads, and honours conditional requests against the cached ETag.
+ */
+@Component
+@ConditionalOnProperty(
+    prefix = "posts",
+    name = "response-cache-enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class PostResponseCacheFilter extends OncePerRequestFilter {
+  private static final String FEED_PATH = "/v1/api/post";
+  private static final Pattern POST_PATH = Pattern.compile("/v1/api/post/(\\d{1,18})");
+
+  private final PostResponseCache responseCache;
+
+  @Autowired
+  public PostResponseCacheFilter(PostResponseCache responseCache) {
+    this.responseCache = responseCache;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !HttpMethod.GET.matches(request.getMethod()) || key(request) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    Key key = key(request);
+    CachedResponse cached = responseCache.get(key);
+    if (cached != null) {
+      write(cached, request, response);
+      return;
+    }
+    long generation = responseCache.generation(key);
+    ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+    try {
+      filterChain.doFilter(request, wrapper);
+      if (wrapper.getStatus() == HttpServletResponse.SC_OK
+          && wrapper.getContentType() != null
+          && MediaType.APPLICATION_JSON.isCompatibleWith(
+              MediaType.parseMediaType(wrapper.getContentType()))) {
+        HttpHeaders headers = new HttpHeaders();
+        String lastModified = wrapper.getHeader(HttpHeaders.LAST_MODIFIED);
+        if (lastModified != null) {
+          headers.set(HttpHeaders.LAST_MODIFIED, lastModified);
+        }
+        responseCache.put(
+            key,
+            new CachedResponse(
+                wrapper.getContentAsByteArray(),
+                wrapper.getHeader(HttpHeaders.ETAG),
+                headers.getLastModified()),
+            generation);
+      }
+    } finally {
+      wrapper.copyBodyToResponse();
+    }
+  }
+
+  private static void write(
+      CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    // Sets ETag and Last-Modified, and the status to 304 if the client's copy is current.
+    if (new ServletWebRequest(request, response)
+        .checkNotModified(cached.etag(), cached.lastModified())) {
+      return;
+    }
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setContentLength(cached.body().length);
+    response.getOutputStream().write(cached.body());
+  }
+
+  /** Cache key of a cacheable request, {@code null} for any other request. */
+  private static Key key(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    if (FEED_PATH.equals(path) || (FEED_PATH + "/").equals(path)) {
+      // Canonical parameter order, so that equivalent query strings share an entry.
+      Map<String, String[]> params = new TreeMap<>(request.getParameterMap());
+      StringBuilder canonical = new StringBuilder();
+      params.forEach(
+          (name, values) -> {
+            for (String value : values) {
+              canonical.append(name).append('=').append(value).append('&');
+            }
+          });
+      return new Key(Endpoint.FEED, canonical.toString());
+    }
+    var matcher = POST_PATH.matcher(path);
+    return matcher.matches() ? new Key(Endpoint.POST, matcher.group(1)) : null;
+  }
+}
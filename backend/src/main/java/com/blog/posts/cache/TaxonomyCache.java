@@ -0,0 +1,158 @@
+package com.blog.posts.cache;
+
+import com.blog.posts.config.PostProperties;
+import com.blog.posts.model.Category;
+import com.blog.posts.model.Tag;
+import com.blog.posts.repository.CategoryRepository;
+import com.blog.posts.repository.TagRepository;
+import com.blog.sharedkernel.invalidation.CacheInvalidated;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-through dictionary of categories and tags by id and by name.
+ *
+ * <p>Categories are a small fixed set, seeded at startup (see {@code StartupService}), so they are
+ * loaded eagerly and reloaded when an instance announces {@link CacheKeys#TAXONOMY} through the
+ * invalidation bus. Tags grow with the content, so they are only read through into size-bounded
+ * Caffeine caches ({@code posts.tagCacheMaxSize} entries each, by id and by name): a lookup that
+ * misses, such as a tag created by another post, is read from the database and remembered, and
+ * rarely used tags are evicted again. Tags are never changed once created, so remembered ones stay
+ * valid. Hit, miss and eviction counts are published as {@code cache.*} metrics.
+ *
+ * <p>The returned entities are detached and shared between threads: they may be referenced from
+ * posts but must not be modified.
+ */
+@Component
+@Slf4j
+public class TaxonomyCache {
+  public static final String TAGS_BY_ID_CACHE = "post.tags.by-id";
+  public static final String TAGS_BY_NAME_CACHE = "post.tags.by-name";
+
+  private final CategoryRepository categoryRepository;
+  private final TagRepository tagRepository;
+  private final Map<Long, Category> categoriesById = new ConcurrentHashMap<>();
+  private final Cache<Long, Tag> tagsById;
+  private final Cache<String, Tag> tagsByName;
+  private volatile List<Category> categories = List.of();
+  private volatile boolean loaded;
+
+  @Autowired
+  public TaxonomyCache(
+      CategoryRepository categoryRepository,
+      TagRepository tagRepository,
+      PostProperties postProperties,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    this.categoryRepository = categoryRepository;
+    this.tagRepository = tagRepository;
+    this.tagsById = tagCache(postProperties);
+    this.tagsByName = tagCache(postProperties);
+    meterRegistry.ifAvailable(
+        registry -> {
+          CaffeineCacheMetrics.monitor(registry, tagsById, TAGS_BY_ID_CACHE);
+          CaffeineCacheMetrics.monitor(registry, tagsByName, TAGS_BY_NAME_CACHE);
+        });
+  }
+
+  /** All categories ordered by id. */
+  public List<Category> categories() {
+    if (!loaded) {
+      reload();
+    }
+    return categories;
+  }
+
+  public Optional<Category> category(Long id) {
+    Category category = categoriesById.get(id);
+    if (category == null) {
+      category = categoryRepository.findById(id).orElse(null);
+      if (category != null) {
+        categoriesById.put(id, category);
+      }
+    }
+    return Optional.ofNullable(category);
+  }
+
+  public Optional<Tag> tag(Long id) {
+    Tag tag = tagsById.getIfPresent(id);
+    if (tag == null) {
+      tag = tagRepository.findById(id).orElse(null);
+      if (tag != null) {
+        putTag(tag);
+      }
+    }
+    return Optional.ofNullable(tag);
+  }
+
+  /** Existing tags among {@code names}, keyed by name; names not found are left out. */
+  public Map<String, Tag> tagsByName(Collection<String> names) {
+    Map<String, Tag> found = new HashMap<>();
+    Set<String> misses = new HashSet<>();
+    for (String name : names) {
+      Tag tag = tagsByName.getIfPresent(name);
+      if (tag != null) {
+        found.put(name, tag);
+      } else {
+        misses.add(name);
+      }
+    }
+    if (!misses.isEmpty()) {
+      for (Tag tag : tagRepository.findByNameIn(misses)) {
+        putTag(tag);
+        found.put(tag.getName(), tag);
+      }
+    }
+    return found;
+  }
+
+  /** Replaces the cached categories with the table contents and forgets the remembered tags. */
+  public synchronized void reload() {
+    List<Category> allCategories =
+        categoryRepository.findAll().stream()
+            .sorted(Comparator.comparing(Category::getId))
+            .toList();
+    categoriesById.keySet().retainAll(allCategories.stream().map(Category::getId).toList());
+    allCategories.forEach(category -> categoriesById.put(category.getId(), category));
+    tagsById.invalidateAll();
+    tagsByName.invalidateAll();
+    categories = allCategories;
+    loaded = true;
+    log.info("Loaded {} categories", allCategories.size());
+  }
+
+  @EventListener
+  public void on(CacheInvalidated event) {
+    if (event.all() || CacheKeys.TAXONOMY.equals(event.key())) {
+      reload();
+    }
+  }
+
+  private static <K> Cache<K, Tag> tagCache(PostProperties postProperties) {
+    return Caffeine.newBuilder()
+        .maximumSize(postProperties.getTagCacheMaxSize())
+        .recordStats()
+        .build();
+  }
+
+  private void putTag(Tag tag) {
+    tagsById.put(tag.getId(), tag);
+    tagsByName.put(tag.getName(), tag);
+  }
+}
@@ -0,0 +1,17 @@
+package com.blog.posts.catalog;
+
+import java.util.List;
+import java.util.Optional;
+
+/** Module API giving other modules batch access to published posts. */
+public interface PostCatalog {
+
+  /**
+   * Get up to {@code limit} published posts with an id greater than {@code afterId}, ordered by id.
+   * Pass {@code 0} for the first batch and the id of the last returned post afterwards.
+   */
+  List<PostDocument> findPublishedAfter(long afterId, int limit);
+
+  /** Get a post by id, or empty when it does not exist, is deleted or is not published. */
+  Optional<PostDocument> findPublishedById(Long id);
+}
@@ -0,0 +1,20 @@
+package com.blog.posts.catalog;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Read-only view of a published post handed to other modules (e.g. search). It only carries plain
+ * values so consumers never depend on the posts persistence model.
+ */
+public record PostDocument(
+    Long id,
+    String title,
+    String slug,
+    String excerpt,
+    String content,
+    String authorUsername,
+    Set<String> categories,
+    Set<String> tags,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt) {}
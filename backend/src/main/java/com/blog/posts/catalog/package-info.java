@@ -0,0 +1,5 @@
+/** Read API of the posts module for other modules, exposing posts as plain value objects. */
+@NamedInterface("posts.catalog")
+package com.blog.posts.catalog;
+
+import org.springframework.modulith.NamedInterface;
@@ -0,0 +1,8 @@
+package com.blog.posts.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PostProperties.class)
+public class PostConfig {}
@@ -0,0 +1,32 @@
+package com.blog.posts.config;
+
+import jakarta.validation.constraints.Min;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "posts")
+@Data
+public class PostProperties {
+  /** How often comment counters are recounted from the comments table. */
+  private Duration commentCountReconcileInterval = Duration.ofMinutes(15);
+
+  /** How long a reconciliation pass may go without progress before another instance may run. */
+  private Duration commentCountReconcileLease = Duration.ofMinutes(5);
+
+  /** Serve repeated {@code GET /v1/api/post} and {@code /v1/api/post/{id}} from memory. */
+  private boolean responseCacheEnabled = true;
+
+  /** Upper bound for the serialized bodies held by the response cache. */
+  @Min(1)
+  private long responseCacheMaxBytes = 64L * 1024 * 1024;
+
+  /** Safety net for changes made outside this application; events normally evict sooner. */
+  private Duration responseCacheTtl = Duration.ofMinutes(10);
+
+  /** Tags remembered by id, and separately by name; the least used are evicted beyond this. */
+  @Min(1)
+  private long tagCacheMaxSize = 10_000;
+}
@@ -0,0 +1,14 @@
+package com.blog.posts.dto.request;
+
+import lombok.*;
+
+/** Optional filters for the post feed; {@code null} fields are not applied. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostFilterDTO {
+  private Boolean published;
+  private Long categoryId;
+  private String tag;
+}
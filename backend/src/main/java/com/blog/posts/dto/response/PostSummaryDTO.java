@@ -0,0 +1,23 @@
+package com.blog.posts.dto.response;
+
+import com.blog.sharedkernel.dto.BaseDto;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.*;
+
+/** List-view representation of a post; use {@link ResponsePostDTO} when the body is needed. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class PostSummaryDTO extends BaseDto {
+  private String title;
+  private String excerpt;
+  private String slug;
+  private String featuredImage;
+  private boolean published;
+  private String authorUsername;
+  private Set<String> categories = new HashSet<>();
+  private Set<String> tags = new HashSet<>();
+  private int commentCount;
+}
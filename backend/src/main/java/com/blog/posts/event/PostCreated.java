@@ -0,0 +1,4 @@
+package com.blog.posts.event;
+
+/** Published when a new post has been stored. */
+public record PostCreated(Long postId) {}
@@ -0,0 +1,4 @@
+package com.blog.posts.event;
+
+/** Published when a post has been removed. */
+public record PostDeleted(Long postId) {}
@@ -0,0 +1,4 @@
+package com.blog.posts.event;
+
+/** Published when an existing post, its categories or its tags have changed. */
+public record PostUpdated(Long postId) {}
@@ -0,0 +1,8 @@
+/**
+ * Domain events published by the posts module once a post change is committed. Other modules react
+ * to them through the Spring Modulith event publication registry.
+ */
+@NamedInterface("posts.event")
+package com.blog.posts.event;
+
+import org.springframework.modulith.NamedInterface;
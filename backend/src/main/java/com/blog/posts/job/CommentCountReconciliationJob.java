@@ -0,0 +1,159 @@
+package com.blog.posts.job;
+
+import com.blog.comments.stats.CommentStatistics;
+import com.blog.posts.cache.PostResponseCache;
+import com.blog.posts.config.PostProperties;
+import com.blog.posts.model.JobLease;
+import com.blog.posts.repository.JobLeaseRepository;
+import com.blog.posts.repository.PostCommentCountRow;
+import com.blog.posts.repository.PostRepository;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.blog.sharedkernel.invalidation.InvalidationBus;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Periodically recounts comments for every post and fixes counters that drifted, e.g. after a
+ * redelivered or lost event. Posts are walked in id batches; each batch reads the stored counters,
+ * asks the comments module for the actual counts through {@link CommentStatistics}, and writes each
+ * drifted counter only if it still holds the value read, so an event applied in between is not
+ * overwritten and the post is left for the next pass. Only one instance runs a pass at a time,
+ * guarded by a lease in {@code job_leases}, and cached copies of corrected posts are evicted on
+ * every instance.
+ */
+@Component
+@Slf4j
+public class CommentCountReconciliationJob {
+  static final int BATCH_SIZE = 500;
+  static final String JOB_NAME = "comment-count-reconciliation";
+
+  private final PostRepository postRepository;
+  private final CommentStatistics commentStatistics;
+  private final JobLeaseRepository leaseRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final PostResponseCache responseCache;
+  private final InvalidationBus invalidationBus;
+  private final PostProperties postProperties;
+  private final String owner = UUID.randomUUID().toString();
+
+  @Autowired
+  public CommentCountReconciliationJob(
+      PostRepository postRepository,
+      CommentStatistics commentStatistics,
+      JobLeaseRepository leaseRepository,
+      TransactionTemplate transactionTemplate,
+      PostResponseCache responseCache,
+      InvalidationBus invalidationBus,
+      PostProperties postProperties) {
+    this.postRepository = postRepository;
+    this.commentStatistics = commentStatistics;
+    this.leaseRepository = leaseRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.responseCache = responseCache;
+    this.invalidationBus = invalidationBus;
+    this.postProperties = postProperties;
+  }
+
+  @Scheduled(
+      initialDelayString = "${posts.commentCountReconcileInterval:PT15M}",
+      fixedDelayString = "${posts.commentCountReconcileInterval:PT15M}")
+  public void scheduledReconcile() {
+    reconcile();
+  }
+
+  /**
+   * Runs one reconciliation pass unless another instance holds the lease.
+   *
+   * @return the number of corrected counters
+   */
+  public int reconcile() {
+    if (!claim()) {
+      log.info("Comment count reconciliation is running on another instance");
+      return 0;
+    }
+    try {
+      return reconcilePosts();
+    } finally {
+      transactionTemplate.executeWithoutResult(status -> leaseRepository.release(JOB_NAME, owner));
+    }
+  }
+
+  private int reconcilePosts() {
+    log.info("Comment count reconciliation started");
+    long afterId = 0;
+    int corrected = 0;
+    List<PostCommentCountRow> batch;
+    do {
+      batch = postRepository.findCommentCountsAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+      if (batch.isEmpty()) {
+        break;
+      }
+      List<PostCommentCountRow> rows = batch;
+      List<Long> fixed = transactionTemplate.execute(status -> reconcileBatch(rows));
+      fixed.forEach(this::evict);
+      corrected += fixed.size();
+      afterId = batch.get(batch.size() - 1).getPostId();
+      if (batch.size() == BATCH_SIZE && !claim()) {
+        log.warn("Lost the comment count reconciliation lease after post {}", afterId);
+        break;
+      }
+    } while (batch.size() == BATCH_SIZE);
+    log.info("Comment count reconciliation finished, corrected {} posts", corrected);
+    return corrected;
+  }
+
+  private List<Long> reconcileBatch(List<PostCommentCountRow> rows) {
+    Map<Long, Long> actual =
+        commentStatistics.countByPostIds(
+            rows.stream().map(PostCommentCountRow::getPostId).toList());
+    List<Long> fixed = new ArrayList<>();
+    for (PostCommentCountRow row : rows) {
+      int count = actual.getOrDefault(row.getPostId(), 0L).intValue();
+      if (count != row.getCommentCount()
+          && postRepository.updateCommentCount(row.getPostId(), row.getCommentCount(), count)
+              == 1) {
+        log.debug(
+            "Post {} comment count {} corrected to {}",
+            row.getPostId(),
+            row.getCommentCount(),
+            count);
+        fixed.add(row.getPostId());
+      }
+    }
+    return fixed;
+  }
+
+  /** Only the comments changed, as in {@code CommentCountListener}. */
+  private void evict(Long postId) {
+    responseCache.evictCommentCount(postId);
+    invalidationBus.publish(CacheKeys.postComments(postId));
+  }
+
+  private boolean claim() {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime until = now.plus(postProperties.getCommentCountReconcileLease());
+    Supplier<Integer> claim = () -> leaseRepository.claim(JOB_NAME, owner, now, until);
+    Integer claimed = transactionTemplate.execute(status -> claim.get());
+    if (claimed == 0 && !leaseRepository.existsById(JOB_NAME)) {
+      try {
+        transactionTemplate.executeWithoutResult(
+            status -> leaseRepository.save(new JobLease(JOB_NAME)));
+      } catch (DataIntegrityViolationException e) {
+        log.debug("Lease for {} created concurrently", JOB_NAME);
+      }
+      claimed = transactionTemplate.execute(status -> claim.get());
+    }
+    return claimed != null && claimed == 1;
+  }
+}
@@ -0,0 +1,62 @@
+package com.blog.posts.listener;
+
+import com.blog.comments.event.CommentCreated;
+import com.blog.comments.event.CommentDeleted;
+import com.blog.posts.cache.PostResponseCache;
+import com.blog.posts.repository.PostRepository;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.blog.sharedkernel.invalidation.InvalidationBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maintains {@code posts.comment_count} from comment events. Increments are not idempotent, so a
+ * redelivered event can leave a counter off by one until {@code CommentCountReconciliationJob}
+ * corrects it.
+ */
+@Component
+@Slf4j
+public class CommentCountListener {
+  private final PostRepository postRepository;
+  private final PostResponseCache responseCache;
+  private final InvalidationBus invalidationBus;
+
+  @Autowired
+  public CommentCountListener(
+      PostRepository postRepository,
+      PostResponseCache responseCache,
+      InvalidationBus invalidationBus) {
+    this.postRepository = postRepository;
+    this.responseCache = responseCache;
+    this.invalidationBus = invalidationBus;
+  }
+
+  @ApplicationModuleListener
+  public void on(CommentCreated event) {
+    log.debug("Comment {} added to post {}", event.commentId(), event.postId());
+    postRepository.adjustCommentCount(event.postId(), 1);
+    evict(event.postId());
+  }
+
+  @ApplicationModuleListener
+  public void on(CommentDeleted event) {
+    log.debug(
+        "Comment {} removed from post {} with {} replies",
+        event.commentId(),
+        event.postId(),
+        event.removed() - 1);
+    postRepository.adjustCommentCount(event.postId(), -event.removed());
+    evict(event.postId());
+  }
+
+  /**
+   * Cached copies of the post carry the counter, here and on the other instances. Only the comments
+   * changed, so the post is not announced as changed; that would make every instance re-index it.
+   */
+  private void evict(Long postId) {
+    responseCache.evictCommentCount(postId);
+    invalidationBus.publish(CacheKeys.postComments(postId));
+  }
+}
@@ -1,18 +1,18 @@
 package com.blog.posts.mapper;
 
+import com.blog.posts.cache.TaxonomyCache;
 import com.blog.posts.model.Category;
-import com.blog.posts.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class CategoryResolver {
 
-  @Autowired private CategoryRepository categoryRepository;
+  @Autowired private TaxonomyCache taxonomyCache;
 
   public Category findById(Long id) {
-    return categoryRepository
-        .findById(id)
+    return taxonomyCache
+        .category(id)
         .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
   }
 }
@@ -1,10 +1,13 @@
 package com.blog.posts.mapper;
 
+import com.blog.posts.catalog.PostDocument;
 import com.blog.posts.dto.request.PostDTO;
+import com.blog.posts.dto.response.PostSummaryDTO;
 import com.blog.posts.dto.response.ResponsePostDTO;
 import com.blog.posts.model.Category;
 import com.blog.posts.model.Post;
 import com.blog.posts.model.Tag;
+import com.blog.posts.repository.PostSummary;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.mapstruct.*;
@@ -22,6 +25,14 @@ public interface PostMapper {
   @Mapping(target = "tags", expression = "java(mapTagNames(post.getTags()))")
   ResponsePostDTO toDto(Post post);
 
+  @Mapping(target = "categories", expression = "java(mapCategoryNames(post.getCategories()))")
+  @Mapping(target = "tags", expression = "java(mapTagNames(post.getTags()))")
+  PostDocument toDocument(Post post);
+
+  @Mapping(target = "categories", ignore = true)
+  @Mapping(target = "tags", ignore = true)
+  PostSummaryDTO toSummaryDto(PostSummary summary);
+
   default Set<String> mapTagNames(Set<Tag> tags) {
     if (tags == null) return null;
     return tags.stream().map(Tag::getName).collect(Collectors.toSet());
@@ -0,0 +1,28 @@
+package com.blog.posts.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Lease of the instance running a scheduled job, so that only one instance runs it at a time. */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "job_leases")
+public class JobLease {
+
+  @Id private String jobName;
+
+  private String leaseOwner;
+
+  private LocalDateTime leaseUntil;
+
+  public JobLease(String jobName) {
+    this.jobName = jobName;
+  }
+}
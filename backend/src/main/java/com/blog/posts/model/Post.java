@@ -10,7 +10,14 @@ import lombok.*;
 import org.hibernate.annotations.Where;
 
 @Entity
-@Table(name = "posts")
+@Table(
+    name = "posts",
+    indexes = {
+      @Index(name = "idx_posts_created_at_id", columnList = "created_at DESC, id DESC"),
+      @Index(
+          name = "idx_posts_published_created_at_id",
+          columnList = "published, created_at DESC, id DESC")
+    })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -47,6 +54,14 @@ public class Post extends BaseEntity {
   @Builder.Default
   private boolean deleted = false;
 
+  /**
+   * Denormalized number of comments, maintained from comment events and reconciled periodically.
+   * Never written by entity updates so a stale entity cannot overwrite a concurrent increment.
+   */
+  @Column(name = "comment_count", nullable = false, updatable = false)
+  @Builder.Default
+  private int commentCount = 0;
+
   @ManyToMany
   @JoinTable(
       name = "post_categories",
@@ -55,7 +70,7 @@ public class Post extends BaseEntity {
   @Builder.Default
   private Set<Category> categories = new HashSet<>();
 
-  @ManyToMany(cascade = CascadeType.PERSIST)
+  @ManyToMany
   @JoinTable(
       name = "post_tags",
       joinColumns = @JoinColumn(name = "post_id"),
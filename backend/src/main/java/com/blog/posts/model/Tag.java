@@ -1,11 +1,15 @@
 package com.blog.posts.model;
 
 import com.blog.sharedkernel.entity.BaseEntity;
+import com.blog.sharedkernel.entity.CacheRegions;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "tags")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TAG)
 @Getter
 @Setter
 @NoArgsConstructor
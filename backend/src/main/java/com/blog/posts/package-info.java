@@ -1,16 +1,20 @@
 /**
  * Module containing all post-related functionality including domain model, services, and APIs.
  *
- * <p>This module depends on the sharedkernel module for common exceptions and utilities.
+ * <p>This module depends on the sharedkernel module for common exceptions and utilities, and on the
+ * comments module events and statistics to keep the per-post comment counter.
  */
 @org.springframework.modulith.NamedInterface("posts")
 @ApplicationModule(
     allowedDependencies = {
+      "comments::comments.event",
+      "comments::comments.stats",
       "sharedkernel::sharedkernel.exception",
       "sharedkernel::sharedkernel.dto",
       "sharedkernel::sharedkernel.entity",
       "sharedkernel::sharedkernel.mapper",
-      "sharedkernel::sharedkernel.utils"
+      "sharedkernel::sharedkernel.utils",
+      "sharedkernel::sharedkernel.invalidation"
     })
 package com.blog.posts;
 
@@ -0,0 +1,31 @@
+package com.blog.posts.repository;
+
+import com.blog.posts.model.JobLease;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+  /** Takes or extends the lease unless another owner holds an unexpired one; 1 on success. */
+  @Modifying
+  @Query(
+      "update JobLease l set l.leaseOwner = :owner, l.leaseUntil = :until"
+          + " where l.jobName = :jobName"
+          + " and (l.leaseOwner = :owner or l.leaseUntil is null or l.leaseUntil < :now)")
+  int claim(
+      @Param("jobName") String jobName,
+      @Param("owner") String owner,
+      @Param("now") LocalDateTime now,
+      @Param("until") LocalDateTime until);
+
+  @Modifying
+  @Query(
+      "update JobLease l set l.leaseOwner = null, l.leaseUntil = null"
+          + " where l.jobName = :jobName and l.leaseOwner = :owner")
+  int release(@Param("jobName") String jobName, @Param("owner") String owner);
+}
@@ -0,0 +1,8 @@
+package com.blog.posts.repository;
+
+/** A post id with its stored comment counter, read by the reconciliation job. */
+public interface PostCommentCountRow {
+  Long getPostId();
+
+  int getCommentCount();
+}
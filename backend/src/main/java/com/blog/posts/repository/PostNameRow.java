@@ -0,0 +1,8 @@
+package com.blog.posts.repository;
+
+/** A category or tag name attached to a post, used to decorate {@link PostSummary} rows. */
+public interface PostNameRow {
+  Long getPostId();
+
+  String getName();
+}
@@ -1,8 +1,126 @@
 package com.blog.posts.repository;
 
 import com.blog.posts.model.Post;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface PostRepository extends JpaRepository<Post, Long> {}
+public interface PostRepository extends JpaRepository<Post, Long> {
+
+  /**
+   * Feed filter and keyset predicate shared by the page queries below. Rows strictly after the
+   * cursor {@code (cursorCreatedAt, cursorId)} are returned in {@code (createdAt DESC, id DESC)}
+   * order, so the cost does not grow with how deep the client has paged. {@code null} parameters
+   * are not applied; pass {@code null} cursor values for the first page.
+   */
+  String FEED_PAGE_WHERE_ORDER =
+      """
+      where (:published is null or p.published = :published)
+        and (:categoryId is null
+             or p.id in (select pc.id from Post pc join pc.categories c where c.id = :categoryId))
+        and (:tag is null
+             or p.id in (select pt.id from Post pt join pt.tags t where t.name = :tag))
+        and (:cursorCreatedAt is null
+             or p.createdAt < :cursorCreatedAt
+             or (p.createdAt = :cursorCreatedAt and p.id < :cursorId))
+      order by p.createdAt desc, p.id desc
+      """;
+
+  /**
+   * Keyset page of post summaries, see {@link #FEED_PAGE_WHERE_ORDER}. Only the columns of {@link
+   * PostSummary} are selected.
+   */
+  @Query(
+      "select p.id as id, p.title as title, p.slug as slug, p.excerpt as excerpt,"
+          + " p.featuredImage as featuredImage, p.authorUsername as authorUsername,"
+          + " p.published as published, p.commentCount as commentCount,"
+          + " p.createdAt as createdAt, p.updatedAt as updatedAt"
+          + " from Post p "
+          + FEED_PAGE_WHERE_ORDER)
+  List<PostSummary> findFeedPageSummaries(
+      @Param("published") Boolean published,
+      @Param("categoryId") Long categoryId,
+      @Param("tag") String tag,
+      @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+      @Param("cursorId") Long cursorId,
+      Pageable pageable);
+
+  /** Version columns of a keyset page of posts, see {@link #FEED_PAGE_WHERE_ORDER}. */
+  @Query(
+      "select p.id as id, p.updatedAt as updatedAt, p.commentCount as commentCount from Post p "
+          + FEED_PAGE_WHERE_ORDER)
+  List<PostVersionRow> findFeedPageVersions(
+      @Param("published") Boolean published,
+      @Param("categoryId") Long categoryId,
+      @Param("tag") String tag,
+      @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+      @Param("cursorId") Long cursorId,
+      Pageable pageable);
+
+  @Query(
+      "select p.id as id, p.updatedAt as updatedAt, p.commentCount as commentCount from Post p"
+          + " where p.id = :id")
+  Optional<PostVersionRow> findVersionById(@Param("id") Long id);
+
+  @Query(
+      "select p.id as postId, c.name as name from Post p join p.categories c where p.id in"
+          + " :postIds")
+  List<PostNameRow> findCategoryNamesByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+  @Query("select p.id as postId, t.name as name from Post p join p.tags t where p.id in :postIds")
+  List<PostNameRow> findTagNamesByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+  @Query("select p.id from Post p where p.published = true and p.id > :afterId order by p.id")
+  List<Long> findPublishedIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+  /** Comment counters of all posts with an id greater than {@code afterId}, ordered by id. */
+  @Query(
+      "select p.id as postId, p.commentCount as commentCount from Post p where p.id > :afterId"
+          + " order by p.id")
+  List<PostCommentCountRow> findCommentCountsAfter(
+      @Param("afterId") long afterId, Pageable pageable);
+
+  /** Applies a comment event to the counter without loading the post; never drops below zero. */
+  // The query space limits second-level cache invalidation to posts; by default Hibernate drops
+  // every region after a native update, as it cannot tell which tables were touched.
+  @Modifying
+  @Query(
+      value =
+          "update posts set comment_count = greatest(comment_count + :delta, 0) where id = :postId",
+      nativeQuery = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "posts"))
+  int adjustCommentCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+  /**
+   * Sets the counter of a post to {@code count} if it still holds {@code expected}, so an event
+   * applied since the counter was read is not overwritten.
+   */
+  @Modifying
+  @Query(
+      value =
+          "update posts set comment_count = :count"
+              + " where id = :postId and comment_count = :expected",
+      nativeQuery = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "posts"))
+  int updateCommentCount(
+      @Param("postId") Long postId, @Param("expected") int expected, @Param("count") int count);
+
+  /** Posts with their categories and tags fetched in the same statement; order is unspecified. */
+  @EntityGraph(attributePaths = {"categories", "tags"})
+  List<Post> findWithAssociationsByIdIn(Collection<Long> ids);
+
+  @EntityGraph(attributePaths = {"categories", "tags"})
+  Optional<Post> findWithAssociationsById(Long id);
+}
@@ -0,0 +1,29 @@
+package com.blog.posts.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection of a post for list views. It deliberately has no {@code content} so feed
+ * queries never read the TEXT body column.
+ */
+public interface PostSummary {
+  Long getId();
+
+  String getTitle();
+
+  String getSlug();
+
+  String getExcerpt();
+
+  String getFeaturedImage();
+
+  String getAuthorUsername();
+
+  boolean isPublished();
+
+  int getCommentCount();
+
+  LocalDateTime getCreatedAt();
+
+  LocalDateTime getUpdatedAt();
+}
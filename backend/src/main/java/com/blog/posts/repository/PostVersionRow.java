@@ -0,0 +1,12 @@
+package com.blog.posts.repository;
+
+import java.time.LocalDateTime;
+
+/** The columns a post's ETag is derived from. */
+public interface PostVersionRow {
+  Long getId();
+
+  LocalDateTime getUpdatedAt();
+
+  int getCommentCount();
+}
@@ -0,0 +1,17 @@
+package com.blog.posts.repository;
+
+import com.blog.posts.model.Tag;
+import java.util.Collection;
+import java.util.List;
+
+/** Bulk tag creation that tolerates tags created concurrently by other transactions. */
+public interface TagUpsertRepository {
+
+  /**
+   * Inserts the given new tags in one statement, skipping those whose name or slug already exists.
+   *
+   * @return the tags actually inserted, managed by the current persistence context; tags whose name
+   *     or slug was taken are not returned
+   */
+  List<Tag> insertMissing(Collection<Tag> tags);
+}
@@ -0,0 +1,79 @@
+package com.blog.posts.repository;
+
+import com.blog.posts.model.Tag;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.Generator;
+
+/**
+ * PostgreSQL implementation of {@link TagUpsertRepository}: the new rows are passed as arrays,
+ * unnested and inserted with {@code ON CONFLICT DO NOTHING RETURNING *}, so any number of tags
+ * costs one statement. The conflict has no target because both the name and the slug are unique: a
+ * concurrent creator of the same tag, or an existing tag with the same slug, must not fail the
+ * transaction.
+ */
+class TagUpsertRepositoryImpl implements TagUpsertRepository {
+  private static final String INSERT_WITH_IDENTITY =
+      """
+      insert into tags (name, slug, description, created_at, updated_at)
+      select t.name, t.slug, t.description, localtimestamp, localtimestamp
+      from unnest(cast(:names as text[]), cast(:slugs as text[]), cast(:descriptions as text[]))
+        as t(name, slug, description)
+      on conflict do nothing
+      returning *
+      """;
+  private static final String INSERT_WITH_IDS =
+      """
+      insert into tags (id, name, slug, description, created_at, updated_at)
+      select t.id, t.name, t.slug, t.description, localtimestamp, localtimestamp
+      from unnest(cast(:ids as bigint[]), cast(:names as text[]), cast(:slugs as text[]),
+                  cast(:descriptions as text[]))
+        as t(id, name, slug, description)
+      on conflict do nothing
+      returning *
+      """;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<Tag> insertMissing(Collection<Tag> tags) {
+    if (tags.isEmpty()) {
+      return List.of();
+    }
+    List<Tag> rows = List.copyOf(tags);
+    Generator generator =
+        entityManager
+            .getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getMappingMetamodel()
+            .getEntityDescriptor(Tag.class)
+            .getGenerator();
+    var query =
+        generator instanceof BeforeExecutionGenerator idGenerator
+            ? entityManager
+                .createNativeQuery(INSERT_WITH_IDS, Tag.class)
+                .setParameter("ids", generateIds(idGenerator, rows))
+            : entityManager.createNativeQuery(INSERT_WITH_IDENTITY, Tag.class);
+    return query
+        .setParameter("names", rows.stream().map(Tag::getName).toArray(String[]::new))
+        .setParameter("slugs", rows.stream().map(Tag::getSlug).toArray(String[]::new))
+        .setParameter("descriptions", rows.stream().map(Tag::getDescription).toArray(String[]::new))
+        .getResultList();
+  }
+
+  /** Ids for sequence-mapped tags, see {@code META-INF/pooled-ids.xml}. */
+  private Long[] generateIds(BeforeExecutionGenerator generator, List<Tag> rows) {
+    SharedSessionContractImplementor session =
+        entityManager.unwrap(SharedSessionContractImplementor.class);
+    return rows.stream()
+        .map(tag -> (Long) generator.generate(session, tag, null, EventType.INSERT))
+        .toArray(Long[]::new);
+  }
+}
@@ -1,14 +1,37 @@
 package com.blog.posts.service;
 
 import com.blog.posts.dto.request.PostDTO;
+import com.blog.posts.dto.request.PostFilterDTO;
+import com.blog.posts.dto.response.PostSummaryDTO;
 import com.blog.posts.dto.response.ResponsePostDTO;
-import java.util.List;
+import com.blog.sharedkernel.dto.ContentVersion;
+import com.blog.sharedkernel.dto.CursorPagingResult;
 
 public interface PostService {
-  List<ResponsePostDTO> getAllPosts();
+  int DEFAULT_PAGE_SIZE = 20;
+  int MAX_PAGE_SIZE = 100;
+
+  /**
+   * Get one page of posts, newest first, as {@link PostSummaryDTO}s, which never load the post
+   * body; {@link #getPostById(Long)} returns the full post. {@code cursor} is the {@code
+   * nextCursor} of the previous page or {@code null} for the first one; {@code size} is clamped to
+   * {@link #MAX_PAGE_SIZE}.
+   */
+  CursorPagingResult<PostSummaryDTO> getPostSummaries(
+      String cursor, int size, PostFilterDTO filter);
+
+  /**
+   * Validators of the page {@link #getPostSummaries} returns for the same arguments, derived from
+   * the id, update time and comment counter of each post on it without loading the posts. Only the
+   * ETag is set.
+   */
+  ContentVersion getPostsVersion(String cursor, int size, PostFilterDTO filter);
 
   ResponsePostDTO getPostById(Long id);
 
+  /** Validators of {@link #getPostById}, read from the version columns alone. */
+  ContentVersion getPostVersion(Long id);
+
   ResponsePostDTO createOrUpdatePost(PostDTO postDTO);
 
   ResponsePostDTO createOrUpdatePost(Long id, PostDTO postDTO);
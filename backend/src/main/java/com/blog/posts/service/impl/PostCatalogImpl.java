@@ -0,0 +1,52 @@
+package com.blog.posts.service.impl;
+
+import com.blog.posts.catalog.PostCatalog;
+import com.blog.posts.catalog.PostDocument;
+import com.blog.posts.mapper.PostMapper;
+import com.blog.posts.model.Post;
+import com.blog.posts.repository.PostRepository;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Slf4j
+public class PostCatalogImpl implements PostCatalog {
+  private final PostRepository postRepository;
+  private final PostMapper postMapper;
+
+  @Autowired
+  public PostCatalogImpl(PostRepository postRepository, PostMapper postMapper) {
+    this.postRepository = postRepository;
+    this.postMapper = postMapper;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<PostDocument> findPublishedAfter(long afterId, int limit) {
+    log.debug("Fetching up to {} published posts after id: {}", limit, afterId);
+    List<Long> ids = postRepository.findPublishedIdsAfter(afterId, PageRequest.of(0, limit));
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return postRepository.findWithAssociationsByIdIn(ids).stream()
+        .sorted(Comparator.comparing(Post::getId))
+        .map(postMapper::toDocument)
+        .toList();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<PostDocument> findPublishedById(Long id) {
+    log.debug("Fetching published post with id: {}", id);
+    return postRepository
+        .findWithAssociationsById(id)
+        .filter(Post::isPublished)
+        .map(postMapper::toDocument);
+  }
+}
@@ -1,34 +1,52 @@
 package com.blog.posts.service.impl;
 
+import com.blog.posts.cache.TaxonomyCache;
 import com.blog.posts.dto.request.PostDTO;
+import com.blog.posts.dto.request.PostFilterDTO;
 import com.blog.posts.dto.request.TagDTO;
+import com.blog.posts.dto.response.PostSummaryDTO;
 import com.blog.posts.dto.response.ResponsePostDTO;
+import com.blog.posts.event.PostCreated;
+import com.blog.posts.event.PostDeleted;
+import com.blog.posts.event.PostUpdated;
 import com.blog.posts.mapper.CategoryResolver;
 import com.blog.posts.mapper.PostMapper;
 import com.blog.posts.model.Category;
 import com.blog.posts.model.Post;
 import com.blog.posts.model.Tag;
-import com.blog.posts.repository.CategoryRepository;
+import com.blog.posts.repository.PostNameRow;
 import com.blog.posts.repository.PostRepository;
+import com.blog.posts.repository.PostSummary;
+import com.blog.posts.repository.PostVersionRow;
 import com.blog.posts.repository.TagRepository;
 import com.blog.posts.service.PostService;
+import com.blog.sharedkernel.dto.ContentVersion;
+import com.blog.sharedkernel.dto.CursorPagingResult;
+import com.blog.sharedkernel.dto.KeysetCursor;
 import com.blog.sharedkernel.exception.PostNotFoundException;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.blog.sharedkernel.invalidation.InvalidationBus;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @Slf4j
 public class PostServiceImpl implements PostService {
-  private final CategoryRepository categoryRepository;
+  private final TaxonomyCache taxonomyCache;
   private final PostRepository postRepository;
   private final PostMapper postMapper;
   private final CategoryResolver categoryResolver;
   private final TagRepository tagRepository;
+  private final ApplicationEventPublisher events;
+  private final InvalidationBus invalidationBus;
 
   @Autowired
   public PostServiceImpl(
@@ -36,28 +54,123 @@ public class PostServiceImpl implements PostService {
       CategoryResolver categoryResolver,
       PostRepository postRepository,
       PostMapper postMapper,
-      CategoryRepository categoryRepository) {
+      TaxonomyCache taxonomyCache,
+      ApplicationEventPublisher events,
+      InvalidationBus invalidationBus) {
     this.postRepository = postRepository;
     this.postMapper = postMapper;
     this.categoryResolver = categoryResolver;
     this.tagRepository = tagRepository;
-    this.categoryRepository = categoryRepository;
+    this.taxonomyCache = taxonomyCache;
+    this.events = events;
+    this.invalidationBus = invalidationBus;
   }
 
   @Override
-  public List<ResponsePostDTO> getAllPosts() {
-    log.info("Fetching all posts");
-    List<Post> blogs = postRepository.findAll();
-    log.info("Fetched {} blogs", blogs.size());
-    return blogs.stream().map(postMapper::toDto).collect(Collectors.toList());
+  @Transactional(readOnly = true)
+  public CursorPagingResult<PostSummaryDTO> getPostSummaries(
+      String cursor, int size, PostFilterDTO filter) {
+    log.info("Fetching post summaries page");
+    int pageSize = clampPageSize(size);
+    KeysetCursor after = KeysetCursor.decode(cursor);
+    PostFilterDTO criteria = filter == null ? new PostFilterDTO() : filter;
+    log.debug(
+        "Fetching post summaries after cursor: {} with size: {} and filter: {}",
+        after,
+        pageSize,
+        criteria);
+
+    List<PostSummary> rows =
+        postRepository.findFeedPageSummaries(
+            criteria.getPublished(),
+            criteria.getCategoryId(),
+            normalizeTag(criteria.getTag()),
+            after == null ? null : after.createdAt(),
+            after == null ? null : after.id(),
+            PageRequest.of(0, pageSize + 1));
+    boolean hasNext = rows.size() > pageSize;
+    List<PostSummary> page = hasNext ? rows.subList(0, pageSize) : rows;
+    String nextCursor = null;
+    if (hasNext) {
+      PostSummary last = page.get(page.size() - 1);
+      nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+    }
+
+    List<PostSummaryDTO> content = page.stream().map(postMapper::toSummaryDto).toList();
+    if (!content.isEmpty()) {
+      Map<Long, PostSummaryDTO> byId =
+          content.stream().collect(Collectors.toMap(PostSummaryDTO::getId, Function.identity()));
+      for (PostNameRow row : postRepository.findCategoryNamesByPostIdIn(byId.keySet())) {
+        byId.get(row.getPostId()).getCategories().add(row.getName());
+      }
+      for (PostNameRow row : postRepository.findTagNamesByPostIdIn(byId.keySet())) {
+        byId.get(row.getPostId()).getTags().add(row.getName());
+      }
+    }
+    log.info("Fetched {} post summaries, hasNext: {}", content.size(), hasNext);
+    return CursorPagingResult.<PostSummaryDTO>builder()
+        .content(content)
+        .size(pageSize)
+        .hasNext(hasNext)
+        .nextCursor(nextCursor)
+        .build();
   }
 
   @Override
+  @Transactional(readOnly = true)
+  public ContentVersion getPostsVersion(String cursor, int size, PostFilterDTO filter) {
+    int pageSize = clampPageSize(size);
+    KeysetCursor after = KeysetCursor.decode(cursor);
+    PostFilterDTO criteria = filter == null ? new PostFilterDTO() : filter;
+    // One row more than the page, as hasNext is part of the representation.
+    List<PostVersionRow> rows =
+        postRepository.findFeedPageVersions(
+            criteria.getPublished(),
+            criteria.getCategoryId(),
+            normalizeTag(criteria.getTag()),
+            after == null ? null : after.createdAt(),
+            after == null ? null : after.id(),
+            PageRequest.of(0, pageSize + 1));
+    List<Object> parts = new ArrayList<>(rows.size() * 3);
+    for (PostVersionRow row : rows) {
+      parts.add(row.getId());
+      parts.add(row.getUpdatedAt());
+      parts.add(row.getCommentCount());
+    }
+    // No Last-Modified: the newest update on the page moves backwards when a post leaves it.
+    return ContentVersion.of(null, parts);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public ContentVersion getPostVersion(Long id) {
+    PostVersionRow row =
+        postRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new PostNotFoundException("Blog", "id", id));
+    // The comment counter is maintained without touching updated_at.
+    return ContentVersion.of(
+        row.getUpdatedAt(), List.of(row.getId(), row.getUpdatedAt(), row.getCommentCount()));
+  }
+
+  private static int clampPageSize(int size) {
+    return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+  }
+
+  /** Tag names are stored trimmed and lower-cased, see {@link TagDTO#setName(String)}. */
+  private static String normalizeTag(String tag) {
+    return tag == null || tag.isBlank() ? null : tag.trim().toLowerCase();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
   public ResponsePostDTO getPostById(Long id) {
     log.info("Fetching blog by id");
     log.debug("Fetching blog by id: {}", id);
     Post blog =
-        postRepository.findById(id).orElseThrow(() -> new PostNotFoundException("Blog", "id", id));
+        postRepository
+            .findWithAssociationsById(id)
+            .orElseThrow(() -> new PostNotFoundException("Blog", "id", id));
     log.debug("Fetched blog: {}", blog);
     return postMapper.toDto(blog);
   }
@@ -65,29 +178,11 @@ public class PostServiceImpl implements PostService {
   @Override
   @Transactional
   public ResponsePostDTO createOrUpdatePost(PostDTO postDTO) {
-    Set<String> tagNames =
-        postDTO.getTags().stream().map(TagDTO::getName).collect(Collectors.toSet());
-    List<Tag> existingTags = tagRepository.findByNameIn(tagNames);
-    Map<String, Tag> existingTagMap =
-        existingTags.stream().collect(Collectors.toMap(Tag::getName, Function.identity()));
-
-    Set<Tag> tags = new HashSet<>();
-    for (TagDTO tagDTO : postDTO.getTags()) {
-      Tag tag = existingTagMap.get(tagDTO.getName());
-      if (tag == null) {
-        tag = new Tag();
-        tag.setName(tagDTO.getName());
-        tag.setDescription(tagDTO.getDescription());
-        tag.setSlug(tagDTO.getSlug());
-        tag = tagRepository.save(tag);
-      }
-      tags.add(tag);
-    }
-
     Post post = postMapper.toEntity(postDTO, categoryResolver);
-    post.setTags(tags);
-    postRepository.save(post);
+    post.setTags(resolveTags(postDTO.getTags()));
     var updatedPost = postRepository.save(post);
+    events.publishEvent(new PostCreated(updatedPost.getId()));
+    invalidationBus.publish(CacheKeys.post(updatedPost.getId()));
 
     return postMapper.toDto(updatedPost);
   }
@@ -112,39 +207,87 @@ public class PostServiceImpl implements PostService {
     Set<Category> set =
         postDTO.getCategories().stream()
             .filter(Objects::nonNull)
-            .map(categoryRepository::findById)
+            .map(taxonomyCache::category)
             .filter(Optional::isPresent)
             .map(Optional::get)
             .collect(Collectors.toSet());
     existingPost.setCategories(set);
 
-    Set<String> tagNames =
-        postDTO.getTags().stream().map(TagDTO::getName).collect(Collectors.toSet());
-    List<Tag> existingTags = tagRepository.findByNameIn(tagNames);
-    Map<String, Tag> existingTagMap =
-        existingTags.stream().collect(Collectors.toMap(Tag::getName, Function.identity()));
+    existingPost.setTags(resolveTags(postDTO.getTags()));
+    // Changing only categories or tags does not dirty the row itself; updated_at feeds the ETag.
+    existingPost.setUpdatedAt(LocalDateTime.now());
+
+    Post updatedPost = postRepository.save(existingPost);
+    events.publishEvent(new PostUpdated(updatedPost.getId()));
+    invalidationBus.publish(CacheKeys.post(updatedPost.getId()));
+
+    return postMapper.toDto(updatedPost);
+  }
+
+  /**
+   * Existing tags by name plus the missing ones, created with a single insert. Known tags come from
+   * the {@link TaxonomyCache}; a post with any number of new tags costs at most two statements,
+   * three if another post created one of them meanwhile. A new tag whose slug already belongs to a
+   * differently named tag is created once more with the slug made unique by a suffix. New tags need
+   * no cache invalidation: they are read through on their first lookup.
+   */
+  private Set<Tag> resolveTags(Collection<TagDTO> tagDTOs) {
+    Map<String, TagDTO> missing = new LinkedHashMap<>();
+    tagDTOs.forEach(tagDTO -> missing.putIfAbsent(tagDTO.getName(), tagDTO));
     Set<Tag> tags = new HashSet<>();
-    for (TagDTO tagDTO : postDTO.getTags()) {
-      Tag tag = existingTagMap.get(tagDTO.getName());
-      if (tag == null) {
-        tag = new Tag();
-        tag.setName(tagDTO.getName());
-        tag.setDescription(tagDTO.getDescription());
-        tag.setSlug(tagDTO.getSlug());
-        tag = tagRepository.save(tag);
+    if (missing.isEmpty()) {
+      return tags;
+    }
+    addFound(tags, List.copyOf(taxonomyCache.tagsByName(missing.keySet()).values()), missing);
+    if (!missing.isEmpty()) {
+      addFound(tags, tagRepository.insertMissing(newTags(missing, false)), missing);
+    }
+    if (!missing.isEmpty()) {
+      log.debug("Tags {} were created concurrently, reading them back", missing.keySet());
+      addFound(tags, tagRepository.findByNameIn(missing.keySet()), missing);
+    }
+    if (!missing.isEmpty()) {
+      log.debug("Slugs of tags {} are taken, creating them with unique slugs", missing.keySet());
+      addFound(tags, tagRepository.insertMissing(newTags(missing, true)), missing);
+      if (!missing.isEmpty()) {
+        addFound(tags, tagRepository.findByNameIn(missing.keySet()), missing);
       }
-      tags.add(tag);
     }
+    if (!missing.isEmpty()) {
+      throw new IllegalStateException("Could not create tags " + missing.keySet());
+    }
+    return tags;
+  }
 
-    existingPost.setTags(tags);
-
-    Post updatedPost = postRepository.save(existingPost);
+  private static List<Tag> newTags(Map<String, TagDTO> missing, boolean uniqueSlug) {
+    return missing.values().stream()
+        .map(
+            tagDTO ->
+                Tag.builder()
+                    .name(tagDTO.getName())
+                    .slug(
+                        uniqueSlug
+                            ? tagDTO.getSlug()
+                                + "-"
+                                + Integer.toUnsignedString(tagDTO.getName().hashCode(), 36)
+                            : tagDTO.getSlug())
+                    .description(tagDTO.getDescription())
+                    .build())
+        .toList();
+  }
 
-    return postMapper.toDto(updatedPost);
+  private static void addFound(Set<Tag> tags, List<Tag> found, Map<String, TagDTO> missing) {
+    for (Tag tag : found) {
+      tags.add(tag);
+      missing.remove(tag.getName());
+    }
   }
 
   @Override
+  @Transactional
   public void deleteBlog(Long id) {
     postRepository.deleteById(id);
+    events.publishEvent(new PostDeleted(id));
+    invalidationBus.publish(CacheKeys.post(id));
   }
 }
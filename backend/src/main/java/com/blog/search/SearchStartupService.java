@@ -0,0 +1,32 @@
+package com.blog.search;
+
+import com.blog.search.service.AutocompleteService;
+import com.blog.search.service.SearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class SearchStartupService {
+
+  private final SearchService searchService;
+  private final AutocompleteService autocompleteService;
+
+  public SearchStartupService(
+      SearchService searchService, AutocompleteService autocompleteService) {
+    this.searchService = searchService;
+    this.autocompleteService = autocompleteService;
+  }
+
+  @Bean
+  public ApplicationRunner initSearchIndex() {
+    return args -> {
+      log.info("initSearchIndex called");
+      int indexed = searchService.rebuildIndex();
+      log.info("Search index ready with {} posts", indexed);
+      autocompleteService.rebuild();
+    };
+  }
+}
@@ -0,0 +1,96 @@
+package com.blog.search.api;
+
+import com.blog.search.dto.request.SearchFilterDTO;
+import com.blog.search.dto.response.SearchResponseDTO;
+import com.blog.search.dto.response.SuggestionDTO;
+import com.blog.search.service.AutocompleteService;
+import com.blog.search.service.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/v1/api/search")
+@Tag(name = "Search", description = "Full-text search over published posts")
+@Slf4j
+public class SearchController {
+  private final SearchService searchService;
+  private final AutocompleteService autocompleteService;
+
+  @Autowired
+  public SearchController(SearchService searchService, AutocompleteService autocompleteService) {
+    this.searchService = searchService;
+    this.autocompleteService = autocompleteService;
+  }
+
+  @Operation(
+      summary = "Search posts",
+      description =
+          "Ranks published posts by relevance to the query across title, tags, categories,"
+              + " excerpt and content, optionally narrowed to a category, tag or author, and"
+              + " counts all matches per category, tag and author")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved search results",
+      content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE))
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<SearchResponseDTO> search(
+      @Parameter(description = "Search text", required = true, example = "spring boot")
+          @RequestParam("q")
+          String query,
+      @Parameter(description = "Only posts in this category (name)", example = "Technology")
+          @RequestParam(required = false)
+          String category,
+      @Parameter(description = "Only posts with this tag", example = "java")
+          @RequestParam(required = false)
+          String tag,
+      @Parameter(description = "Only posts by this author (username)")
+          @RequestParam(required = false)
+          String author,
+      @Parameter(description = "Page number (0-based)", example = "0")
+          @RequestParam(defaultValue = "0")
+          int page,
+      @Parameter(description = "Number of results per page", example = "10")
+          @RequestParam(defaultValue = "10")
+          int size) {
+    log.info("Search called");
+    log.debug("Searching posts for: '{}' page: {} size: {}", query, page, size);
+    SearchFilterDTO filter =
+        SearchFilterDTO.builder().category(category).tag(tag).author(author).build();
+    SearchResponseDTO result = searchService.search(query, filter, page, size);
+    log.debug(
+        "Search returned {} of {} hits", result.getContent().size(), result.getTotalElements());
+    return ResponseEntity.ok(result);
+  }
+
+  @Operation(
+      summary = "Autocomplete",
+      description =
+          "Suggests published post titles and tag names starting with the typed prefix, most used"
+              + " first")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved suggestions",
+      content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE))
+  @GetMapping(value = "/suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<List<SuggestionDTO>> suggest(
+      @Parameter(description = "Typed prefix", required = true, example = "spr") @RequestParam("q")
+          String prefix,
+      @Parameter(description = "Maximum number of suggestions", example = "8")
+          @RequestParam(defaultValue = "8")
+          int limit) {
+    log.debug("Suggesting completions for: '{}' limit: {}", prefix, limit);
+    return ResponseEntity.ok(autocompleteService.suggest(prefix, limit));
+  }
+}
@@ -0,0 +1,33 @@
+package com.blog.search.config;
+
+import com.blog.search.engine.Analyzer;
+import com.blog.search.engine.InvertedIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SearchProperties.class)
+public class SearchConfig {
+
+  @Bean
+  @ConditionalOnProperty(
+      prefix = "search",
+      name = "mode",
+      havingValue = "memory",
+      matchIfMissing = true)
+  public Analyzer searchAnalyzer() {
+    return new Analyzer();
+  }
+
+  @Bean
+  @ConditionalOnProperty(
+      prefix = "search",
+      name = "mode",
+      havingValue = "memory",
+      matchIfMissing = true)
+  public InvertedIndex postIndex(Analyzer searchAnalyzer, SearchProperties searchProperties) {
+    return new InvertedIndex(searchAnalyzer, searchProperties.getK1(), searchProperties.getB());
+  }
+}
@@ -0,0 +1,60 @@
+package com.blog.search.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "search")
+@Data
+public class SearchProperties {
+  /** Backend answering search queries. */
+  private Mode mode = Mode.MEMORY;
+
+  /**
+   * Postgres text search configuration used by {@link Mode#POSTGRES} for both the indexed column
+   * and the queries. It becomes part of the generated column definition, hence the restriction.
+   */
+  @Pattern(regexp = "[a-z_]+")
+  private String textSearchConfig = "english";
+
+  /** Posts loaded from the posts module per batch while (re)building the index. */
+  @Min(1)
+  private int rebuildBatchSize = 500;
+
+  /** Upper bound for the {@code size} request parameter. */
+  @Min(1)
+  private int maxPageSize = 50;
+
+  /** Values returned per facet, most common first. */
+  @Min(0)
+  private int maxFacetValues = 10;
+
+  /** Upper bound for the number of autocomplete suggestions per request. */
+  @Min(1)
+  private int maxSuggestions = 10;
+
+  /** Deepest result (page * size) that can be requested; ranking beyond it is never useful. */
+  @Min(1)
+  private int maxResultWindow = 1000;
+
+  /** BM25 term frequency saturation. */
+  @Positive private float k1 = 1.2f;
+
+  /** BM25 document length normalization, between 0 (none) and 1 (full). */
+  @DecimalMin("0.0")
+  @DecimalMax("1.0")
+  private float b = 0.75f;
+
+  public enum Mode {
+    /** In-process BM25 index rebuilt at startup and kept fresh from post events. */
+    MEMORY,
+    /** Generated, GIN-indexed {@code tsvector} column on {@code posts}, shared by every node. */
+    POSTGRES
+  }
+}
@@ -0,0 +1,17 @@
+package com.blog.search.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Facet values a search is narrowed to; {@code null} fields do not filter. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFilterDTO {
+  private String category;
+  private String tag;
+  private String author;
+}
@@ -0,0 +1,12 @@
+package com.blog.search.dto.response;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDTO {
+  private String value;
+  private long count;
+}
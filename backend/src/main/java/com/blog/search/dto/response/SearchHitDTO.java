@@ -0,0 +1,21 @@
+package com.blog.search.dto.response;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHitDTO {
+  private Long postId;
+  private String title;
+  private String slug;
+  private String excerpt;
+  private float score;
+
+  /**
+   * Matching fragment as HTML, with query terms wrapped in {@code <b>} and everything else escaped;
+   * only set when the backend provides one.
+   */
+  private String highlight;
+}
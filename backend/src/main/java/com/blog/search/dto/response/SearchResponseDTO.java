@@ -0,0 +1,23 @@
+package com.blog.search.dto.response;
+
+import java.util.List;
+import java.util.Map;
+import lombok.*;
+
+/**
+ * One page of search hits, shaped like {@code PagingResult}, plus facet counts over all hits: per
+ * facet ({@code category}, {@code tag}, {@code author}) the most common values, largest first.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResponseDTO {
+  private List<SearchHitDTO> content;
+  private int totalPages;
+  private long totalElements;
+  private int size;
+  private int page;
+  private boolean empty;
+  private Map<String, List<FacetCountDTO>> facets;
+}
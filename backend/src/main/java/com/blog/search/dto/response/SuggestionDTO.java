@@ -0,0 +1,20 @@
+package com.blog.search.dto.response;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+  private String text;
+  private Type type;
+
+  /** Number of published posts carrying this title or tag. */
+  private int weight;
+
+  public enum Type {
+    TITLE,
+    TAG
+  }
+}
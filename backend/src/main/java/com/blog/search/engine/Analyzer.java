@@ -0,0 +1,64 @@
+package com.blog.search.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns text into index terms: splits on anything that is not a letter or digit, lower-cases, drops
+ * English stop words and reduces words to their Porter stem. The same analysis is applied to
+ * documents and queries so both sides agree on terms.
+ */
+public class Analyzer {
+  private static final int MIN_TOKEN_LENGTH = 2;
+  private static final int MAX_TOKEN_LENGTH = 40;
+
+  private static final Set<String> STOP_WORDS =
+      Set.of(
+          ("a an and are as at be been but by can do for from had has have if in into is it its no"
+                  + " not of on or our so such than that the their then there these they this to"
+                  + " too very was we were will with you your")
+              .split(" "));
+
+  public List<String> analyze(String text) {
+    List<String> terms = new ArrayList<>();
+    if (text == null || text.isEmpty()) {
+      return terms;
+    }
+    PorterStemmer stemmer = new PorterStemmer();
+    int length = text.length();
+    int start = -1;
+    for (int i = 0; i <= length; i++) {
+      boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        addTerm(text.substring(start, i), stemmer, terms);
+        start = -1;
+      }
+    }
+    return terms;
+  }
+
+  private static void addTerm(String token, PorterStemmer stemmer, List<String> terms) {
+    if (token.length() < MIN_TOKEN_LENGTH || token.length() > MAX_TOKEN_LENGTH) {
+      return;
+    }
+    String word = token.toLowerCase(Locale.ROOT);
+    if (STOP_WORDS.contains(word)) {
+      return;
+    }
+    terms.add(isAsciiLetters(word) ? stemmer.stem(word) : word);
+  }
+
+  private static boolean isAsciiLetters(String word) {
+    for (int i = 0; i < word.length(); i++) {
+      char ch = word.charAt(i);
+      if (ch < 'a' || ch > 'z') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,201 @@
+package com.blog.search.engine;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of doc numbers in the spirit of roaring bitmaps. Numbers are grouped into chunks
+ * of 65536 by their high 16 bits; a chunk keeps its low bits in a sorted array while it has at most
+ * 4096 members and switches to a 1024-word bitmap beyond that, so both rare and very common facet
+ * values stay small. Doc numbers are handed out in increasing order, so members are only appended.
+ */
+final class DocBitmap {
+  private static final int ARRAY_CHUNK_MAX = 4096;
+
+  private char[] keys = new char[1];
+  private Chunk[] chunks = new Chunk[1];
+  private int size;
+
+  /** Appends {@code doc}, which must not be smaller than any member added before. */
+  void add(int doc) {
+    char high = (char) (doc >>> 16);
+    if (size == 0 || keys[size - 1] != high) {
+      if (size > 0 && keys[size - 1] > high) {
+        throw new IllegalArgumentException("Doc numbers must be added in ascending order: " + doc);
+      }
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+        chunks = Arrays.copyOf(chunks, size * 2);
+      }
+      keys[size] = high;
+      chunks[size] = new ArrayChunk();
+      size++;
+    }
+    chunks[size - 1] = chunks[size - 1].add((char) doc);
+  }
+
+  boolean contains(int doc) {
+    int i = Arrays.binarySearch(keys, 0, size, (char) (doc >>> 16));
+    return i >= 0 && chunks[i].contains((char) doc);
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int cardinality() {
+    int total = 0;
+    for (int i = 0; i < size; i++) {
+      total += chunks[i].cardinality();
+    }
+    return total;
+  }
+
+  /** Counts members whose bit is set in {@code words}, a plain bitmap indexed by doc number. */
+  int andCardinality(long[] words) {
+    int total = 0;
+    for (int i = 0; i < size; i++) {
+      total += chunks[i].andCardinality(words, keys[i] << 16);
+    }
+    return total;
+  }
+
+  void forEach(IntConsumer action) {
+    for (int i = 0; i < size; i++) {
+      chunks[i].forEach(keys[i] << 16, action);
+    }
+  }
+
+  /** Rewrites members through {@code remap}, dropping those mapped to {@code -1}. */
+  DocBitmap remap(int[] remap) {
+    DocBitmap remapped = new DocBitmap();
+    forEach(
+        doc -> {
+          int target = remap[doc];
+          if (target >= 0) {
+            remapped.add(target);
+          }
+        });
+    return remapped;
+  }
+
+  private static boolean isSet(long[] words, int doc) {
+    int word = doc >>> 6;
+    return word < words.length && (words[word] & (1L << doc)) != 0;
+  }
+
+  private interface Chunk {
+    /** Adds {@code low}, returning the chunk to keep (a bitmap once the array is full). */
+    Chunk add(char low);
+
+    boolean contains(char low);
+
+    int cardinality();
+
+    int andCardinality(long[] words, int base);
+
+    void forEach(int base, IntConsumer action);
+  }
+
+  private static final class ArrayChunk implements Chunk {
+    private char[] values = new char[4];
+    private int count;
+
+    @Override
+    public Chunk add(char low) {
+      if (count > 0 && values[count - 1] >= low) {
+        if (values[count - 1] == low) {
+          return this;
+        }
+        throw new IllegalArgumentException("Doc numbers must be added in ascending order");
+      }
+      if (count == ARRAY_CHUNK_MAX) {
+        BitmapChunk bitmap = new BitmapChunk();
+        for (int i = 0; i < count; i++) {
+          bitmap.add(values[i]);
+        }
+        return bitmap.add(low);
+      }
+      if (count == values.length) {
+        values = Arrays.copyOf(values, Math.min(count * 2, ARRAY_CHUNK_MAX));
+      }
+      values[count++] = low;
+      return this;
+    }
+
+    @Override
+    public boolean contains(char low) {
+      return Arrays.binarySearch(values, 0, count, low) >= 0;
+    }
+
+    @Override
+    public int cardinality() {
+      return count;
+    }
+
+    @Override
+    public int andCardinality(long[] words, int base) {
+      int total = 0;
+      for (int i = 0; i < count; i++) {
+        if (isSet(words, base | values[i])) {
+          total++;
+        }
+      }
+      return total;
+    }
+
+    @Override
+    public void forEach(int base, IntConsumer action) {
+      for (int i = 0; i < count; i++) {
+        action.accept(base | values[i]);
+      }
+    }
+  }
+
+  private static final class BitmapChunk implements Chunk {
+    private final long[] bits = new long[1024];
+    private int count;
+
+    @Override
+    public Chunk add(char low) {
+      long mask = 1L << low;
+      if ((bits[low >>> 6] & mask) == 0) {
+        bits[low >>> 6] |= mask;
+        count++;
+      }
+      return this;
+    }
+
+    @Override
+    public boolean contains(char low) {
+      return (bits[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override
+    public int cardinality() {
+      return count;
+    }
+
+    @Override
+    public int andCardinality(long[] words, int base) {
+      int offset = base >>> 6;
+      int end = Math.min(bits.length, words.length - offset);
+      int total = 0;
+      for (int i = 0; i < end; i++) {
+        total += Long.bitCount(bits[i] & words[offset + i]);
+      }
+      return total;
+    }
+
+    @Override
+    public void forEach(int base, IntConsumer action) {
+      for (int i = 0; i < bits.length; i++) {
+        long word = bits[i];
+        while (word != 0) {
+          action.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,4 @@
+package com.blog.search.engine;
+
+/** Number of matching posts carrying one value of a facet. */
+public record FacetCount(String value, long count) {}
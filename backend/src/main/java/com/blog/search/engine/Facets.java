@@ -0,0 +1,14 @@
+package com.blog.search.engine;
+
+import java.util.List;
+
+/** Names of the facets search results are counted by. */
+public final class Facets {
+  public static final String CATEGORY = "category";
+  public static final String TAG = "tag";
+  public static final String AUTHOR = "author";
+
+  public static final List<String> ALL = List.of(CATEGORY, TAG, AUTHOR);
+
+  private Facets() {}
+}
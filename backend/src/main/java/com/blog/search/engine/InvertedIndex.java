@@ -0,0 +1,440 @@
+package com.blog.search.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over posts ranked with Okapi BM25.
+ *
+ * <p>Each post gets an internal doc number; a term's postings list the doc numbers containing it
+ * together with a field-boosted term frequency (title weighs more than tags, excerpt and content).
+ * Updating a post appends a new doc number and tombstones the old one; tombstones are skipped while
+ * scoring and purged once they make up a quarter of the index.
+ *
+ * <p>Facet values (categories, tags, author) keep a {@link DocBitmap} of their docs. A query marks
+ * its hits in a plain bitmap while scoring, so filtering is a membership test per posting and each
+ * facet count is one AND-cardinality against that bitmap, all within the same pass.
+ *
+ * <p>Searches share a read lock and updates take the write lock, so the index can be queried while
+ * it is being updated incrementally. A full rebuild fills an {@link #emptyCopy()} on the side and
+ * swaps it in with {@link #replaceWith(InvertedIndex)}.
+ */
+public class InvertedIndex {
+  static final float TITLE_BOOST = 3.0f;
+  static final float TAGS_BOOST = 2.0f;
+  static final float CATEGORIES_BOOST = 1.5f;
+  static final float EXCERPT_BOOST = 1.5f;
+  static final float CONTENT_BOOST = 1.0f;
+
+  private static final double COMPACT_DELETED_RATIO = 0.25;
+  private static final int COMPACT_MIN_DOCS = 1024;
+  private static final int MAX_IDLE_ACCUMULATORS = Runtime.getRuntime().availableProcessors();
+
+  private final Analyzer analyzer;
+  private final float k1;
+  private final float b;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private Map<String, PostingList> postings = new HashMap<>();
+  private ArrayList<StoredDoc> docs = new ArrayList<>(); // by doc number, null once deleted
+  private Map<Long, Integer> docNumbers = new HashMap<>(); // post id -> live doc number
+  private Map<String, Map<String, DocBitmap>> facets = new HashMap<>(); // facet -> value
+  private double totalLength;
+  private int deleted;
+
+  // Accumulators are sized to the index, so only as many as can run at once are kept between
+  // queries; a burst beyond that allocates its own and leaves them to the garbage collector.
+  private final BlockingQueue<ScoreAccumulator> idleAccumulators =
+      new ArrayBlockingQueue<>(MAX_IDLE_ACCUMULATORS);
+
+  public InvertedIndex(Analyzer analyzer, float k1, float b) {
+    this.analyzer = analyzer;
+    this.k1 = k1;
+    this.b = b;
+  }
+
+  /** Adds the post, replacing any previously indexed version of it. */
+  public void upsert(SearchDocument document) {
+    upsertAll(List.of(document));
+  }
+
+  /** Adds or replaces all given posts under a single write lock. */
+  public void upsertAll(Collection<SearchDocument> documents) {
+    // Analysis is the expensive part and needs no lock.
+    List<AnalyzedDoc> analyzed = documents.stream().map(this::analyze).toList();
+    lock.writeLock().lock();
+    try {
+      for (AnalyzedDoc doc : analyzed) {
+        removeLocked(doc.stored().postId());
+        int docNumber = docs.size();
+        docs.add(doc.stored());
+        docNumbers.put(doc.stored().postId(), docNumber);
+        totalLength += doc.stored().length();
+        doc.termWeights()
+            .forEach(
+                (term, weight) ->
+                    postings.computeIfAbsent(term, t -> new PostingList()).add(docNumber, weight));
+        doc.facetValues()
+            .forEach(
+                (facet, values) -> {
+                  Map<String, DocBitmap> byValue =
+                      facets.computeIfAbsent(facet, f -> new HashMap<>());
+                  values.forEach(
+                      value -> byValue.computeIfAbsent(value, v -> new DocBitmap()).add(docNumber));
+                });
+      }
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes the post from the index.
+   *
+   * @return {@code true} if it was indexed
+   */
+  public boolean remove(long postId) {
+    lock.writeLock().lock();
+    try {
+      boolean removed = removeLocked(postId);
+      compactIfNeeded();
+      return removed;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** A new, empty index analyzing and scoring like this one. */
+  public InvertedIndex emptyCopy() {
+    return new InvertedIndex(analyzer, k1, b);
+  }
+
+  /**
+   * Replaces the contents of this index with those of {@code source} in one step, so searches see
+   * either the old or the new contents and never a partly built index. {@code source} is left
+   * empty.
+   */
+  public void replaceWith(InvertedIndex source) {
+    source.lock.writeLock().lock();
+    lock.writeLock().lock();
+    try {
+      postings = source.postings;
+      docs = source.docs;
+      docNumbers = source.docNumbers;
+      facets = source.facets;
+      totalLength = source.totalLength;
+      deleted = source.deleted;
+      source.postings = new HashMap<>();
+      source.docs = new ArrayList<>();
+      source.docNumbers = new HashMap<>();
+      source.facets = new HashMap<>();
+      source.totalLength = 0;
+      source.deleted = 0;
+    } finally {
+      lock.writeLock().unlock();
+      source.lock.writeLock().unlock();
+    }
+  }
+
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      postings.clear();
+      docs.clear();
+      docNumbers.clear();
+      facets.clear();
+      totalLength = 0;
+      deleted = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Number of indexed posts. */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return docNumbers.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Ranks posts matching any term of {@code query} by BM25 and returns hits {@code offset} to
+   * {@code offset + limit} of the ranking.
+   */
+  public SearchResult search(String query, int offset, int limit) {
+    return search(query, Map.of(), offset, limit, 0);
+  }
+
+  /**
+   * Like {@link #search(String, int, int)}, restricted to posts carrying every given facet value
+   * (see {@link Facets}), and additionally counting the {@code facetLimit} most common values of
+   * each facet among all matching posts.
+   */
+  public SearchResult search(
+      String query, Map<String, String> filters, int offset, int limit, int facetLimit) {
+    List<String> terms = new ArrayList<>(new LinkedHashSet<>(analyzer.analyze(query)));
+    if (terms.isEmpty() || limit <= 0) {
+      return new SearchResult(0, List.of());
+    }
+    ScoreAccumulator accumulator = idleAccumulators.poll();
+    if (accumulator == null) {
+      accumulator = new ScoreAccumulator();
+    }
+    lock.readLock().lock();
+    try {
+      int docCount = docNumbers.size();
+      List<DocBitmap> required = filterBitmaps(filters);
+      if (docCount == 0 || required == null) {
+        return new SearchResult(0, List.of());
+      }
+      double averageLength = totalLength / docCount;
+      accumulator.reset(docs.size());
+      for (String term : terms) {
+        PostingList postingList = postings.get(term);
+        if (postingList != null) {
+          score(postingList, required, docCount, averageLength, accumulator);
+        }
+      }
+      return new SearchResult(
+          accumulator.count,
+          topHits(accumulator, offset, limit),
+          facetLimit > 0 ? countFacets(accumulator, facetLimit) : Map.of());
+    } finally {
+      lock.readLock().unlock();
+      accumulator.clear();
+      idleAccumulators.offer(accumulator);
+    }
+  }
+
+  /** Bitmaps a hit must be in, or {@code null} when a filter value matches no post at all. */
+  private List<DocBitmap> filterBitmaps(Map<String, String> filters) {
+    List<DocBitmap> required = new ArrayList<>(filters.size());
+    for (Map.Entry<String, String> filter : filters.entrySet()) {
+      DocBitmap bitmap = facets.getOrDefault(filter.getKey(), Map.of()).get(filter.getValue());
+      if (bitmap == null) {
+        return null;
+      }
+      required.add(bitmap);
+    }
+    return required;
+  }
+
+  private Map<String, List<FacetCount>> countFacets(ScoreAccumulator accumulator, int facetLimit) {
+    Comparator<FacetCount> byCount =
+        Comparator.comparingLong(FacetCount::count).reversed().thenComparing(FacetCount::value);
+    Map<String, List<FacetCount>> counts = new HashMap<>();
+    for (String facet : Facets.ALL) {
+      // Smallest count at the head so it is evicted first.
+      PriorityQueue<FacetCount> top = new PriorityQueue<>(byCount.reversed());
+      facets
+          .getOrDefault(facet, Map.of())
+          .forEach(
+              (value, bitmap) -> {
+                int count = bitmap.andCardinality(accumulator.hits);
+                if (count > 0) {
+                  top.add(new FacetCount(value, count));
+                  if (top.size() > facetLimit) {
+                    top.poll();
+                  }
+                }
+              });
+      List<FacetCount> values = new ArrayList<>(top);
+      values.sort(byCount);
+      counts.put(facet, values);
+    }
+    return counts;
+  }
+
+  private void score(
+      PostingList postingList,
+      List<DocBitmap> required,
+      int docCount,
+      double averageLength,
+      ScoreAccumulator accumulator) {
+    // Postings may still count tombstoned docs; never let df exceed the live doc count.
+    int docFrequency = Math.min(postingList.size, docCount);
+    double idf = Math.log(1 + (docCount - docFrequency + 0.5) / (docFrequency + 0.5));
+    for (int i = 0; i < postingList.size; i++) {
+      int docNumber = postingList.docs[i];
+      StoredDoc doc = docs.get(docNumber);
+      if (doc == null || !matchesAll(required, docNumber)) {
+        continue;
+      }
+      float tf = postingList.weights[i];
+      double norm = k1 * (1 - b + b * doc.length() / averageLength);
+      accumulator.add(docNumber, (float) (idf * tf * (k1 + 1) / (tf + norm)));
+    }
+  }
+
+  private static boolean matchesAll(List<DocBitmap> required, int docNumber) {
+    for (DocBitmap bitmap : required) {
+      if (!bitmap.contains(docNumber)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private List<SearchHit> topHits(ScoreAccumulator accumulator, int offset, int limit) {
+    int window = offset + limit;
+    float[] scores = accumulator.scores;
+    // Lowest score (then oldest post) at the head so it is evicted first.
+    Comparator<Integer> byRank =
+        Comparator.<Integer>comparingDouble(doc -> scores[doc])
+            .thenComparingLong(doc -> docs.get(doc).postId());
+    PriorityQueue<Integer> top = new PriorityQueue<>(Math.min(window, 1024) + 1, byRank);
+    for (int i = 0; i < accumulator.count; i++) {
+      top.add(accumulator.touched[i]);
+      if (top.size() > window) {
+        top.poll();
+      }
+    }
+    List<Integer> ranked = new ArrayList<>(top);
+    ranked.sort(byRank.reversed());
+    if (offset >= ranked.size()) {
+      return List.of();
+    }
+    List<SearchHit> hits = new ArrayList<>(Math.min(limit, ranked.size() - offset));
+    for (int docNumber : ranked.subList(offset, ranked.size())) {
+      StoredDoc doc = docs.get(docNumber);
+      hits.add(
+          new SearchHit(doc.postId(), doc.title(), doc.slug(), doc.excerpt(), scores[docNumber]));
+    }
+    return hits;
+  }
+
+  private AnalyzedDoc analyze(SearchDocument document) {
+    Map<String, Float> termWeights = weigh(document);
+    float length = 0;
+    for (float weight : termWeights.values()) {
+      length += weight;
+    }
+    StoredDoc stored =
+        new StoredDoc(
+            document.postId(), document.title(), document.slug(), document.excerpt(), length);
+    return new AnalyzedDoc(stored, termWeights, facetValues(document));
+  }
+
+  private static Map<String, Set<String>> facetValues(SearchDocument document) {
+    Map<String, Set<String>> values = new HashMap<>();
+    values.put(Facets.CATEGORY, document.categories() == null ? Set.of() : document.categories());
+    values.put(Facets.TAG, document.tags() == null ? Set.of() : document.tags());
+    values.put(
+        Facets.AUTHOR,
+        document.authorUsername() == null ? Set.of() : Set.of(document.authorUsername()));
+    return values;
+  }
+
+  private Map<String, Float> weigh(SearchDocument document) {
+    Map<String, Float> weights = new HashMap<>();
+    addField(weights, document.title(), TITLE_BOOST);
+    if (document.tags() != null) {
+      addField(weights, String.join(" ", document.tags()), TAGS_BOOST);
+    }
+    if (document.categories() != null) {
+      addField(weights, String.join(" ", document.categories()), CATEGORIES_BOOST);
+    }
+    addField(weights, document.excerpt(), EXCERPT_BOOST);
+    addField(weights, document.content(), CONTENT_BOOST);
+    return weights;
+  }
+
+  private void addField(Map<String, Float> weights, String text, float boost) {
+    for (String term : analyzer.analyze(text)) {
+      weights.merge(term, boost, Float::sum);
+    }
+  }
+
+  private boolean removeLocked(long postId) {
+    Integer docNumber = docNumbers.remove(postId);
+    if (docNumber == null) {
+      return false;
+    }
+    StoredDoc doc = docs.set(docNumber, null);
+    totalLength -= doc.length();
+    deleted++;
+    return true;
+  }
+
+  /** Renumbers live docs densely and drops tombstones from every postings list. */
+  private void compactIfNeeded() {
+    if (docs.size() < COMPACT_MIN_DOCS || deleted < docs.size() * COMPACT_DELETED_RATIO) {
+      return;
+    }
+    int[] remap = new int[docs.size()];
+    List<StoredDoc> live = new ArrayList<>(docs.size() - deleted);
+    for (int i = 0; i < docs.size(); i++) {
+      StoredDoc doc = docs.get(i);
+      if (doc == null) {
+        remap[i] = -1;
+      } else {
+        remap[i] = live.size();
+        docNumbers.put(doc.postId(), live.size());
+        live.add(doc);
+      }
+    }
+    docs.clear();
+    docs.addAll(live);
+    postings.values().removeIf(postingList -> postingList.compact(remap) == 0);
+    for (Map<String, DocBitmap> byValue : facets.values()) {
+      byValue.replaceAll((value, bitmap) -> bitmap.remap(remap));
+      byValue.values().removeIf(DocBitmap::isEmpty);
+    }
+    deleted = 0;
+  }
+
+  private record StoredDoc(long postId, String title, String slug, String excerpt, float length) {}
+
+  private record AnalyzedDoc(
+      StoredDoc stored, Map<String, Float> termWeights, Map<String, Set<String>> facetValues) {}
+
+  /**
+   * Score table and hit bitmap sized to the doc count for one query at a time, cleared entry by
+   * entry after each query.
+   */
+  private static final class ScoreAccumulator {
+    private float[] scores = new float[0];
+    private int[] touched = new int[0];
+    private long[] hits = new long[0];
+    private int count;
+
+    void reset(int capacity) {
+      if (scores.length < capacity) {
+        scores = new float[capacity];
+        touched = new int[capacity];
+        hits = new long[(capacity + 63) >>> 6];
+      }
+      count = 0;
+    }
+
+    void add(int doc, float score) {
+      if (scores[doc] == 0f) {
+        touched[count++] = doc;
+        hits[doc >>> 6] |= 1L << doc;
+      }
+      scores[doc] += score;
+    }
+
+    void clear() {
+      for (int i = 0; i < count; i++) {
+        scores[touched[i]] = 0f;
+        hits[touched[i] >>> 6] = 0L;
+      }
+      count = 0;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.blog.search.engine;
+
+import java.util.Arrays;
+
+/** Doc numbers containing a term, in ascending order, with the term's boosted frequency. */
+final class PostingList {
+  int[] docs = new int[4];
+  float[] weights = new float[4];
+  int size;
+
+  void add(int doc, float weight) {
+    if (size == docs.length) {
+      docs = Arrays.copyOf(docs, size * 2);
+      weights = Arrays.copyOf(weights, size * 2);
+    }
+    docs[size] = doc;
+    weights[size] = weight;
+    size++;
+  }
+
+  /**
+   * Rewrites doc numbers through {@code remap}, dropping entries mapped to {@code -1}.
+   *
+   * @return the remaining size
+   */
+  int compact(int[] remap) {
+    int out = 0;
+    for (int i = 0; i < size; i++) {
+      int doc = remap[docs[i]];
+      if (doc >= 0) {
+        docs[out] = doc;
+        weights[out] = weights[i];
+        out++;
+      }
+    }
+    size = out;
+    return out;
+  }
+}
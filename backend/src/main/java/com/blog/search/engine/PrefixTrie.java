@@ -0,0 +1,350 @@
+package com.blog.search.engine;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Weighted radix trie answering "the {@code k} heaviest entries starting with this prefix".
+ *
+ * <p>Keys are normalized (lower case, single spaces) while the first display text seen for a key is
+ * kept for the response. Edges carry whole label runs, so a chain of single-child nodes collapses
+ * into one node, and every node caches the largest weight in its subtree. A query walks down to the
+ * prefix node and then expands best-first from a priority queue, which touches roughly {@code k}
+ * branches instead of the whole subtree.
+ *
+ * <p>Labels are stored as UTF-8, one byte per character for most text. The display text is not
+ * stored when it differs from the key only in the case of its first 63 characters; a bit mask of
+ * the upper-case positions is kept instead and the text is rebuilt from the key when an entry is
+ * returned. With 1M distinct titles of about 48 characters the trie takes about 150 bytes per
+ * title.
+ *
+ * <p>Weights are adjusted incrementally; an entry disappears when its weight drops to zero and the
+ * trie is re-compressed along the affected path. Callers can hold the {@link Node} of an entry
+ * instead of its text to adjust it later. Queries share a read lock and updates take the write
+ * lock.
+ */
+public class PrefixTrie {
+  private static final Node[] NO_CHILDREN = new Node[0];
+  private static final int MAX_KEY_LENGTH = 200;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Node root = new Node(new byte[0], null);
+  private int size;
+
+  /** Lower-cases, trims and collapses whitespace, the form keys and prefixes are matched in. */
+  public static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    String key = text.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+  }
+
+  /**
+   * Adds {@code delta} to the weight of {@code text}, creating the entry when it is new and
+   * removing it once its weight is no longer positive.
+   *
+   * @return the node of the entry, which callers can hold on to instead of the text; {@code null}
+   *     if there is no entry afterwards
+   */
+  public Node adjust(String text, int delta) {
+    String key = normalize(text);
+    if (key.isEmpty() || delta == 0) {
+      return null;
+    }
+    byte[] bytes = key.getBytes(UTF_8);
+    lock.writeLock().lock();
+    try {
+      Node node = delta > 0 ? insert(bytes) : find(bytes, false);
+      if (node == null) {
+        return null;
+      }
+      if (node.weight == 0) {
+        if (delta < 0) {
+          return null;
+        }
+        node.setDisplay(key, text.strip());
+        size++;
+      }
+      return adjustLocked(node, delta);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds {@code delta} to the weight of an entry returned by {@link #adjust(String, int)}. A node
+   * stays valid while its weight is positive; once the entry is gone this does nothing.
+   *
+   * @return the node, or {@code null} if there is no entry afterwards
+   */
+  public Node adjust(Node node, int delta) {
+    if (node == null || delta == 0) {
+      return null;
+    }
+    lock.writeLock().lock();
+    try {
+      return node.weight == 0 ? null : adjustLocked(node, delta);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Number of entries with a positive weight. */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Returns up to {@code limit} entries starting with {@code prefix}, heaviest first. */
+  public List<Completion> complete(String prefix, int limit) {
+    String normalized = normalize(prefix);
+    if (normalized.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    if (Character.isWhitespace(prefix.charAt(prefix.length() - 1))) {
+      normalized += " "; // the user finished a word, only complete what follows it
+    }
+    byte[] key = normalized.getBytes(UTF_8);
+    lock.readLock().lock();
+    try {
+      Node start = find(key, true);
+      return start == null ? List.of() : topK(start, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Returns the node whose path spells {@code key}, splitting an edge or adding a leaf for it. */
+  private Node insert(byte[] key) {
+    Node node = root;
+    int i = 0;
+    while (i < key.length) {
+      int slot = childSlot(node, key[i]);
+      if (slot < 0) {
+        Node leaf = new Node(Arrays.copyOfRange(key, i, key.length), node);
+        insertChild(node, -slot - 1, leaf);
+        return leaf;
+      }
+      Node child = node.children[slot];
+      int common = commonPrefix(child.label, key, i);
+      if (common < child.label.length) {
+        // Split the edge so the key ends at, or branches off from, a node of its own.
+        Node middle = new Node(Arrays.copyOf(child.label, common), node);
+        child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+        child.parent = middle;
+        middle.children = new Node[] {child};
+        middle.best = child.best;
+        node.children[slot] = middle;
+        child = middle;
+      }
+      node = child;
+      i += common;
+    }
+    return node;
+  }
+
+  /**
+   * Walks down along {@code key}. With {@code prefix} set, a key ending inside an edge yields the
+   * node below it; otherwise only a node whose path spells exactly {@code key} is returned.
+   */
+  private Node find(byte[] key, boolean prefix) {
+    Node node = root;
+    int i = 0;
+    while (i < key.length) {
+      int slot = childSlot(node, key[i]);
+      if (slot < 0) {
+        return null;
+      }
+      Node child = node.children[slot];
+      int common = commonPrefix(child.label, key, i);
+      if (prefix && i + common == key.length) {
+        return child; // prefix ends inside or at the end of this edge
+      }
+      if (common < child.label.length) {
+        return null;
+      }
+      node = child;
+      i += common;
+    }
+    return node;
+  }
+
+  private Node adjustLocked(Node node, int delta) {
+    node.weight = Math.max(0, node.weight + delta);
+    if (node.weight == 0) {
+      node.text = null;
+      node.upper = 0;
+      size--;
+    }
+
+    // Walk back up: refresh cached maxima, drop dead leaves and merge pass-through nodes.
+    for (Node current = node; current != root; ) {
+      Node parent = current.parent;
+      if (current.weight == 0 && current.children.length == 0) {
+        removeChild(parent, current);
+      } else if (current.weight == 0 && current.children.length == 1) {
+        Node only = current.children[0];
+        byte[] merged = Arrays.copyOf(current.label, current.label.length + only.label.length);
+        System.arraycopy(only.label, 0, merged, current.label.length, only.label.length);
+        only.label = merged;
+        only.parent = parent;
+        parent.children[childSlot(parent, merged[0])] = only;
+      } else {
+        current.refreshBest();
+      }
+      current = parent;
+    }
+    root.refreshBest();
+    return node.weight > 0 ? node : null;
+  }
+
+  private static List<Completion> topK(Node start, int limit) {
+    PriorityQueue<Candidate> queue = new PriorityQueue<>(Candidate.ORDER);
+    queue.add(new Candidate(start, start.best, null));
+    List<Completion> results = new ArrayList<>(limit);
+    while (!queue.isEmpty() && results.size() < limit) {
+      Candidate candidate = queue.poll();
+      Node node = candidate.node();
+      if (candidate.text() != null) {
+        results.add(new Completion(candidate.text(), node.weight));
+        continue;
+      }
+      if (node.weight > 0) {
+        queue.add(new Candidate(node, node.weight, node.display()));
+      }
+      for (Node child : node.children) {
+        queue.add(new Candidate(child, child.best, null));
+      }
+    }
+    return results;
+  }
+
+  private static int childSlot(Node node, byte first) {
+    int low = 0;
+    int high = node.children.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      byte b = node.children[mid].label[0];
+      if (b < first) {
+        low = mid + 1;
+      } else if (b > first) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private static void insertChild(Node parent, int at, Node child) {
+    Node[] children = new Node[parent.children.length + 1];
+    System.arraycopy(parent.children, 0, children, 0, at);
+    children[at] = child;
+    System.arraycopy(parent.children, at, children, at + 1, parent.children.length - at);
+    parent.children = children;
+  }
+
+  private static void removeChild(Node parent, Node child) {
+    int at = childSlot(parent, child.label[0]);
+    Node[] children =
+        parent.children.length == 1 ? NO_CHILDREN : new Node[parent.children.length - 1];
+    System.arraycopy(parent.children, 0, children, 0, at);
+    System.arraycopy(parent.children, at + 1, children, at, parent.children.length - at - 1);
+    parent.children = children;
+  }
+
+  private static int commonPrefix(byte[] label, byte[] key, int from) {
+    int max = Math.min(label.length, key.length - from);
+    int n = 0;
+    while (n < max && label[n] == key[from + n]) {
+      n++;
+    }
+    return n;
+  }
+
+  /** An entry returned by {@link #complete(String, int)}. */
+  public record Completion(String text, int weight) {}
+
+  /** A node of the trie, handed out by {@link #adjust(String, int)} as the handle of an entry. */
+  public static final class Node {
+    private byte[] label;
+    private Node parent;
+    private Node[] children = NO_CHILDREN; // sorted by first label byte
+    private String text; // display text when it cannot be rebuilt from the key and upper
+    private long upper; // positions of the key to upper-case for the display text
+    private int weight;
+    private int best; // largest weight in this subtree
+
+    private Node(byte[] label, Node parent) {
+      this.label = label;
+      this.parent = parent;
+    }
+
+    private void refreshBest() {
+      int max = weight;
+      for (Node child : children) {
+        max = Math.max(max, child.best);
+      }
+      best = max;
+    }
+
+    private void setDisplay(String key, String display) {
+      long mask = 0;
+      if (key.length() == display.length() && key.length() < Long.SIZE) {
+        for (int i = 0; i < key.length() && mask >= 0; i++) {
+          char k = key.charAt(i);
+          char d = display.charAt(i);
+          if (d != k) {
+            mask = Character.toUpperCase(k) == d ? mask | 1L << i : -1;
+          }
+        }
+      } else {
+        mask = -1;
+      }
+      text = mask < 0 ? display : null;
+      upper = Math.max(mask, 0);
+    }
+
+    private String display() {
+      if (text != null) {
+        return text;
+      }
+      int length = 0;
+      for (Node node = this; node != null; node = node.parent) {
+        length += node.label.length;
+      }
+      byte[] key = new byte[length];
+      for (Node node = this; node != null; node = node.parent) {
+        length -= node.label.length;
+        System.arraycopy(node.label, 0, key, length, node.label.length);
+      }
+      char[] chars = new String(key, UTF_8).toCharArray();
+      for (long bits = upper; bits != 0; bits &= bits - 1) {
+        int i = Long.numberOfTrailingZeros(bits);
+        chars[i] = Character.toUpperCase(chars[i]);
+      }
+      return new String(chars);
+    }
+  }
+
+  /** Queue entry: a subtree still to expand, or an entry ready to be emitted when it has text. */
+  private record Candidate(Node node, int priority, String text) {
+    static final Comparator<Candidate> ORDER =
+        Comparator.comparingInt(Candidate::priority)
+            .reversed()
+            .thenComparing(c -> c.text() != null, Comparator.reverseOrder())
+            .thenComparing(c -> c.text() != null ? c.text() : "");
+  }
+}
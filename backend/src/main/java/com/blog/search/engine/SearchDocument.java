@@ -0,0 +1,14 @@
+package com.blog.search.engine;
+
+import java.util.Set;
+
+/** Text of one post as seen by the index. */
+public record SearchDocument(
+    long postId,
+    String title,
+    String slug,
+    String excerpt,
+    String content,
+    String authorUsername,
+    Set<String> categories,
+    Set<String> tags) {}
@@ -0,0 +1,4 @@
+package com.blog.search.engine;
+
+/** A ranked match; carries the stored fields needed to render a result list without the DB. */
+public record SearchHit(long postId, String title, String slug, String excerpt, float score) {}
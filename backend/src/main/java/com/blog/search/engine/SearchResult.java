@@ -0,0 +1,16 @@
+package com.blog.search.engine;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One window of ranked hits, the number of documents matching at least one query term and, per
+ * facet, the most common values among all of them.
+ */
+public record SearchResult(
+    long totalHits, List<SearchHit> hits, Map<String, List<FacetCount>> facets) {
+
+  public SearchResult(long totalHits, List<SearchHit> hits) {
+    this(totalHits, hits, Map.of());
+  }
+}
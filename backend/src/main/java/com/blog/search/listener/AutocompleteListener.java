@@ -0,0 +1,74 @@
+package com.blog.search.listener;
+
+import com.blog.posts.catalog.PostCatalog;
+import com.blog.posts.event.PostCreated;
+import com.blog.posts.event.PostDeleted;
+import com.blog.posts.event.PostUpdated;
+import com.blog.search.service.AutocompleteService;
+import com.blog.sharedkernel.invalidation.CacheInvalidated;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps autocomplete suggestions in step with post changes, independent of the search mode,
+ * including changes made on other instances. Like {@link PostIndexListener} it re-reads the post,
+ * so redelivered events are harmless.
+ */
+@Component
+@Slf4j
+public class AutocompleteListener {
+  private final AutocompleteService autocompleteService;
+  private final PostCatalog postCatalog;
+
+  @Autowired
+  public AutocompleteListener(AutocompleteService autocompleteService, PostCatalog postCatalog) {
+    this.autocompleteService = autocompleteService;
+    this.postCatalog = postCatalog;
+  }
+
+  @ApplicationModuleListener
+  public void on(PostCreated event) {
+    refresh(event.postId());
+  }
+
+  @ApplicationModuleListener
+  public void on(PostUpdated event) {
+    refresh(event.postId());
+  }
+
+  @ApplicationModuleListener
+  public void on(PostDeleted event) {
+    log.debug("Removing suggestions of deleted post: {}", event.postId());
+    autocompleteService.removePost(event.postId());
+  }
+
+  /** Post changes made on other instances; each instance keeps its own suggestions. */
+  @EventListener
+  public void on(CacheInvalidated event) {
+    Long postId = event.longId(CacheKeys.POST);
+    if (postId != null) {
+      refresh(postId);
+    }
+  }
+
+  /** Notifications may have been missed, so any suggestion may be stale. */
+  @Async
+  @EventListener(condition = "#event.all()")
+  public void onMissedChanges(CacheInvalidated event) {
+    int posts = autocompleteService.rebuild();
+    log.info("Rebuilt autocomplete suggestions from {} posts after missed changes", posts);
+  }
+
+  private void refresh(Long postId) {
+    log.debug("Refreshing suggestions of post: {}", postId);
+    postCatalog
+        .findPublishedById(postId)
+        .ifPresentOrElse(
+            autocompleteService::indexPost, () -> autocompleteService.removePost(postId));
+  }
+}
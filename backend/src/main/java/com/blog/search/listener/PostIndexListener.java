@@ -0,0 +1,87 @@
+package com.blog.search.listener;
+
+import com.blog.posts.catalog.PostCatalog;
+import com.blog.posts.event.PostCreated;
+import com.blog.posts.event.PostDeleted;
+import com.blog.posts.event.PostUpdated;
+import com.blog.search.service.SearchService;
+import com.blog.sharedkernel.invalidation.CacheInvalidated;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the search index in step with post changes. Listeners run asynchronously after the posts
+ * transaction commits and are tracked by the event publication registry, so a publication that
+ * fails here is retried instead of being lost. Every handler re-reads the current state of the
+ * post, which makes redelivery and out-of-order delivery harmless.
+ */
+@Component
+@ConditionalOnProperty(
+    prefix = "search",
+    name = "mode",
+    havingValue = "memory",
+    matchIfMissing = true)
+@Slf4j
+public class PostIndexListener {
+  private final SearchService searchService;
+  private final PostCatalog postCatalog;
+
+  @Autowired
+  public PostIndexListener(SearchService searchService, PostCatalog postCatalog) {
+    this.searchService = searchService;
+    this.postCatalog = postCatalog;
+  }
+
+  @ApplicationModuleListener
+  public void on(PostCreated event) {
+    log.debug("Post created: {}", event.postId());
+    refresh(event.postId());
+  }
+
+  @ApplicationModuleListener
+  public void on(PostUpdated event) {
+    log.debug("Post updated: {}", event.postId());
+    refresh(event.postId());
+  }
+
+  @ApplicationModuleListener
+  public void on(PostDeleted event) {
+    log.debug("Post deleted: {}", event.postId());
+    searchService.removePost(event.postId());
+  }
+
+  /**
+   * Post changes made on other instances. Each instance keeps its own index, and the module events
+   * above only reach listeners of the instance that made the change.
+   */
+  @EventListener
+  public void on(CacheInvalidated event) {
+    Long postId = event.longId(CacheKeys.POST);
+    if (postId != null) {
+      refresh(postId);
+    }
+  }
+
+  /**
+   * Notifications may have been missed, for instance while the bus was reconnecting, so any post
+   * may be stale. Rebuilt off the bus thread, which would otherwise stop delivering meanwhile.
+   */
+  @Async
+  @EventListener(condition = "#event.all()")
+  public void onMissedChanges(CacheInvalidated event) {
+    int indexed = searchService.rebuildIndex();
+    log.info("Rebuilt search index with {} posts after missed changes", indexed);
+  }
+
+  private void refresh(Long postId) {
+    postCatalog
+        .findPublishedById(postId)
+        .ifPresentOrElse(searchService::indexPost, () -> searchService.removePost(postId));
+  }
+}
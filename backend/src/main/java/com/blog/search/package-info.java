@@ -1,3 +1,18 @@
-/** Module containing search functionality. */
+/**
+ * Module containing search functionality: an in-process full-text index over published posts.
+ *
+ * <p>This module reads posts only through the posts module API, follows post changes through the
+ * posts module events and depends on the sharedkernel module for common DTOs and exceptions.
+ */
 @org.springframework.modulith.NamedInterface("search")
+@ApplicationModule(
+    allowedDependencies = {
+      "posts::posts.catalog",
+      "posts::posts.event",
+      "sharedkernel::sharedkernel.exception",
+      "sharedkernel::sharedkernel.dto",
+      "sharedkernel::sharedkernel.invalidation"
+    })
 package com.blog.search;
+
+import org.springframework.modulith.ApplicationModule;
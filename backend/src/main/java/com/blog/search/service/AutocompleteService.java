@@ -0,0 +1,24 @@
+package com.blog.search.service;
+
+import com.blog.posts.catalog.PostDocument;
+import com.blog.search.dto.response.SuggestionDTO;
+import java.util.List;
+
+public interface AutocompleteService {
+
+  /** Get up to {@code limit} post titles and tag names starting with {@code prefix}. */
+  List<SuggestionDTO> suggest(String prefix, int limit);
+
+  /** Add a published post's title and tags, replacing what was recorded for it before. */
+  void indexPost(PostDocument post);
+
+  /** Forget a post's title and tags; unknown ids are ignored. */
+  void removePost(Long postId);
+
+  /**
+   * Drop all suggestions and reload them from every published post.
+   *
+   * @return the number of posts the suggestions were built from
+   */
+  int rebuild();
+}
@@ -0,0 +1,27 @@
+package com.blog.search.service;
+
+import com.blog.posts.catalog.PostDocument;
+import com.blog.search.dto.request.SearchFilterDTO;
+import com.blog.search.dto.response.SearchResponseDTO;
+
+public interface SearchService {
+
+  /**
+   * Get one page of published posts matching {@code query} and {@code filter}, best match first,
+   * together with category, tag and author counts over all matches.
+   */
+  SearchResponseDTO search(String query, SearchFilterDTO filter, int page, int size);
+
+  /** Add a post to the index or replace its indexed version. */
+  void indexPost(PostDocument post);
+
+  /** Remove a post from the index; unknown ids are ignored. */
+  void removePost(Long postId);
+
+  /**
+   * Drop the index and reload every published post from the posts module.
+   *
+   * @return the number of indexed posts
+   */
+  int rebuildIndex();
+}
@@ -0,0 +1,139 @@
+package com.blog.search.service.impl;
+
+import com.blog.posts.catalog.PostCatalog;
+import com.blog.posts.catalog.PostDocument;
+import com.blog.search.config.SearchProperties;
+import com.blog.search.dto.response.SuggestionDTO;
+import com.blog.search.engine.LongObjectMap;
+import com.blog.search.engine.PrefixTrie;
+import com.blog.search.service.AutocompleteService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Type-ahead over post titles and tag names, served from two {@link PrefixTrie}s. An entry's weight
+ * is the number of published posts carrying it, so widely used tags and recurring titles rank
+ * first. The trie nodes of the title and tags last recorded per post are kept to turn each change
+ * into weight deltas instead of a rebuild. A rebuild fills new tries on the side and swaps them in,
+ * so suggestions keep coming from the previous ones until it is done.
+ */
+@Service
+@Slf4j
+public class AutocompleteServiceImpl implements AutocompleteService {
+  private static final Comparator<SuggestionDTO> ORDER =
+      Comparator.comparingInt(SuggestionDTO::getWeight)
+          .reversed()
+          .thenComparing(SuggestionDTO::getType, Comparator.reverseOrder())
+          .thenComparing(SuggestionDTO::getText);
+
+  private volatile Suggestions suggestions = new Suggestions();
+  private final PostCatalog postCatalog;
+  private final SearchProperties searchProperties;
+
+  @Autowired
+  public AutocompleteServiceImpl(PostCatalog postCatalog, SearchProperties searchProperties) {
+    this.postCatalog = postCatalog;
+    this.searchProperties = searchProperties;
+  }
+
+  @Override
+  public List<SuggestionDTO> suggest(String prefix, int limit) {
+    Suggestions current = suggestions;
+    int max = Math.min(Math.max(limit, 1), searchProperties.getMaxSuggestions());
+    List<SuggestionDTO> results = new ArrayList<>(2 * max);
+    current.tags.complete(prefix, max).forEach(c -> results.add(toDto(c, SuggestionDTO.Type.TAG)));
+    current
+        .titles
+        .complete(prefix, max)
+        .forEach(c -> results.add(toDto(c, SuggestionDTO.Type.TITLE)));
+    results.sort(ORDER);
+    return results.size() > max ? results.subList(0, max) : results;
+  }
+
+  @Override
+  public synchronized void indexPost(PostDocument post) {
+    log.debug("Recording suggestions for post with id: {}", post.id());
+    suggestions.index(post);
+  }
+
+  @Override
+  public synchronized void removePost(Long postId) {
+    log.debug("Dropping suggestions for post with id: {}", postId);
+    suggestions.remove(postId);
+  }
+
+  /** Post events wait for the swap, so none is applied to tries about to be replaced. */
+  @Override
+  public synchronized int rebuild() {
+    log.info("Rebuilding autocomplete suggestions");
+    Suggestions rebuilt = new Suggestions();
+    long afterId = 0;
+    int batchSize = searchProperties.getRebuildBatchSize();
+    List<PostDocument> batch;
+    do {
+      batch = postCatalog.findPublishedAfter(afterId, batchSize);
+      batch.forEach(rebuilt::index);
+      if (!batch.isEmpty()) {
+        afterId = batch.get(batch.size() - 1).id();
+      }
+    } while (batch.size() == batchSize);
+    suggestions = rebuilt;
+    log.info(
+        "Autocomplete ready with {} titles and {} tags from {} posts",
+        rebuilt.titles.size(),
+        rebuilt.tags.size(),
+        rebuilt.entries.size());
+    return rebuilt.entries.size();
+  }
+
+  private static SuggestionDTO toDto(PrefixTrie.Completion completion, SuggestionDTO.Type type) {
+    return SuggestionDTO.builder()
+        .text(completion.text())
+        .type(type)
+        .weight(completion.weight())
+        .build();
+  }
+
+  /**
+   * One generation of the tries with the nodes recorded per post: the title first, then the tags.
+   * Tags of one post that differ only in case count separately, so each is kept.
+   */
+  private static final class Suggestions {
+    private final PrefixTrie titles = new PrefixTrie();
+    private final PrefixTrie tags = new PrefixTrie();
+    private final LongObjectMap<PrefixTrie.Node[]> entries = new LongObjectMap<>();
+
+    private void index(PostDocument post) {
+      remove(post.id());
+      int tagCount = post.tags() == null ? 0 : post.tags().size();
+      PrefixTrie.Node[] nodes = new PrefixTrie.Node[1 + tagCount];
+      int n = 0;
+      nodes[n++] = titles.adjust(post.title(), 1);
+      if (tagCount > 0) {
+        for (String tag : post.tags()) {
+          PrefixTrie.Node node = tags.adjust(tag, 1);
+          if (node != null) {
+            nodes[n++] = node;
+          }
+        }
+      }
+      entries.put(post.id(), n == nodes.length ? nodes : Arrays.copyOf(nodes, n));
+    }
+
+    private void remove(long postId) {
+      PrefixTrie.Node[] nodes = entries.remove(postId);
+      if (nodes == null) {
+        return;
+      }
+      titles.adjust(nodes[0], -1);
+      for (int i = 1; i < nodes.length; i++) {
+        tags.adjust(nodes[i], -1);
+      }
+    }
+  }
+}
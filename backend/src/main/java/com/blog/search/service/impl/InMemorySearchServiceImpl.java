@@ -0,0 +1,199 @@
+package com.blog.search.service.impl;
+
+import com.blog.posts.catalog.PostCatalog;
+import com.blog.posts.catalog.PostDocument;
+import com.blog.search.config.SearchProperties;
+import com.blog.search.dto.request.SearchFilterDTO;
+import com.blog.search.dto.response.FacetCountDTO;
+import com.blog.search.dto.response.SearchHitDTO;
+import com.blog.search.dto.response.SearchResponseDTO;
+import com.blog.search.engine.FacetCount;
+import com.blog.search.engine.Facets;
+import com.blog.search.engine.InvertedIndex;
+import com.blog.search.engine.SearchDocument;
+import com.blog.search.engine.SearchResult;
+import com.blog.search.service.SearchService;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/** Search backed by the in-process {@link InvertedIndex}; no database access on the query path. */
+@Service
+@ConditionalOnProperty(
+    prefix = "search",
+    name = "mode",
+    havingValue = "memory",
+    matchIfMissing = true)
+@Slf4j
+public class InMemorySearchServiceImpl implements SearchService {
+  private static final int MAX_QUERY_LENGTH = 256;
+
+  private final InvertedIndex postIndex;
+  private final PostCatalog postCatalog;
+  private final SearchProperties searchProperties;
+  // Posts changed while a rebuild reads the catalog; null when no rebuild is running.
+  private volatile Set<Long> changedDuringRebuild;
+
+  @Autowired
+  public InMemorySearchServiceImpl(
+      InvertedIndex postIndex, PostCatalog postCatalog, SearchProperties searchProperties) {
+    this.postIndex = postIndex;
+    this.postCatalog = postCatalog;
+    this.searchProperties = searchProperties;
+  }
+
+  @Override
+  public SearchResponseDTO search(String query, SearchFilterDTO filter, int page, int size) {
+    log.info("Search called");
+    int pageSize = Math.min(Math.max(size, 1), searchProperties.getMaxPageSize());
+    int pageNumber = Math.max(page, 0);
+    String text = query == null ? "" : query.strip();
+    if (text.length() > MAX_QUERY_LENGTH) {
+      text = text.substring(0, MAX_QUERY_LENGTH);
+    }
+    log.debug(
+        "Searching for: '{}' filter: {} page: {} size: {}", text, filter, pageNumber, pageSize);
+
+    long offset = (long) pageNumber * pageSize;
+    // Past the result window only the totals and facets are computed.
+    boolean inWindow = offset + pageSize <= searchProperties.getMaxResultWindow();
+    SearchResult result =
+        postIndex.search(
+            text,
+            toFacetFilters(filter),
+            inWindow ? (int) offset : 0,
+            inWindow ? pageSize : 1,
+            searchProperties.getMaxFacetValues());
+    List<SearchHitDTO> hits =
+        inWindow
+            ? result.hits().stream()
+                .map(
+                    hit ->
+                        SearchHitDTO.builder()
+                            .postId(hit.postId())
+                            .title(hit.title())
+                            .slug(hit.slug())
+                            .excerpt(hit.excerpt())
+                            .score(hit.score())
+                            .build())
+                .toList()
+            : List.of();
+    log.debug("Found {} hits for: '{}'", result.totalHits(), text);
+    return SearchResponseDTO.builder()
+        .content(hits)
+        .totalElements(result.totalHits())
+        .totalPages((int) ((result.totalHits() + pageSize - 1) / pageSize))
+        .size(pageSize)
+        .page(pageNumber)
+        .empty(hits.isEmpty())
+        .facets(toFacetDtos(result.facets()))
+        .build();
+  }
+
+  private static Map<String, String> toFacetFilters(SearchFilterDTO filter) {
+    Map<String, String> filters = new HashMap<>();
+    if (filter != null) {
+      putIfPresent(filters, Facets.CATEGORY, filter.getCategory());
+      putIfPresent(
+          filters, Facets.TAG, filter.getTag() == null ? null : filter.getTag().toLowerCase());
+      putIfPresent(filters, Facets.AUTHOR, filter.getAuthor());
+    }
+    return filters;
+  }
+
+  private static void putIfPresent(Map<String, String> filters, String facet, String value) {
+    if (value != null && !value.isBlank()) {
+      filters.put(facet, value.strip());
+    }
+  }
+
+  private static Map<String, List<FacetCountDTO>> toFacetDtos(
+      Map<String, List<FacetCount>> facets) {
+    Map<String, List<FacetCountDTO>> dtos = new LinkedHashMap<>();
+    for (String facet : Facets.ALL) {
+      dtos.put(
+          facet,
+          facets.getOrDefault(facet, List.of()).stream()
+              .map(f -> FacetCountDTO.builder().value(f.value()).count(f.count()).build())
+              .toList());
+    }
+    return dtos;
+  }
+
+  @Override
+  public void indexPost(PostDocument post) {
+    log.debug("Indexing post with id: {}", post.id());
+    postIndex.upsert(toSearchDocument(post));
+    recordChange(post.id());
+  }
+
+  @Override
+  public void removePost(Long postId) {
+    log.debug("Removing post with id: {} from index", postId);
+    postIndex.remove(postId);
+    recordChange(postId);
+  }
+
+  private void recordChange(Long postId) {
+    Set<Long> changed = changedDuringRebuild;
+    if (changed != null) {
+      changed.add(postId);
+    }
+  }
+
+  /**
+   * Builds a new index on the side while the current one keeps serving queries, then swaps it in.
+   * Posts indexed or removed meanwhile may have been read from the catalog before they changed, so
+   * they are read again once the new index is in place.
+   */
+  @Override
+  public synchronized int rebuildIndex() {
+    log.info("Rebuilding search index");
+    changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    InvertedIndex rebuilt = postIndex.emptyCopy();
+    Set<Long> changed;
+    try {
+      long afterId = 0;
+      int batchSize = searchProperties.getRebuildBatchSize();
+      List<PostDocument> batch;
+      do {
+        batch = postCatalog.findPublishedAfter(afterId, batchSize);
+        rebuilt.upsertAll(batch.stream().map(this::toSearchDocument).toList());
+        if (!batch.isEmpty()) {
+          afterId = batch.get(batch.size() - 1).id();
+        }
+      } while (batch.size() == batchSize);
+      postIndex.replaceWith(rebuilt);
+    } finally {
+      changed = changedDuringRebuild;
+      changedDuringRebuild = null;
+    }
+    for (Long postId : changed) {
+      postCatalog
+          .findPublishedById(postId)
+          .ifPresentOrElse(
+              post -> postIndex.upsert(toSearchDocument(post)), () -> postIndex.remove(postId));
+    }
+    log.info("Search index rebuilt with {} posts", postIndex.size());
+    return postIndex.size();
+  }
+
+  private SearchDocument toSearchDocument(PostDocument post) {
+    return new SearchDocument(
+        post.id(),
+        post.title(),
+        post.slug(),
+        post.excerpt(),
+        post.content(),
+        post.authorUsername(),
+        post.categories(),
+        post.tags());
+  }
+}
@@ -0,0 +1,261 @@
+package com.blog.search.service.impl;
+
+import com.blog.posts.catalog.PostDocument;
+import com.blog.search.config.SearchProperties;
+import com.blog.search.dto.request.SearchFilterDTO;
+import com.blog.search.dto.response.FacetCountDTO;
+import com.blog.search.dto.response.SearchHitDTO;
+import com.blog.search.dto.response.SearchResponseDTO;
+import com.blog.search.engine.Facets;
+import com.blog.search.service.SearchService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * Search backed by Postgres full-text search. The {@code posts} table carries a generated, weighted
+ * {@code tsvector} column (title A, excerpt B, content C) with a GIN index, so every node queries
+ * the same index and the database keeps it current on each write; there is nothing to rebuild or
+ * replicate.
+ *
+ * <p>Highlights come from {@code ts_headline} over the raw post text, with control characters
+ * marking the matches. The fragment is HTML-escaped afterwards and only then are the markers turned
+ * into {@code <b>} tags, so markup written in a post reaches clients as text.
+ */
+@Service
+@ConditionalOnProperty(prefix = "search", name = "mode", havingValue = "postgres")
+@Slf4j
+public class PostgresSearchServiceImpl implements SearchService {
+  private static final int MAX_QUERY_LENGTH = 256;
+  private static final String MATCH_START = "\u0001";
+  private static final String MATCH_STOP = "\u0002";
+  private static final String HEADLINE_OPTIONS =
+      "MaxFragments=2, MinWords=8, MaxWords=24, FragmentDelimiter=' ... ', StartSel=\""
+          + MATCH_START
+          + "\", StopSel=\""
+          + MATCH_STOP
+          + "\"";
+
+  private static final String MATCH =
+      """
+      from posts p
+      where p.search_vector @@ websearch_to_tsquery(cast(:config as regconfig), :query)
+        and p.published = true
+        and p.deleted = false
+        and (cast(:author as text) is null or p.author_username = :author)
+        and (cast(:category as text) is null or exists (
+          select 1 from post_categories pc join categories c on c.id = pc.category_id
+          where pc.post_id = p.id and c.name = :category))
+        and (cast(:tag as text) is null or exists (
+          select 1 from post_tags pt join tags t on t.id = pt.tag_id
+          where pt.post_id = p.id and t.name = :tag))
+      """;
+
+  // Rank and page on the index first; headlines are costly and only built for the page rows.
+  private static final String PAGE_QUERY =
+      """
+      select p.id, p.title, p.slug, p.excerpt, ranked.rank,
+             ts_headline(cast(:config as regconfig),
+                         translate(coalesce(p.excerpt, '') || ' ' || p.content,
+                                   chr(1) || chr(2), ''),
+                         websearch_to_tsquery(cast(:config as regconfig), :query),
+                         :headlineOptions) as highlight
+      from (
+        select p.id,
+               ts_rank_cd(p.search_vector,
+                          websearch_to_tsquery(cast(:config as regconfig), :query)) as rank
+      """
+          + MATCH
+          + """
+        order by rank desc, p.id desc
+        limit :limit offset :offset
+      ) ranked
+      join posts p on p.id = ranked.id
+      order by ranked.rank desc, p.id desc
+      """;
+
+  // Every post has exactly one author, so the author counts also add up to the total hit count.
+  private static final String FACET_QUERY =
+      """
+      with hits as (select p.id, p.author_username
+      """
+          + MATCH
+          + """
+      )
+      select 'author' as facet, h.author_username as value, count(*) as hits
+      from hits h group by h.author_username
+      union all
+      select 'category', c.name, count(*)
+      from hits h join post_categories pc on pc.post_id = h.id
+      join categories c on c.id = pc.category_id group by c.name
+      union all
+      select 'tag', t.name, count(*)
+      from hits h join post_tags pt on pt.post_id = h.id
+      join tags t on t.id = pt.tag_id group by t.name
+      """;
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final SearchProperties searchProperties;
+
+  @Autowired
+  public PostgresSearchServiceImpl(
+      NamedParameterJdbcTemplate jdbcTemplate, SearchProperties searchProperties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.searchProperties = searchProperties;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public SearchResponseDTO search(String query, SearchFilterDTO filter, int page, int size) {
+    log.info("Search called");
+    int pageSize = Math.min(Math.max(size, 1), searchProperties.getMaxPageSize());
+    int pageNumber = Math.max(page, 0);
+    String text = query == null ? "" : query.strip();
+    if (text.length() > MAX_QUERY_LENGTH) {
+      text = text.substring(0, MAX_QUERY_LENGTH);
+    }
+    log.debug(
+        "Searching for: '{}' filter: {} page: {} size: {}", text, filter, pageNumber, pageSize);
+
+    long offset = (long) pageNumber * pageSize;
+    long total = 0;
+    List<SearchHitDTO> hits = List.of();
+    Map<String, List<FacetCountDTO>> facets = new LinkedHashMap<>();
+    Facets.ALL.forEach(facet -> facets.put(facet, new ArrayList<>()));
+    if (!text.isEmpty()) {
+      SearchFilterDTO criteria = filter == null ? new SearchFilterDTO() : filter;
+      MapSqlParameterSource params =
+          new MapSqlParameterSource()
+              .addValue("config", searchProperties.getTextSearchConfig())
+              .addValue("query", text)
+              .addValue("author", blankToNull(criteria.getAuthor()))
+              .addValue("category", blankToNull(criteria.getCategory()))
+              .addValue(
+                  "tag",
+                  criteria.getTag() == null ? null : blankToNull(criteria.getTag().toLowerCase()))
+              .addValue("headlineOptions", HEADLINE_OPTIONS)
+              .addValue("limit", pageSize)
+              .addValue("offset", offset);
+      jdbcTemplate.query(
+          FACET_QUERY,
+          params,
+          rs -> {
+            facets
+                .get(rs.getString("facet"))
+                .add(
+                    FacetCountDTO.builder()
+                        .value(rs.getString("value"))
+                        .count(rs.getLong("hits"))
+                        .build());
+          });
+      total = facets.get(Facets.AUTHOR).stream().mapToLong(FacetCountDTO::getCount).sum();
+      facets.replaceAll((facet, counts) -> topValues(counts));
+      if (total > offset && offset + pageSize <= searchProperties.getMaxResultWindow()) {
+        hits =
+            jdbcTemplate.query(
+                PAGE_QUERY,
+                params,
+                (rs, rowNum) ->
+                    SearchHitDTO.builder()
+                        .postId(rs.getLong("id"))
+                        .title(rs.getString("title"))
+                        .slug(rs.getString("slug"))
+                        .excerpt(rs.getString("excerpt"))
+                        .score(rs.getFloat("rank"))
+                        .highlight(toHtml(rs.getString("highlight")))
+                        .build());
+      }
+    }
+    log.debug("Found {} hits for: '{}'", total, text);
+    return SearchResponseDTO.builder()
+        .content(hits)
+        .totalElements(total)
+        .totalPages((int) ((total + pageSize - 1) / pageSize))
+        .size(pageSize)
+        .page(pageNumber)
+        .empty(hits.isEmpty())
+        .facets(facets)
+        .build();
+  }
+
+  private List<FacetCountDTO> topValues(List<FacetCountDTO> counts) {
+    return counts.stream()
+        .sorted(
+            Comparator.comparingLong(FacetCountDTO::getCount)
+                .reversed()
+                .thenComparing(FacetCountDTO::getValue))
+        .limit(searchProperties.getMaxFacetValues())
+        .toList();
+  }
+
+  /** Escapes the fragment and turns the match markers into {@code <b>} tags. */
+  static String toHtml(String headline) {
+    if (headline == null) {
+      return null;
+    }
+    return HtmlUtils.htmlEscape(headline, "UTF-8")
+        .replace(MATCH_START, "<b>")
+        .replace(MATCH_STOP, "</b>");
+  }
+
+  private static String blankToNull(String value) {
+    return value == null || value.isBlank() ? null : value.strip();
+  }
+
+  /** No-op: the generated column is recomputed by Postgres whenever the row changes. */
+  @Override
+  public void indexPost(PostDocument post) {}
+
+  /** No-op: deleted and unpublished posts are filtered out by the query itself. */
+  @Override
+  public void removePost(Long postId) {}
+
+  /**
+   * Make sure the generated {@code search_vector} column and its GIN index exist (the schema is
+   * otherwise owned by Hibernate, which does not know about them) and report how many published
+   * posts are searchable.
+   */
+  @Override
+  @Transactional
+  public int rebuildIndex() {
+    String config = searchProperties.getTextSearchConfig();
+    log.info("Ensuring Postgres search column with text search config: {}", config);
+    jdbcTemplate.getJdbcTemplate().execute(searchVectorDdl(config));
+    jdbcTemplate
+        .getJdbcTemplate()
+        .execute(
+            "create index if not exists idx_posts_search_vector on posts using gin"
+                + " (search_vector)");
+    Integer count =
+        jdbcTemplate
+            .getJdbcTemplate()
+            .queryForObject(
+                "select count(*) from posts where published = true and deleted = false",
+                Integer.class);
+    return count == null ? 0 : count;
+  }
+
+  /**
+   * DDL for the weighted column. {@code config} is spliced in because a generated column needs a
+   * constant configuration; {@link SearchProperties} restricts it to a plain identifier.
+   */
+  static String searchVectorDdl(String config) {
+    String regconfig = "'" + config + "'::regconfig";
+    return "alter table posts add column if not exists search_vector tsvector generated always as ("
+        + ("setweight(to_tsvector(%1$s, coalesce(title, '')), 'A')"
+                + " || setweight(to_tsvector(%1$s, coalesce(excerpt, '')), 'B')"
+                + " || setweight(to_tsvector(%1$s, coalesce(content, '')), 'C')")
+            .formatted(regconfig)
+        + ") stored";
+  }
+}
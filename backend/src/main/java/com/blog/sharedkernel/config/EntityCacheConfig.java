@@ -0,0 +1,121 @@
+package com.blog.sharedkernel.config;
+
+import com.blog.sharedkernel.entity.CacheRegions;
+import com.blog.sharedkernel.invalidation.CacheInvalidated;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Hibernate second-level and query cache on Caffeine through JCache, enabled with {@code
+ * entityCache.enabled}. Every region is created up front with the bounds from {@link
+ * EntityCacheProperties}, so a region that an entity names but nobody configured fails the startup
+ * instead of silently growing without limit.
+ *
+ * <p>Statistics are switched on with the cache; Actuator publishes them as {@code
+ * hibernate.second.level.cache.*} and {@code hibernate.cache.query.*} metrics per region.
+ */
+@Configuration
+@EnableConfigurationProperties(EntityCacheProperties.class)
+@ConditionalOnProperty(prefix = "entity-cache", name = "enabled", havingValue = "true")
+@Slf4j
+public class EntityCacheConfig {
+  private static final List<String> REGIONS =
+      List.of(
+          CacheRegions.CATEGORY,
+          CacheRegions.TAG,
+          CacheRegions.USER,
+          CacheRegions.USER_BY_USERNAME,
+          RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+  // Looked up lazily: the entity manager factory is built with the properties customized here.
+  private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+  @Autowired
+  public EntityCacheConfig(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+    this.entityManagerFactory = entityManagerFactory;
+  }
+
+  @Bean(destroyMethod = "close")
+  public CacheManager entityCacheManager(EntityCacheProperties properties) {
+    // Our own manager: the provider's default one is shared by everything on the class loader.
+    CacheManager cacheManager =
+        Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(
+                URI.create("entity-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+    Set<String> regions = new LinkedHashSet<>(REGIONS);
+    regions.addAll(properties.getRegions().keySet());
+    for (String region : regions) {
+      EntityCacheProperties.Region bounds = properties.region(region);
+      CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+      configuration.setMaximumSize(OptionalLong.of(bounds.getMaxEntries()));
+      configuration.setExpireAfterWrite(OptionalLong.of(bounds.getTtl().toNanos()));
+      configuration.setStatisticsEnabled(true);
+      cacheManager.createCache(region, configuration);
+      log.info(
+          "Entity cache region {}: {} entries for {}",
+          region,
+          bounds.getMaxEntries(),
+          bounds.getTtl());
+    }
+    // Query results are checked against these timestamps; they must neither expire nor be evicted.
+    CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+    timestamps.setStatisticsEnabled(true);
+    cacheManager.createCache(
+        RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, timestamps);
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer entityCacheHibernateProperties(
+      CacheManager entityCacheManager) {
+    return hibernateProperties -> {
+      hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+      hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+      hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+      hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+      hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+    };
+  }
+
+  /**
+   * Drops regions changed on other instances; Hibernate keeps them in step with this instance's own
+   * writes.
+   */
+  @EventListener
+  public void on(CacheInvalidated event) {
+    Cache cache = entityManagerFactory.getObject().getCache().unwrap(Cache.class);
+    if (event.all()) {
+      cache.evictAllRegions();
+    } else if (event.id(CacheKeys.USER) != null) {
+      cache.evictRegion(CacheRegions.USER);
+      cache.evictQueryRegion(CacheRegions.USER_BY_USERNAME);
+    } else if (CacheKeys.TAXONOMY.equals(event.key())) {
+      cache.evictRegion(CacheRegions.CATEGORY);
+      cache.evictRegion(CacheRegions.TAG);
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.blog.sharedkernel.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "entity-cache")
+@Data
+public class EntityCacheProperties {
+  /** Keep categories, tags and users in the Hibernate second-level cache. */
+  private boolean enabled = false;
+
+  /** Bounds of each region by name; regions not listed here use {@link #defaultRegion}. */
+  @Valid private Map<String, Region> regions = new LinkedHashMap<>();
+
+  @Valid private Region defaultRegion = new Region();
+
+  @Data
+  public static class Region {
+    @Min(1)
+    private long maxEntries = 10_000;
+
+    /** Entries are dropped this long after they were written. */
+    private Duration ttl = Duration.ofMinutes(30);
+  }
+
+  public Region region(String name) {
+    return regions.getOrDefault(name, defaultRegion);
+  }
+}
@@ -1,6 +1,8 @@
 package com.blog.sharedkernel.config;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import java.time.Duration;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
@@ -15,4 +17,60 @@ public class IDPConfigProperties {
   @NotBlank private String realm;
   @NotBlank private String idpName;
   @NotBlank private String authorizationGrantType;
+
+  /** Users fetched per admin API call when listing the realm. */
+  @Min(1)
+  private int userPageSize = 500;
+
+  /** Admin API calls in flight while listing the realm. */
+  @Min(1)
+  private int syncThreads = 4;
+
+  /** Copy users from the IDP into the users table in the background. */
+  private boolean syncEnabled = true;
+
+  /** Pause between two synchronization passes. */
+  private Duration syncInterval = Duration.ofHours(1);
+
+  /** How long a pass may go without progress before another instance may take it over. */
+  private Duration syncLease = Duration.ofMinutes(10);
+
+  /** Time allowed to open a connection to the IDP. */
+  private Duration connectTimeout = Duration.ofSeconds(2);
+
+  /** Time allowed to wait for data on an open connection to the IDP. */
+  private Duration readTimeout = Duration.ofSeconds(10);
+
+  /** Admin API requests in flight at once; also the size of the connection pool. */
+  @Min(1)
+  private int maxConcurrentCalls = 16;
+
+  /** How long a request waits for a pooled connection before it is refused. */
+  private Duration bulkheadWait = Duration.ofMillis(500);
+
+  /** Consecutive failed requests, errors or 5xx responses, that make the client fail fast. */
+  @Min(1)
+  private int circuitBreakerFailureThreshold = 5;
+
+  /** How long the client fails fast before it lets a trial request through. */
+  private Duration circuitBreakerOpenDuration = Duration.ofSeconds(30);
+
+  /** How often the outbox of user changes for the IDP is checked for entries due for a retry. */
+  private Duration outboxPollInterval = Duration.ofSeconds(30);
+
+  /** Delay before the first retry of a failed outbox entry; doubled for every further attempt. */
+  private Duration outboxRetryDelay = Duration.ofSeconds(5);
+
+  private Duration outboxMaxRetryDelay = Duration.ofMinutes(10);
+
+  /** Attempts after which an outbox entry is marked as failed and no longer retried. */
+  @Min(1)
+  private int outboxMaxAttempts = 10;
+
+  /** Upper bound for the users, profile images included, held in the in-memory user directory. */
+  @Min(1)
+  private long userDirectoryMaxBytes = 32L * 1024 * 1024;
+
+  /** Safety net for changes made outside this application; events normally evict sooner. */
+  private Duration userDirectoryTtl = Duration.ofMinutes(30);
 }
@@ -0,0 +1,40 @@
+package com.blog.sharedkernel.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+
+/**
+ * Validators of a representation for conditional GETs: a strong ETag derived from everything the
+ * representation depends on, and the time it last changed. Both are computed from a few columns so
+ * that an unchanged resource can be answered with 304 before it is loaded and serialized.
+ */
+public record ContentVersion(String etag, LocalDateTime lastModified) {
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  /**
+   * Hashes the string forms of {@code parts} (FNV-1a, 64 bit) into a quoted ETag.
+   *
+   * @param lastModified latest change among the parts, {@code null} if unknown or if it can move
+   *     backwards, as for a set that members can leave; the ETag alone then validates
+   */
+  public static ContentVersion of(LocalDateTime lastModified, Collection<?> parts) {
+    long hash = FNV_OFFSET_BASIS;
+    for (Object part : parts) {
+      for (byte b : String.valueOf(part).getBytes(StandardCharsets.UTF_8)) {
+        hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+      }
+      hash = (hash ^ '|') * FNV_PRIME;
+    }
+    return new ContentVersion('"' + Long.toHexString(hash) + '"', lastModified);
+  }
+
+  /** Epoch milliseconds of {@link #lastModified}, or -1 if unknown, as Spring's checks expect. */
+  public long lastModifiedMillis() {
+    return lastModified == null
+        ? -1
+        : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+}
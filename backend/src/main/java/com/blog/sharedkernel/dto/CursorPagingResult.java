@@ -0,0 +1,19 @@
+package com.blog.sharedkernel.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Keyset (cursor) based page. Unlike {@link PagingResult} it carries no totals, so producing it
+ * never needs a {@code COUNT(*)} over the whole table; clients pass {@code nextCursor} back to
+ * fetch the following page.
+ */
+@Data
+@Builder
+public class CursorPagingResult<T> {
+  private List<T> content;
+  private int size;
+  private boolean hasNext;
+  private String nextCursor;
+}
@@ -10,6 +10,11 @@ import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+/**
+ * Common id and timestamps. Ids come from identity columns unless {@code META-INF/pooled-ids.xml}
+ * is added to {@code spring.jpa.mapping-resources}, which switches to the pooled {@code
+ * blog_id_seq} sequence.
+ */
 @MappedSuperclass
 @Getter
 @Setter
@@ -0,0 +1,16 @@
+package com.blog.sharedkernel.entity;
+
+/**
+ * Hibernate second-level cache regions. Entities name their region here so that each can be sized
+ * separately under {@code entityCache.regions}.
+ */
+public final class CacheRegions {
+  public static final String CATEGORY = "category";
+  public static final String TAG = "tag";
+  public static final String USER = "user";
+
+  /** Query cache region of {@code UserRepository.findByUsername}. */
+  public static final String USER_BY_USERNAME = "user-by-username";
+
+  private CacheRegions() {}
+}
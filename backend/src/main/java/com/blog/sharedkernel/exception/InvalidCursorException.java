@@ -0,0 +1,9 @@
+package com.blog.sharedkernel.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCursorException extends BaseException {
+  public InvalidCursorException(String cursor) {
+    super(HttpStatus.BAD_REQUEST, "INVALID_CURSOR", "Invalid cursor: '%s'", cursor);
+  }
+}
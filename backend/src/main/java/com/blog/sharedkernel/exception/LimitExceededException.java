@@ -0,0 +1,9 @@
+package com.blog.sharedkernel.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class LimitExceededException extends BaseException {
+  public LimitExceededException(String what, int limit) {
+    super(HttpStatus.BAD_REQUEST, "LIMIT_EXCEEDED", "At most %d %s can be requested", limit, what);
+  }
+}
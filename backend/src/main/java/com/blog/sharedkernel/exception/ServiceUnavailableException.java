@@ -0,0 +1,13 @@
+package com.blog.sharedkernel.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ServiceUnavailableException extends BaseException {
+  public ServiceUnavailableException(String what) {
+    super(
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "SERVICE_UNAVAILABLE",
+        "%s is temporarily unavailable, please retry",
+        what);
+  }
+}
@@ -0,0 +1,32 @@
+package com.blog.sharedkernel.invalidation;
+
+/**
+ * Raised on every instance except the publishing one when an entity changed elsewhere in the
+ * cluster. Delivered synchronously on the bus's receiving thread, outside of any transaction.
+ *
+ * @param key a key built with {@link CacheKeys}, or {@link CacheKeys#ALL} when notifications may
+ *     have been missed and every cache should be considered stale
+ */
+public record CacheInvalidated(String key) {
+
+  public boolean all() {
+    return CacheKeys.ALL.equals(key);
+  }
+
+  /** The id part of a {@code type:id} key of the given type, or {@code null} for other keys. */
+  public String id(String type) {
+    return key.length() > type.length() && key.startsWith(type) && key.charAt(type.length()) == ':'
+        ? key.substring(type.length() + 1)
+        : null;
+  }
+
+  /** Like {@link #id(String)} for types with numeric ids. */
+  public Long longId(String type) {
+    String id = id(type);
+    try {
+      return id == null ? null : Long.valueOf(id);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.blog.sharedkernel.invalidation;
+
+/** Keys published on the {@link InvalidationBus}. */
+public final class CacheKeys {
+  /** Everything may be stale. */
+  public static final String ALL = "*";
+
+  /** A post's own columns, categories or tags. */
+  public static final String POST = "post";
+
+  /** The comments of a post, keyed by post id. */
+  public static final String POST_COMMENTS = "post-comments";
+
+  /** The category and tag dictionaries. */
+  public static final String TAXONOMY = "taxonomy";
+
+  /** A user, keyed by username. */
+  public static final String USER = "user";
+
+  private CacheKeys() {}
+
+  public static String post(Long postId) {
+    return POST + ":" + postId;
+  }
+
+  public static String postComments(Long postId) {
+    return POST_COMMENTS + ":" + postId;
+  }
+
+  public static String user(String username) {
+    return USER + ":" + username;
+  }
+}
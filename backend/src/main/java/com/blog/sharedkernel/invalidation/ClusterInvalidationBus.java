@@ -0,0 +1,52 @@
+package com.blog.sharedkernel.invalidation;
+
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Base for buses that reach other instances through a shared transport. Each message carries the id
+ * of the sending instance so that an instance can recognise and skip its own messages when the
+ * transport echoes them back.
+ */
+@Slf4j
+public abstract class ClusterInvalidationBus implements InvalidationBus {
+  private final String nodeId = UUID.randomUUID().toString();
+  private final ApplicationEventPublisher events;
+
+  protected ClusterInvalidationBus(ApplicationEventPublisher events) {
+    this.events = events;
+  }
+
+  @Override
+  public void publish(String key) {
+    send(nodeId + " " + key);
+  }
+
+  /** Hands an encoded message to the transport. */
+  protected abstract void send(String message);
+
+  /** Decodes a message taken from the transport and raises it locally unless it is our own. */
+  protected void receive(String message) {
+    int separator = message.indexOf(' ');
+    if (separator < 0) {
+      log.warn("Ignoring malformed invalidation message: {}", message);
+      return;
+    }
+    if (separator == nodeId.length() && message.startsWith(nodeId)) {
+      return;
+    }
+    String key = message.substring(separator + 1);
+    log.debug("Invalidating {} changed on another instance", key);
+    raise(key);
+  }
+
+  /** Raises {@code key} locally, for instance {@link CacheKeys#ALL} after a lost connection. */
+  protected void raise(String key) {
+    try {
+      events.publishEvent(new CacheInvalidated(key));
+    } catch (RuntimeException e) {
+      log.error("Failed to invalidate {}", key, e);
+    }
+  }
+}
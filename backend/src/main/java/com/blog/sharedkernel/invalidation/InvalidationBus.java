@@ -0,0 +1,17 @@
+package com.blog.sharedkernel.invalidation;
+
+/**
+ * Broadcasts the keys of changed entities to the other instances of this application, which receive
+ * them as {@link CacheInvalidated} events and drop whatever they cache for those keys.
+ *
+ * <p>The publishing instance itself is not notified: its caches already follow the domain events
+ * raised by the change. Keys are built with {@link CacheKeys}.
+ */
+public interface InvalidationBus {
+
+  /**
+   * Announces a change to {@code key}. Inside a transaction the key is delivered only if and when
+   * the transaction commits.
+   */
+  void publish(String key);
+}
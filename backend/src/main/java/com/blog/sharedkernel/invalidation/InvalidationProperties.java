@@ -0,0 +1,23 @@
+package com.blog.sharedkernel.invalidation;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "invalidation")
+@Data
+public class InvalidationProperties {
+  /** {@code local} for a single instance, {@code postgres} to use LISTEN/NOTIFY. */
+  @NotNull private String transport = "local";
+
+  /** Notification channel shared by all instances; an unquoted Postgres identifier. */
+  @Pattern(regexp = "[a-z_][a-z0-9_]*")
+  private String channel = "blog_invalidation";
+
+  /** How long the listener waits before reconnecting after losing its connection. */
+  private Duration reconnectDelay = Duration.ofSeconds(5);
+}
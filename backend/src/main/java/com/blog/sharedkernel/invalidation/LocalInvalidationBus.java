@@ -0,0 +1,17 @@
+package com.blog.sharedkernel.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Bus for a single instance: there is nobody to tell. */
+@Component
+@ConditionalOnProperty(
+    prefix = "invalidation",
+    name = "transport",
+    havingValue = "local",
+    matchIfMissing = true)
+public class LocalInvalidationBus implements InvalidationBus {
+
+  @Override
+  public void publish(String key) {}
+}
@@ -0,0 +1,109 @@
+package com.blog.sharedkernel.invalidation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidation bus over Postgres {@code LISTEN/NOTIFY}, enabled with {@code
+ * invalidation.transport=postgres}.
+ *
+ * <p>Keys are sent with {@code pg_notify} on the caller's connection, so a key published inside a
+ * transaction is delivered exactly when that transaction commits, and not at all on rollback;
+ * Postgres also folds identical notifications of one transaction into one. Every instance keeps a
+ * dedicated connection, outside the pool, that listens on the channel. Notifications sent while
+ * that connection is down are lost, so after reconnecting the instance invalidates everything.
+ */
+@Component
+@ConditionalOnProperty(prefix = "invalidation", name = "transport", havingValue = "postgres")
+@Slf4j
+class PostgresInvalidationBus extends ClusterInvalidationBus {
+  private static final int POLL_MILLIS = 500;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DataSourceProperties dataSourceProperties;
+  private final InvalidationProperties properties;
+  private final Thread listener = new Thread(this::listen, "invalidation-listener");
+  private volatile boolean running = true;
+
+  @Autowired
+  PostgresInvalidationBus(
+      JdbcTemplate jdbcTemplate,
+      DataSourceProperties dataSourceProperties,
+      InvalidationProperties properties,
+      ApplicationEventPublisher events) {
+    super(events);
+    this.jdbcTemplate = jdbcTemplate;
+    this.dataSourceProperties = dataSourceProperties;
+    this.properties = properties;
+  }
+
+  @PostConstruct
+  void start() {
+    listener.setDaemon(true);
+    listener.start();
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    running = false;
+    listener.join(2L * POLL_MILLIS);
+  }
+
+  @Override
+  protected void send(String message) {
+    jdbcTemplate.queryForList("select pg_notify(?, ?)", properties.getChannel(), message);
+  }
+
+  private void listen() {
+    boolean reconnecting = false;
+    while (running) {
+      try (Connection connection =
+          DriverManager.getConnection(
+              dataSourceProperties.determineUrl(),
+              dataSourceProperties.determineUsername(),
+              dataSourceProperties.determinePassword())) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + properties.getChannel());
+        }
+        log.info("Listening for cache invalidations on {}", properties.getChannel());
+        if (reconnecting) {
+          raise(CacheKeys.ALL);
+        }
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              receive(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException e) {
+        log.warn("Invalidation listener lost its connection: {}", e.getMessage());
+        reconnecting = true;
+        pause();
+      }
+    }
+  }
+
+  private void pause() {
+    try {
+      Thread.sleep(properties.getReconnectDelay().toMillis());
+    } catch (InterruptedException e) {
+      running = false;
+    }
+  }
+}
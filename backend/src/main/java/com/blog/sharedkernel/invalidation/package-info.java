@@ -0,0 +1,5 @@
+/** Package containing the cache invalidation bus shared by all application instances. */
+@NamedInterface("sharedkernel.invalidation")
+package com.blog.sharedkernel.invalidation;
+
+import org.springframework.modulith.NamedInterface;
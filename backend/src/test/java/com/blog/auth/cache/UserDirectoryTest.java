@@ -0,0 +1,108 @@
+package com.blog.auth.cache;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.blog.auth.model.User;
+import com.blog.auth.repository.UserRepository;
+import com.blog.sharedkernel.invalidation.CacheInvalidated;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Optional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Resolving a user again, by any of its keys, does not reach the database. */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+@Import(UserDirectory.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserDirectoryTest {
+
+  @Autowired private UserDirectory userDirectory;
+  @MockitoSpyBean private UserRepository userRepository;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+  private User alice;
+
+  @BeforeEach
+  void setUp() {
+    userRepository.deleteAll();
+    userDirectory.evictAll();
+    alice = userRepository.save(user("alice"));
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void userIsReadOnceForAllKeys() {
+    assertThat(userDirectory.byUsername("alice")).get().extracting("id").isEqualTo(alice.getId());
+    assertThat(userDirectory.byId(alice.getId())).get().extracting("username").isEqualTo("alice");
+    assertThat(userDirectory.byKeycloakId("kc-alice"))
+        .get()
+        .extracting("username")
+        .isEqualTo("alice");
+    assertThat(userDirectory.byUsername("alice")).isPresent();
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  @Test
+  void invalidatedUserIsReadAgain() {
+    assertThat(userDirectory.byUsername("alice")).isPresent();
+    alice.setUsername("alicia");
+    userRepository.save(alice);
+
+    userDirectory.on(new CacheInvalidated(CacheKeys.user("alice")));
+
+    assertThat(userDirectory.byUsername("alice")).isEmpty();
+    assertThat(userDirectory.byId(alice.getId())).get().extracting("username").isEqualTo("alicia");
+    assertThat(userDirectory.byKeycloakId("kc-alice"))
+        .get()
+        .extracting("username")
+        .isEqualTo("alicia");
+  }
+
+  @Test
+  void userWrittenWhileBeingReadIsNotOverwritten() {
+    User written = user("alice");
+    written.setId(alice.getId());
+    written.setFirstName("Alicia");
+    Optional<User> read = userRepository.findByUsername("alice");
+    doAnswer(
+            call -> {
+              userDirectory.put(written);
+              return read;
+            })
+        .when(userRepository)
+        .findByUsername("alice");
+
+    assertThat(userDirectory.byUsername("alice")).get().extracting("firstName").isEqualTo("alice");
+    assertThat(userDirectory.byId(alice.getId())).get().extracting("firstName").isEqualTo("Alicia");
+  }
+
+  private static User user(String username) {
+    User user = new User();
+    user.setUsername(username);
+    user.setEmail(username + "@example.com");
+    user.setFirstName(username);
+    user.setLastName("Example");
+    user.setKeycloakId("kc-" + username);
+    user.setRole("USER");
+    user.setIsEnabled(true);
+    user.setIsEmailVerified(true);
+    return user;
+  }
+}
@@ -0,0 +1,187 @@
+package com.blog.auth.client;
+
+import static com.blog.support.KeycloakStubServer.respond;
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.sharedkernel.config.IDPConfigProperties;
+import com.blog.sharedkernel.exception.KeyCloakException;
+import com.blog.support.KeycloakStubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+
+/** Runs the admin client against a stub HTTP server standing in for Keycloak. */
+class KeycloakAdminClientConfigTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final TestClock clock = new TestClock();
+  private final AtomicInteger countCalls = new AtomicInteger();
+  private volatile KeycloakStubServer.Handler countHandler =
+      exchange -> respond(exchange, 200, "3");
+  private KeycloakStubServer server;
+  private IDPConfigProperties properties;
+  private Keycloak keycloak;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new KeycloakStubServer();
+    server.admin(
+        "/users/count",
+        exchange -> {
+          countCalls.incrementAndGet();
+          countHandler.handle(exchange);
+        });
+
+    properties = server.properties();
+    properties.setReadTimeout(Duration.ofMillis(300));
+    properties.setCircuitBreakerFailureThreshold(2);
+    properties.setCircuitBreakerOpenDuration(Duration.ofSeconds(30));
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (keycloak != null) {
+      keycloak.close();
+    }
+    server.close();
+  }
+
+  @Test
+  void circuitOpensAfterConsecutiveServerErrorsAndClosesAfterTrial() {
+    keycloak = KeycloakAdminClientConfig.keycloak(properties, meterRegistry, clock);
+    countHandler = exchange -> respond(exchange, 500, "");
+
+    for (int i = 0; i < 2; i++) {
+      assertThatThrownBy(this::countUsers).isNotInstanceOf(KeyCloakException.class);
+    }
+    assertThatThrownBy(this::countUsers).isInstanceOf(KeyCloakException.class);
+    assertThat(countCalls).hasValue(2);
+    assertThat(meterRegistry.get(KeycloakAdminClientConfig.CIRCUIT_BREAKER_METRIC).gauge().value())
+        .isEqualTo(1);
+
+    countHandler = exchange -> respond(exchange, 200, "3");
+    clock.advance(Duration.ofSeconds(31));
+    assertThat(countUsers()).isEqualTo(3);
+    assertThat(countUsers()).isEqualTo(3);
+
+    assertThat(countCalls).hasValue(4);
+    assertThat(meterRegistry.get(KeycloakAdminClientConfig.CIRCUIT_BREAKER_METRIC).gauge().value())
+        .isZero();
+    assertThat(timerCount("500", "SERVER_ERROR")).isEqualTo(2);
+    assertThat(timerCount("NONE", "CIRCUIT_OPEN")).isEqualTo(1);
+    assertThat(timerCount("200", "SUCCESSFUL")).isEqualTo(2);
+  }
+
+  @Test
+  void slowResponseTimesOut() {
+    keycloak = KeycloakAdminClientConfig.keycloak(properties, meterRegistry, clock);
+    countHandler =
+        exchange -> {
+          sleep(Duration.ofSeconds(2));
+          respond(exchange, 200, "3");
+        };
+
+    long start = System.nanoTime();
+    assertThatThrownBy(this::countUsers).isNotInstanceOf(KeyCloakException.class);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    assertThat(timerCount("IO_ERROR", "UNKNOWN")).isEqualTo(1);
+  }
+
+  @Test
+  void callsBeyondTheBulkheadAreRefused() throws Exception {
+    properties.setMaxConcurrentCalls(1);
+    properties.setBulkheadWait(Duration.ofMillis(50));
+    properties.setReadTimeout(Duration.ofSeconds(5));
+    keycloak = KeycloakAdminClientConfig.keycloak(properties, meterRegistry, clock);
+    // Fetch the token up front so that it does not take the only slot.
+    assertThat(countUsers()).isEqualTo(3);
+    CountDownLatch headersSent = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    // The call is still in flight while its body is being read.
+    countHandler =
+        exchange -> {
+          exchange.getResponseHeaders().add("Content-Type", "application/json");
+          exchange.sendResponseHeaders(200, 0);
+          exchange.getResponseBody().flush();
+          headersSent.countDown();
+          await(release);
+          try (var out = exchange.getResponseBody()) {
+            out.write('3');
+          }
+        };
+
+    CompletableFuture<Integer> slow = CompletableFuture.supplyAsync(this::countUsers);
+    assertThat(headersSent.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThatThrownBy(this::countUsers).isInstanceOf(KeyCloakException.class);
+    release.countDown();
+
+    assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo(3);
+    assertThat(countCalls).hasValue(2);
+    assertThat(timerCount("NONE", "REJECTED")).isEqualTo(1);
+  }
+
+  private Integer countUsers() {
+    return keycloak.realm(KeycloakStubServer.REALM).users().count();
+  }
+
+  private long timerCount(String status, String outcome) {
+    return meterRegistry
+        .get(GuardedHttpEngine.METRIC_NAME)
+        .tag("uri", "/users/count")
+        .tag("status", status)
+        .tag("outcome", outcome)
+        .timer()
+        .count();
+  }
+
+  private static void sleep(Duration duration) {
+    try {
+      Thread.sleep(duration.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static class TestClock extends Clock {
+    private volatile Instant now = Instant.now();
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.blog.auth.service.impl;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.blog.auth.model.IdpOutboxEntry;
+import com.blog.auth.model.IdpOutboxEntry.Operation;
+import com.blog.auth.repository.IdpOutboxRepository;
+import com.blog.auth.service.IDPClient;
+import com.blog.auth.service.IdpOutboxService;
+import com.blog.sharedkernel.exception.KeyCloakException;
+import jakarta.ws.rs.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "idp.outboxRetryDelay=PT0S",
+      "idp.outboxMaxAttempts=2"
+    })
+@Import({IdpOutboxServiceImpl.class, IdpOutboxServiceImplTest.Idp.class})
+// Entries are recorded and applied in separate transactions, as in production.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdpOutboxServiceImplTest {
+
+  @Autowired private IdpOutboxService idpOutboxService;
+  @Autowired private IdpOutboxRepository outboxRepository;
+  @Autowired private IDPClient idpClient;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @BeforeEach
+  void setUp() {
+    outboxRepository.deleteAll();
+    reset(idpClient);
+  }
+
+  @Test
+  void failedChangeIsRetriedBeforeLaterChangesToTheSameUser() {
+    doThrow(new KeyCloakException("disable", "enabled", "alice", HttpStatus.SERVICE_UNAVAILABLE))
+        .doNothing()
+        .when(idpClient)
+        .disableUser("kc-alice");
+    enqueue(Operation.DISABLE, "kc-alice", "alice");
+    enqueue(Operation.ENABLE, "kc-alice", "alice");
+    enqueue(Operation.DELETE, "kc-bob", "bob");
+
+    assertThat(idpOutboxService.dispatch()).isEqualTo(1);
+    verify(idpClient, never()).enableUser("kc-alice");
+    assertThat(outboxRepository.findAll())
+        .extracting(IdpOutboxEntry::getOperation, IdpOutboxEntry::getAttempts)
+        .containsExactly(tuple(Operation.DISABLE, 1), tuple(Operation.ENABLE, 0));
+
+    assertThat(idpOutboxService.dispatch()).isEqualTo(2);
+    InOrder inOrder = inOrder(idpClient);
+    inOrder.verify(idpClient, times(2)).disableUser("kc-alice");
+    inOrder.verify(idpClient).enableUser("kc-alice");
+    verify(idpClient).deleteUserById("kc-bob");
+    assertThat(outboxRepository.count()).isZero();
+  }
+
+  @Test
+  void entryIsParkedAfterTheLastAttempt() {
+    doThrow(new NotFoundException()).when(idpClient).enableUser("kc-gone");
+    doThrow(new KeyCloakException("disable", "enabled", "carol", HttpStatus.BAD_GATEWAY))
+        .when(idpClient)
+        .disableUser("kc-carol");
+    enqueue(Operation.ENABLE, "kc-gone", "gone");
+    enqueue(Operation.DISABLE, "kc-carol", "carol");
+
+    idpOutboxService.dispatch();
+    idpOutboxService.dispatch();
+    idpOutboxService.dispatch();
+
+    verify(idpClient).enableUser("kc-gone");
+    verify(idpClient, times(2)).disableUser("kc-carol");
+    assertThat(outboxRepository.findAll())
+        .extracting(IdpOutboxEntry::getUsername, IdpOutboxEntry::getStatus)
+        .containsExactlyInAnyOrder(
+            tuple("gone", IdpOutboxEntry.Status.FAILED),
+            tuple("carol", IdpOutboxEntry.Status.FAILED));
+  }
+
+  private void enqueue(Operation operation, String keycloakId, String username) {
+    transactionTemplate.executeWithoutResult(
+        status -> idpOutboxService.enqueue(operation, keycloakId, username));
+  }
+
+  @TestConfiguration
+  static class Idp {
+
+    @Bean("KeycloakClient")
+    IDPClient idpClient() {
+      return mock(IDPClient.class);
+    }
+
+    /** Dispatch only when the test asks for it. */
+    @Bean("applicationTaskExecutor")
+    TaskExecutor applicationTaskExecutor() {
+      return task -> {};
+    }
+  }
+}
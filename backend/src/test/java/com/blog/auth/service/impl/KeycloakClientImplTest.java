@@ -0,0 +1,140 @@
+package com.blog.auth.service.impl;
+
+import static com.blog.support.KeycloakStubServer.respond;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.blog.auth.cache.UserDirectory;
+import com.blog.auth.client.KeycloakAdminClientConfig;
+import com.blog.auth.constant.APIConstant;
+import com.blog.auth.dto.response.CreateUserResponse;
+import com.blog.auth.mapper.UserMapperImpl;
+import com.blog.sharedkernel.config.IDPConfigProperties;
+import com.blog.support.KeycloakStubServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+/** Lists a realm served by a stub Keycloak, two users or groups per page. */
+class KeycloakClientImplTest {
+  private static final List<String> USERS =
+      IntStream.rangeClosed(1, 5).mapToObj(i -> user("u" + i)).toList();
+
+  private KeycloakStubServer server;
+  private Keycloak keycloak;
+  private KeycloakClientImpl client;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new KeycloakStubServer();
+    server.admin("/users/count", exchange -> respond(exchange, 200, "5"));
+    server.admin("/users", paged(USERS));
+    // USER through the default roles, ADMIN through a composite role and a subgroup.
+    server.admin(
+        "/roles",
+        paged(
+            List.of(
+                role("ROOT", false),
+                role("ADMIN", false),
+                role("USER", false),
+                role("staff", true),
+                role("default-roles-test", true),
+                role("offline_access", false))));
+    server.admin("/roles/staff/composites/realm", paged(List.of(role("ADMIN", false))));
+    server.admin(
+        "/roles/default-roles-test/composites/realm",
+        paged(List.of(role("offline_access", false), role("USER", false))));
+    server.admin("/roles/ROOT/users", paged(List.of(user("u1"))));
+    server.admin("/roles/staff/users", paged(List.of(user("u2"))));
+    server.admin("/roles/default-roles-test/users", paged(List.of(user("u3"), user("u4"))));
+    server.admin("/roles/ADMIN/groups", paged(List.of(group("parent"))));
+    server.admin("/groups/parent/children", paged(List.of(group("child"))));
+    server.admin("/groups/child/members", paged(List.of(user("u4"))));
+    for (String empty :
+        List.of(
+            "/roles/ROOT/groups",
+            "/roles/ADMIN/users",
+            "/roles/USER/users",
+            "/roles/USER/groups",
+            "/roles/staff/groups",
+            "/roles/default-roles-test/groups",
+            "/groups/parent/members",
+            "/groups/child/children")) {
+      server.admin(empty, paged(List.of()));
+    }
+
+    IDPConfigProperties properties = server.properties();
+    properties.setUserPageSize(2);
+    keycloak =
+        new KeycloakAdminClientConfig()
+            .keycloakAdminClient(
+                properties, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    client =
+        new KeycloakClientImpl(
+            new UserMapperImpl(), properties, mock(UserDirectory.class), keycloak);
+  }
+
+  @AfterEach
+  void tearDown() {
+    keycloak.close();
+    server.close();
+  }
+
+  @Test
+  void rolesThroughCompositesAndGroupsAreResolvedInBulk() {
+    Map<String, String> expected =
+        Map.of(
+            "u1", APIConstant.ROLE_ROOT,
+            "u2", APIConstant.ROLE_ADMIN,
+            "u3", APIConstant.ROLE_USER,
+            "u4", APIConstant.ROLE_ADMIN);
+
+    assertThat(client.getUserRoles()).isEqualTo(expected);
+    assertThat(roles(client.getAllUsers()))
+        .containsAllEntriesOf(expected)
+        .containsEntry("u5", APIConstant.ROLE_NOT_FOUND)
+        .hasSize(5);
+    assertThat(roles(client.getUsers(2, 2, expected)))
+        .containsExactlyInAnyOrderEntriesOf(
+            Map.of("u3", APIConstant.ROLE_USER, "u4", APIConstant.ROLE_ADMIN));
+
+    assertThat(server.requests()).noneMatch(path -> path.contains("role-mappings"));
+  }
+
+  private static Map<String, String> roles(List<CreateUserResponse> users) {
+    return users.stream()
+        .collect(Collectors.toMap(CreateUserResponse::getKeycloakId, CreateUserResponse::getRole));
+  }
+
+  /** JSON array of the items the request's {@code first} and {@code max} select. */
+  private static KeycloakStubServer.Handler paged(List<String> items) {
+    return exchange -> {
+      Map<String, String> query = KeycloakStubServer.query(exchange);
+      int first = Math.min(Integer.parseInt(query.getOrDefault("first", "0")), items.size());
+      int max = Integer.parseInt(query.getOrDefault("max", String.valueOf(items.size())));
+      List<String> page = items.subList(first, Math.min(first + max, items.size()));
+      respond(exchange, 200, "[" + String.join(",", page) + "]");
+    };
+  }
+
+  private static String user(String id) {
+    return "{\"id\":\"%s\",\"username\":\"user-%s\",\"enabled\":true,\"emailVerified\":true}"
+        .formatted(id, id);
+  }
+
+  private static String role(String name, boolean composite) {
+    return "{\"name\":\"%s\",\"composite\":%s}".formatted(name, composite);
+  }
+
+  private static String group(String id) {
+    return "{\"id\":\"%s\",\"name\":\"%s\"}".formatted(id, id);
+  }
+}
@@ -0,0 +1,220 @@
+package com.blog.auth.service.impl;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.blog.auth.cache.UserDirectory;
+import com.blog.auth.dto.response.CreateUserResponse;
+import com.blog.auth.mapper.UserMapperImpl;
+import com.blog.auth.model.User;
+import com.blog.auth.repository.IdpOutboxRepository;
+import com.blog.auth.repository.UserRepository;
+import com.blog.auth.repository.UserSyncStateRepository;
+import com.blog.auth.repository.UserTombstoneRepository;
+import com.blog.auth.service.AdminService;
+import com.blog.auth.service.IDPClient;
+import com.blog.auth.service.IdpOutboxService;
+import com.blog.auth.service.UserSyncService;
+import com.blog.sharedkernel.exception.KeyCloakException;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.blog.sharedkernel.invalidation.InvalidationBus;
+import com.blog.sharedkernel.invalidation.LocalInvalidationBus;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "idp.userPageSize=2"
+    })
+@Import({
+  UserSyncServiceImpl.class,
+  AdminServiceImpl.class,
+  IdpOutboxServiceImpl.class,
+  UserDirectory.class,
+  UserMapperImpl.class,
+  LocalInvalidationBus.class,
+  UserSyncServiceImplTest.Idp.class
+})
+// Every page commits on its own, as in production.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserSyncServiceImplTest {
+  private static final List<CreateUserResponse> REALM =
+      IntStream.range(0, 5).mapToObj(i -> idpUser("user" + i, "First " + i)).toList();
+
+  @Autowired private UserSyncService userSyncService;
+  @Autowired private UserRepository userRepository;
+  @Autowired private UserSyncStateRepository stateRepository;
+  @Autowired private IdpOutboxRepository outboxRepository;
+  @Autowired private UserTombstoneRepository tombstoneRepository;
+  @Autowired private AdminService adminService;
+  @Autowired private IdpOutboxService idpOutboxService;
+
+  @Autowired
+  @Qualifier("KeycloakClient")
+  private IDPClient idpClient;
+
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private UserDirectory userDirectory;
+  @MockitoSpyBean private InvalidationBus invalidationBus;
+  @MockitoBean private KeycloakClientImpl keycloakClient;
+
+  @BeforeEach
+  void setUp() {
+    userRepository.deleteAll();
+    userDirectory.evictAll();
+    stateRepository.deleteAll();
+    outboxRepository.deleteAll();
+    tombstoneRepository.deleteAll();
+    stubRealm();
+  }
+
+  private void stubRealm() {
+    reset(idpClient);
+    when(idpClient.getIDPName()).thenReturn("keycloak");
+    when(idpClient.getUserRoles()).thenReturn(Map.of());
+    when(idpClient.getUsers(anyInt(), anyInt(), anyMap()))
+        .thenAnswer(
+            call -> {
+              int first = call.getArgument(0);
+              int max = call.getArgument(1);
+              return REALM.subList(
+                  Math.min(first, REALM.size()), Math.min(first + max, REALM.size()));
+            });
+  }
+
+  @Test
+  void interruptedPassResumesAfterLastAppliedPage() {
+    User stale = new UserMapperImpl().toUser(idpUser("user3", "Old name"));
+    userRepository.save(stale);
+    when(idpClient.getUsers(eq(2), anyInt(), anyMap()))
+        .thenThrow(
+            new KeyCloakException("list", "users", "keycloak", HttpStatus.SERVICE_UNAVAILABLE));
+
+    assertThatThrownBy(userSyncService::syncUsers).isInstanceOf(KeyCloakException.class);
+    assertThat(stateRepository.findById("keycloak").orElseThrow().getNextOffset()).isEqualTo(2);
+    assertThat(userRepository.count()).isEqualTo(3);
+
+    stubRealm();
+    assertThat(userSyncService.syncUsers()).isTrue();
+
+    verify(idpClient, never()).getUsers(eq(0), anyInt(), anyMap());
+    assertThat(userRepository.findAll())
+        .extracting(User::getUsername)
+        .containsExactlyInAnyOrder("user0", "user1", "user2", "user3", "user4");
+    assertThat(userRepository.findByUsername("user3").orElseThrow().getFirstName())
+        .isEqualTo("First 3");
+    assertThat(stateRepository.findById("keycloak").orElseThrow())
+        .satisfies(
+            state -> {
+              assertThat(state.getNextOffset()).isZero();
+              assertThat(state.getLastCompletedAt()).isNotNull();
+              assertThat(state.getLeaseOwner()).isNull();
+            });
+  }
+
+  @Test
+  void usersWithPendingOutboxChangesAreNotOverwritten() {
+    assertThat(userSyncService.syncUsers()).isTrue();
+    // An admin deletes user1 and disables user2; Keycloak has not applied either yet.
+    SecurityContextHolder.getContext()
+        .setAuthentication(new TestingAuthenticationToken("admin", null));
+    try {
+      adminService.deleteUser("user1");
+      adminService.disableUser(userRepository.findByUsername("user2").orElseThrow().getId());
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+    assertThat(tombstoneRepository.findById("kc-user1")).get().extracting("appliedAt").isNull();
+
+    assertThat(userSyncService.syncUsers()).isTrue();
+
+    assertThat(userRepository.existsByUsername("user1")).isFalse();
+    assertThat(userRepository.findByUsername("user2").orElseThrow().getIsEnabled()).isFalse();
+
+    // The outbox applies both, but the next pass lists the realm as it was before the delete.
+    assertThat(idpOutboxService.dispatch()).isEqualTo(2);
+    verify(idpClient).deleteUserById("kc-user1");
+    assertThat(outboxRepository.count()).isZero();
+    assertThat(tombstoneRepository.findById("kc-user1")).get().extracting("appliedAt").isNotNull();
+    assertThat(userSyncService.syncUsers()).isTrue();
+
+    assertThat(userRepository.existsByUsername("user1")).isFalse();
+    assertThat(tombstoneRepository.count()).isZero();
+  }
+
+  @Test
+  void renamedUserIsEvictedUnderTheOldName() {
+    assertThat(userSyncService.syncUsers()).isTrue();
+    Long id = userDirectory.byUsername("user0").orElseThrow().id();
+    CreateUserResponse renamed = idpUser("user0", "First 0");
+    renamed.setUsername("user0-renamed");
+    when(idpClient.getUsers(eq(0), anyInt(), anyMap())).thenReturn(List.of(renamed));
+    clearInvocations(invalidationBus);
+
+    assertThat(userSyncService.syncUsers()).isTrue();
+
+    verify(invalidationBus).publish(CacheKeys.user("user0"));
+    verify(invalidationBus).publish(CacheKeys.user("user0-renamed"));
+    assertThat(userDirectory.byUsername("user0")).isEmpty();
+    assertThat(userDirectory.byId(id)).get().extracting("username").isEqualTo("user0-renamed");
+  }
+
+  @Test
+  void passIsSkippedWhileAnotherInstanceHoldsTheLease() {
+    assertThat(userSyncService.syncUsers()).isTrue();
+    LocalDateTime now = LocalDateTime.now();
+    transactionTemplate.executeWithoutResult(
+        status -> stateRepository.claim("keycloak", "other-instance", now, now.plusMinutes(5)));
+
+    assertThat(userSyncService.syncUsers()).isFalse();
+  }
+
+  private static CreateUserResponse idpUser(String username, String firstName) {
+    return CreateUserResponse.builder()
+        .keycloakId("kc-" + username)
+        .username(username)
+        .email(username + "@example.com")
+        .firstName(firstName)
+        .lastName("Example")
+        .role("USER")
+        .isEnabled(true)
+        .isEmailVerified(true)
+        .build();
+  }
+
+  @TestConfiguration
+  static class Idp {
+
+    @Bean("KeycloakClient")
+    IDPClient idpClient() {
+      return mock(IDPClient.class);
+    }
+
+    /** Dispatch only when the test asks for it. */
+    @Bean("applicationTaskExecutor")
+    TaskExecutor applicationTaskExecutor() {
+      return task -> {};
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package com.blog.comments.controller;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.blog.comments.config.CommentConfig;
+import com.blog.comments.dto.request.CreateCommentDTO;
+import com.blog.comments.mapper.CommentMapperImpl;
+import com.blog.comments.repository.CommentRepository;
+import com.blog.comments.service.CommentService;
+import com.blog.comments.service.impl.CommentServiceImpl;
+import com.blog.comments.stream.CommentStreamHub;
+import com.blog.sharedkernel.exception.GlobalExceptionHandler;
+import com.blog.sharedkernel.invalidation.LocalInvalidationBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Serves bulk comment counts through the controller, with writes committing for real. */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "comments.maxBulkCountPosts=3"
+    })
+@Import({
+  CommentServiceImpl.class,
+  CommentMapperImpl.class,
+  CommentConfig.class,
+  LocalInvalidationBus.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CommentCountsControllerTest {
+
+  @Autowired private CommentService commentService;
+  @Autowired private CommentRepository commentRepository;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc =
+        MockMvcBuilders.standaloneSetup(
+                new CommentController(commentService, mock(CommentStreamHub.class)))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    commentRepository.deleteAll();
+  }
+
+  @Test
+  void postsWithoutCommentsCountZero() throws Exception {
+    create(1L);
+    create(1L);
+    create(2L);
+
+    mockMvc
+        .perform(get("/v1/api/comment/post/counts").param("postIds", "1,2,3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.1").value(2))
+        .andExpect(jsonPath("$.2").value(1))
+        .andExpect(jsonPath("$.3").value(0));
+  }
+
+  @Test
+  void tooManyPostIdsAreRejected() throws Exception {
+    mockMvc
+        .perform(get("/v1/api/comment/post/counts").param("postIds", "1,2,3,4"))
+        .andExpect(status().isBadRequest());
+    // Repeated ids count once.
+    mockMvc
+        .perform(get("/v1/api/comment/post/counts").param("postIds", "1,2,3,3"))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  void cachedCountIsEvictedOnceACommentCommits() throws Exception {
+    mockMvc
+        .perform(get("/v1/api/comment/post/counts").param("postIds", "5"))
+        .andExpect(jsonPath("$.5").value(0));
+
+    create(5L);
+
+    // Well within the cache TTL, so only the eviction explains the new count.
+    mockMvc
+        .perform(get("/v1/api/comment/post/counts").param("postIds", "5"))
+        .andExpect(jsonPath("$.5").value(1));
+  }
+
+  private void create(Long postId) {
+    commentService.createComment(
+        CreateCommentDTO.builder()
+            .postId(postId)
+            .comment("hello")
+            .authorUserName("reader")
+            .build());
+  }
+}
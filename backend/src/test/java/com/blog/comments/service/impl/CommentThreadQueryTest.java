@@ -0,0 +1,152 @@
+package com.blog.comments.service.impl;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.comments.config.CommentConfig;
+import com.blog.comments.dto.request.CreateCommentDTO;
+import com.blog.comments.dto.response.CommentThreadDTO;
+import com.blog.comments.dto.response.ResponseCommentDTO;
+import com.blog.comments.mapper.CommentMapperImpl;
+import com.blog.comments.service.CommentService;
+import com.blog.sharedkernel.dto.CursorPagingResult;
+import com.blog.sharedkernel.invalidation.LocalInvalidationBus;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Verifies threaded comment pages and their constant statement count. */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+@Import({
+  CommentServiceImpl.class,
+  CommentMapperImpl.class,
+  CommentConfig.class,
+  LocalInvalidationBus.class
+})
+class CommentThreadQueryTest {
+  private static final long POST_ID = 7L;
+
+  @Autowired private CommentService commentService;
+  @Autowired private EntityManager entityManager;
+
+  private final List<Long> roots = new ArrayList<>();
+  private Long firstReply;
+
+  @BeforeEach
+  void setUp() {
+    for (int i = 0; i < 12; i++) {
+      roots.add(create("root " + i, null));
+    }
+    // The newest root gets a nested thread: r1 (r1a, r1b), r2, r3, r4.
+    Long newest = roots.get(roots.size() - 1);
+    firstReply = create("r1", newest);
+    create("r1a", firstReply);
+    create("r1b", firstReply);
+    create("r2", newest);
+    create("r3", newest);
+    create("r4", newest);
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void pageOfThreadsWithFirstRepliesUsesConstantStatements() {
+    Statistics statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    CursorPagingResult<CommentThreadDTO> page =
+        commentService.getCommentThreads(POST_ID, null, 10, 3);
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    assertThat(page.getContent()).hasSize(10);
+    assertThat(page.isHasNext()).isTrue();
+    CommentThreadDTO busiest = page.getContent().get(0);
+    assertThat(busiest.getComment().getComment()).isEqualTo("root 11");
+    assertThat(busiest.getReplyCount()).isEqualTo(6);
+    assertThat(busiest.getReplies())
+        .extracting(ResponseCommentDTO::getComment)
+        .containsExactly("r1", "r1a", "r1b");
+    assertThat(busiest.getReplies())
+        .extracting(ResponseCommentDTO::getDepth)
+        .containsExactly(1, 2, 2);
+    assertThat(page.getContent().get(1).getReplies()).isEmpty();
+    assertThat(page.getContent().get(1).getRepliesCursor()).isNull();
+
+    CursorPagingResult<ResponseCommentDTO> more =
+        commentService.getReplies(roots.get(11), busiest.getRepliesCursor(), 10);
+    assertThat(more.getContent())
+        .extracting(ResponseCommentDTO::getComment)
+        .containsExactly("r2", "r3", "r4");
+    assertThat(more.isHasNext()).isFalse();
+
+    CursorPagingResult<CommentThreadDTO> last =
+        commentService.getCommentThreads(POST_ID, page.getNextCursor(), 10, 3);
+    assertThat(last.getContent())
+        .extracting(thread -> thread.getComment().getComment())
+        .containsExactly("root 1", "root 0");
+    assertThat(last.isHasNext()).isFalse();
+  }
+
+  @Test
+  void deletingACommentRemovesItsReplies() {
+    Statistics statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    commentService.deleteComment(firstReply);
+    entityManager.flush();
+
+    // The comment is read once, then it and its replies go in one statement.
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    entityManager.clear();
+
+    CommentThreadDTO busiest =
+        commentService.getCommentThreads(POST_ID, null, 1, 10).getContent().get(0);
+    assertThat(busiest.getReplyCount()).isEqualTo(3);
+    assertThat(busiest.getReplies())
+        .extracting(ResponseCommentDTO::getComment)
+        .containsExactly("r2", "r3", "r4");
+  }
+
+  @Test
+  void deletedCommentsLeaveTheCachedCountUntilCommit() {
+    assertThat(commentService.getCommentCountsForPosts(Set.of(POST_ID)))
+        .containsEntry(POST_ID, 18L);
+
+    commentService.deleteComment(firstReply);
+
+    // Evicting now would let a read before the commit cache the old count again.
+    assertThat(commentService.getCommentCountsForPosts(Set.of(POST_ID)))
+        .containsEntry(POST_ID, 18L);
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    assertThat(commentService.getCommentCountsForPosts(Set.of(POST_ID)))
+        .containsEntry(POST_ID, 15L);
+  }
+
+  private Long create(String text, Long parentId) {
+    return commentService
+        .createComment(
+            CreateCommentDTO.builder()
+                .postId(POST_ID)
+                .comment(text)
+                .parentId(parentId)
+                .authorUserName("reader")
+                .build())
+        .getId();
+  }
+}
@@ -0,0 +1,226 @@
+package com.blog.comments.service.impl;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.comments.config.CommentProperties;
+import com.blog.comments.event.CommentCreated;
+import com.blog.comments.model.Comment;
+import com.blog.sharedkernel.exception.ServiceUnavailableException;
+import com.blog.support.EmbeddedPostgresConfig;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Runs the write-behind queue against PostgreSQL, whose identity sequence it reserves ids from. */
+@DataJpaTest(
+    properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+// The writer thread commits on its own.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CommentWriteBehindQueueTest {
+  private static final long POST_ID = 3L;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private final List<Object> events = new CopyOnWriteArrayList<>();
+  private final CommentProperties properties = new CommentProperties();
+  private CommentWriteBehindQueue queue;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate.update("delete from comments");
+    properties.setWriteBehindBatchSize(3);
+    properties.setWriteBehindFlushInterval(Duration.ofMillis(500));
+    properties.setWriteBehindIdBlockSize(2);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    if (queue != null) {
+      queue.stop();
+    }
+  }
+
+  @Test
+  void writesConcurrentCommentsAsOneBatchWithReservedIds() {
+    start(events::add);
+
+    List<Comment> written = insertConcurrently(comment("a"), comment("b"), comment("c"));
+
+    assertThat(written).extracting(Comment::getId).doesNotContainNull().doesNotHaveDuplicates();
+    // One flush stamps the whole batch with the same time.
+    assertThat(written)
+        .extracting(Comment::getCreatedAt)
+        .containsOnly(written.get(0).getCreatedAt());
+    assertThat(events)
+        .containsExactlyInAnyOrderElementsOf(
+            written.stream().map(c -> new CommentCreated(c.getId(), POST_ID)).toList());
+    // Ids were drawn from the identity sequence, so a plain insert does not collide with them.
+    Long next =
+        jdbcTemplate.queryForObject(
+            """
+            insert into comments (comment, author_username, post_id, is_edited, created_at,
+                                  updated_at)
+            values ('d', 'author', 3, false, localtimestamp, localtimestamp)
+            returning id
+            """,
+            Long.class);
+    assertThat(written).extracting(Comment::getId).doesNotContain(next);
+    assertThat(count()).isEqualTo(4);
+  }
+
+  @Test
+  void repliesArePlacedBelowTheirParent() {
+    start(events::add);
+    Comment root = queue.insert(comment("root"), null);
+
+    Comment reply = queue.insert(comment("reply"), root);
+
+    assertThat(reply.getParentId()).isEqualTo(root.getId());
+    assertThat(reply.getRootId()).isEqualTo(root.getId());
+    assertThat(reply.getPath()).startsWith(root.descendantPathPrefix());
+  }
+
+  @Test
+  void badCommentFailsOnlyItsOwnCaller() {
+    start(events::add);
+    Comment bad = comment("no author");
+    bad.setAuthorUserName(null);
+
+    List<CompletableFuture<Comment>> futures = submit(comment("a"), bad, comment("b"));
+
+    assertThat(futures.get(0).join().getId()).isNotNull();
+    assertThat(futures.get(2).join().getId()).isNotNull();
+    assertThatThrownBy(futures.get(1)::join)
+        .hasCauseInstanceOf(DataIntegrityViolationException.class);
+    assertThat(count()).isEqualTo(2);
+    assertThat(events).hasSize(2);
+  }
+
+  @Test
+  void writerSurvivesAnError() {
+    properties.setWriteBehindBatchSize(1);
+    AtomicBoolean failed = new AtomicBoolean();
+    start(
+        event -> {
+          if (failed.compareAndSet(false, true)) {
+            throw new AssertionError("listener blew up");
+          }
+          events.add(event);
+        });
+
+    assertThatThrownBy(() -> queue.insert(comment("a"), null))
+        .isInstanceOf(IllegalStateException.class)
+        .hasCauseInstanceOf(AssertionError.class);
+    assertThat(queue.insert(comment("b"), null).getId()).isNotNull();
+    assertThat(count()).isEqualTo(1);
+  }
+
+  @Test
+  void commentNotPickedUpInTimeIsWithdrawn() throws InterruptedException {
+    properties.setWriteBehindBatchSize(100);
+    properties.setWriteBehindTimeout(Duration.ofMillis(200));
+    start(events::add);
+
+    // The writer holds the comment until the 500ms flush interval ends, past the caller's timeout.
+    assertThatThrownBy(() -> queue.insert(comment("a"), null))
+        .isInstanceOf(ServiceUnavailableException.class);
+    Thread.sleep(600);
+
+    assertThat(count()).isZero();
+    assertThat(events).isEmpty();
+    properties.setWriteBehindTimeout(Duration.ofSeconds(5));
+    assertThat(queue.insert(comment("retry"), null).getId()).isNotNull();
+    assertThat(count()).isEqualTo(1);
+  }
+
+  @Test
+  void callerWaitsForACommentAlreadyBeingWritten() {
+    properties.setWriteBehindBatchSize(1);
+    properties.setWriteBehindTimeout(Duration.ofMillis(200));
+    start(
+        event -> {
+          try {
+            Thread.sleep(400); // inside the write transaction
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          events.add(event);
+        });
+
+    Comment written = queue.insert(comment("slow"), null);
+
+    assertThat(written.getId()).isNotNull();
+    assertThat(count()).isEqualTo(1);
+  }
+
+  @Test
+  void stopWritesQueuedComments() throws InterruptedException {
+    properties.setWriteBehindBatchSize(100);
+    start(events::add);
+    List<CompletableFuture<Comment>> futures = submit(comment("a"), comment("b"));
+    // Both are queued well before the flush interval runs out.
+    Thread.sleep(100);
+    assertThat(futures).noneMatch(CompletableFuture::isDone);
+
+    queue.stop();
+
+    // Callers return once the writer released them, which stop() does not wait for.
+    assertThat(futures)
+        .allSatisfy(future -> assertThat(future).succeedsWithin(Duration.ofSeconds(5)));
+    assertThat(count()).isEqualTo(2);
+    assertThatThrownBy(() -> queue.insert(comment("late"), null))
+        .isInstanceOf(ServiceUnavailableException.class);
+    queue = null;
+  }
+
+  private void start(ApplicationEventPublisher publisher) {
+    queue =
+        new CommentWriteBehindQueue(
+            jdbcTemplate, transactionTemplate, publisher, properties, entityManagerFactory);
+    queue.start();
+  }
+
+  private List<Comment> insertConcurrently(Comment... comments) {
+    return submit(comments).stream().map(CompletableFuture::join).toList();
+  }
+
+  private List<CompletableFuture<Comment>> submit(Comment... comments) {
+    return IntStream.range(0, comments.length)
+        .mapToObj(i -> CompletableFuture.supplyAsync(() -> queue.insert(comments[i], null)))
+        .toList();
+  }
+
+  private int count() {
+    return jdbcTemplate.queryForObject("select count(*) from comments", Integer.class);
+  }
+
+  private static Comment comment(String text) {
+    Comment comment = new Comment();
+    comment.setComment(text);
+    comment.setAuthorUserName("author");
+    comment.setPostId(POST_ID);
+    comment.setIsEdited(false);
+    return comment;
+  }
+}
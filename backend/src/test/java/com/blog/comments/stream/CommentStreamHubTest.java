@@ -0,0 +1,167 @@
+package com.blog.comments.stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import com.blog.comments.config.CommentProperties;
+import com.blog.comments.controller.CommentController;
+import com.blog.comments.event.CommentCreated;
+import com.blog.comments.event.CommentDeleted;
+import com.blog.comments.mapper.CommentMapperImpl;
+import com.blog.comments.model.Comment;
+import com.blog.comments.repository.CommentRepository;
+import com.blog.comments.service.CommentService;
+import com.blog.sharedkernel.exception.LimitExceededException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/** Streams comment changes through the controller to mock clients. */
+class CommentStreamHubTest {
+  private static final Duration DELIVERY = Duration.ofSeconds(5);
+
+  private final CommentRepository commentRepository = mock(CommentRepository.class);
+  // One sender, so that a test can hold it up.
+  private final ExecutorService senders = Executors.newSingleThreadExecutor();
+  private CommentStreamHub hub;
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    CommentProperties properties = new CommentProperties();
+    properties.setStreamBufferSize(2);
+    properties.setMaxStreamSubscribers(3);
+    hub =
+        new CommentStreamHub(
+            commentRepository,
+            new CommentMapperImpl(),
+            properties,
+            Jackson2ObjectMapperBuilder.json().build(),
+            senders);
+    mockMvc =
+        MockMvcBuilders.standaloneSetup(new CommentController(mock(CommentService.class), hub))
+            .build();
+    when(commentRepository.findById(anyLong()))
+        .thenAnswer(call -> Optional.of(comment(call.getArgument(0))));
+  }
+
+  @AfterEach
+  void tearDown() {
+    hub.shutdown();
+  }
+
+  @Test
+  void changesReachEverySubscriberOfThePost() throws Exception {
+    MvcResult first = open(7L);
+    MvcResult second = open(7L);
+    MvcResult otherPost = open(8L);
+
+    hub.on(new CommentCreated(10L, 7L));
+    hub.on(new CommentDeleted(11L, 7L, 1));
+
+    for (MvcResult stream : List.of(first, second)) {
+      await().atMost(DELIVERY).untilAsserted(() -> assertThat(body(stream)).contains("id:11"));
+      assertThat(body(stream))
+          .containsSubsequence(
+              "event:created\nid:10\ndata:{",
+              "\"comment\":\"Comment 10\"",
+              "event:deleted\nid:11\ndata:11\n\n");
+    }
+    assertThat(body(otherPost)).isEmpty();
+    // Read once for both subscribers.
+    verify(commentRepository).findById(10L);
+  }
+
+  @Test
+  void subscriberThatFallsBehindIsToldToResync() throws Exception {
+    MvcResult stream = open(7L);
+    CountDownLatch release = new CountDownLatch(1);
+    senders.execute(() -> block(release));
+
+    // Two changes fill the buffer, the third overflows it.
+    for (long id = 1; id <= 3; id++) {
+      hub.on(new CommentDeleted(id, 7L, 1));
+    }
+    hub.on(new CommentDeleted(4L, 7L, 1));
+    release.countDown();
+
+    await().atMost(DELIVERY).untilAsserted(() -> assertThat(body(stream)).contains("id:4"));
+    assertThat(body(stream))
+        .startsWith("event:resync\n")
+        .doesNotContain("id:1\n", "id:2\n", "id:3\n");
+  }
+
+  @Test
+  void subscriptionsBeyondTheLimitAreRefused() throws Exception {
+    open(7L);
+    open(7L);
+    MvcResult third = open(8L);
+
+    assertThatThrownBy(() -> hub.subscribe(9L)).isInstanceOf(LimitExceededException.class);
+
+    close(third);
+    assertThat(hub.subscribe(9L)).isNotNull();
+  }
+
+  @Test
+  void closedStreamIsForgotten() throws Exception {
+    MvcResult stream = open(7L);
+    assertThat(hub.subscriberCount(7L)).isOne();
+
+    close(stream);
+    hub.on(new CommentCreated(10L, 7L));
+
+    assertThat(hub.subscriberCount(7L)).isZero();
+    // Nothing is read for a post nobody follows.
+    verify(commentRepository, never()).findById(any());
+  }
+
+  private MvcResult open(Long postId) throws Exception {
+    return mockMvc
+        .perform(get("/v1/api/comment/post/{postId}/stream", postId))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+  }
+
+  /** Ends the request the way the container does when the client goes away. */
+  private static void close(MvcResult stream) {
+    stream.getRequest().getAsyncContext().complete();
+  }
+
+  private static String body(MvcResult stream) throws Exception {
+    return stream.getResponse().getContentAsString();
+  }
+
+  private static Comment comment(Long id) {
+    Comment comment = new Comment();
+    comment.setId(id);
+    comment.setPostId(7L);
+    comment.setComment("Comment " + id);
+    comment.setAuthorUserName("reader");
+    comment.setIsEdited(false);
+    return comment;
+  }
+
+  private static void block(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
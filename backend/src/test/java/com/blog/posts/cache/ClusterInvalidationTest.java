@@ -0,0 +1,204 @@
+package com.blog.posts.cache;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+
+import com.blog.posts.cache.PostResponseCache.CachedResponse;
+import com.blog.posts.cache.PostResponseCache.Endpoint;
+import com.blog.posts.cache.PostResponseCache.Key;
+import com.blog.posts.config.PostConfig;
+import com.blog.sharedkernel.invalidation.CacheInvalidated;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.blog.sharedkernel.invalidation.InvalidationBus;
+import com.blog.support.EmbeddedPostgresConfig;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Two application instances in one JVM, connected by LISTEN/NOTIFY on an embedded PostgreSQL. */
+class ClusterInvalidationTest {
+  private static final Key POST_1 = new Key(Endpoint.POST, "1");
+  private static final Key POST_2 = new Key(Endpoint.POST, "2");
+  private static final Key FEED = new Key(Endpoint.FEED, "size=10");
+  private static final Duration DELIVERY = Duration.ofSeconds(10);
+
+  // Instances left over from other tests must not hear these ones.
+  private final String channel = "invalidation_" + UUID.randomUUID().toString().replace("-", "");
+  private ConfigurableApplicationContext nodeA;
+  private ConfigurableApplicationContext nodeB;
+  private int markers;
+
+  @BeforeEach
+  void startNodes() {
+    nodeA = start();
+    nodeB = start();
+    await().atMost(DELIVERY).until(() -> listeners() == 2);
+    fill(nodeA.getBean(PostResponseCache.class));
+    fill(nodeB.getBean(PostResponseCache.class));
+  }
+
+  @AfterEach
+  void stopNodes() {
+    nodeA.close();
+    nodeB.close();
+  }
+
+  @Test
+  void postChangeEvictsThePostAndFeedOnOtherInstances() {
+    nodeA.getBean(InvalidationBus.class).publish(CacheKeys.post(1L));
+    delivered(nodeA, nodeB);
+
+    PostResponseCache remote = nodeB.getBean(PostResponseCache.class);
+    assertThat(remote.get(POST_1)).isNull();
+    assertThat(remote.get(FEED)).isNull();
+    assertThat(remote.get(POST_2)).isNotNull();
+    // The publishing instance evicts on its own domain events, not on its echo.
+    assertThat(nodeA.getBean(PostResponseCache.class).get(POST_1)).isNotNull();
+  }
+
+  @Test
+  void commentChangeEvictsThePostOnOtherInstances() {
+    nodeB.getBean(InvalidationBus.class).publish(CacheKeys.postComments(2L));
+    delivered(nodeB, nodeA);
+
+    PostResponseCache remote = nodeA.getBean(PostResponseCache.class);
+    assertThat(remote.get(POST_2)).isNull();
+    assertThat(remote.get(POST_1)).isNotNull();
+    assertThat(remote.get(FEED)).isNotNull();
+  }
+
+  @Test
+  void unrelatedKeysAreIgnored() {
+    nodeA.getBean(InvalidationBus.class).publish(CacheKeys.user("alice"));
+    delivered(nodeA, nodeB);
+
+    PostResponseCache remote = nodeB.getBean(PostResponseCache.class);
+    assertThat(remote.get(POST_1)).isNotNull();
+    assertThat(remote.get(FEED)).isNotNull();
+  }
+
+  @Test
+  void keysPublishedInARolledBackTransactionAreNotSent() {
+    nodeA
+        .getBean(TransactionTemplate.class)
+        .executeWithoutResult(
+            status -> {
+              nodeA.getBean(InvalidationBus.class).publish(CacheKeys.post(1L));
+              status.setRollbackOnly();
+            });
+    delivered(nodeA, nodeB);
+
+    assertThat(nodeB.getBean(Received.class).keys()).doesNotContain(CacheKeys.post(1L));
+    assertThat(nodeB.getBean(PostResponseCache.class).get(POST_1)).isNotNull();
+  }
+
+  @Test
+  void reconnectedListenerInvalidatesEverything() {
+    nodeA
+        .getBean(JdbcTemplate.class)
+        .queryForList(
+            "select pg_terminate_backend(pid) from pg_stat_activity where query = ?",
+            "LISTEN " + channel);
+
+    for (ConfigurableApplicationContext node : List.of(nodeA, nodeB)) {
+      await()
+          .atMost(DELIVERY)
+          .untilAsserted(
+              () -> assertThat(node.getBean(Received.class).keys()).contains(CacheKeys.ALL));
+      PostResponseCache cache = node.getBean(PostResponseCache.class);
+      assertThat(List.of(POST_1, POST_2, FEED)).allMatch(key -> cache.get(key) == null);
+    }
+    await().atMost(DELIVERY).until(() -> listeners() == 2);
+    nodeA.getBean(InvalidationBus.class).publish(CacheKeys.post(1L));
+    delivered(nodeA, nodeB);
+  }
+
+  private ConfigurableApplicationContext start() {
+    return new SpringApplicationBuilder(Node.class)
+        .web(WebApplicationType.NONE)
+        .bannerMode(Banner.Mode.OFF)
+        .logStartupInfo(false)
+        // Arguments, so that they win over application.yml.
+        .run(
+            "--spring.datasource.url=" + EmbeddedPostgresConfig.jdbcUrl(),
+            "--spring.datasource.username=postgres",
+            "--spring.datasource.password=",
+            "--invalidation.transport=postgres",
+            "--invalidation.channel=" + channel,
+            "--invalidation.reconnectDelay=PT0.1S");
+  }
+
+  private int listeners() {
+    return nodeA
+        .getBean(JdbcTemplate.class)
+        .queryForObject(
+            "select count(*) from pg_stat_activity where query = ?",
+            Integer.class,
+            "LISTEN " + channel);
+  }
+
+  /**
+   * Waits until {@code to} has received everything {@code from} sent so far: notifications are
+   * delivered in commit order, so a marker sent last arrives last.
+   */
+  private void delivered(ConfigurableApplicationContext from, ConfigurableApplicationContext to) {
+    String marker = CacheKeys.user("marker-" + ++markers);
+    from.getBean(InvalidationBus.class).publish(marker);
+    await()
+        .atMost(DELIVERY)
+        .untilAsserted(() -> assertThat(to.getBean(Received.class).keys()).contains(marker));
+  }
+
+  private static void fill(PostResponseCache cache) {
+    for (Key key : List.of(POST_1, POST_2, FEED)) {
+      cache.put(
+          key, new CachedResponse(new byte[] {'{', '}'}, "\"etag\"", 0L), cache.generation(key));
+    }
+  }
+
+  @Configuration(proxyBeanMethods = false)
+  @ImportAutoConfiguration({
+    DataSourceAutoConfiguration.class,
+    DataSourceTransactionManagerAutoConfiguration.class,
+    JdbcTemplateAutoConfiguration.class,
+    TransactionAutoConfiguration.class
+  })
+  @ComponentScan(basePackageClasses = InvalidationBus.class)
+  @Import({PostResponseCache.class, PostConfig.class})
+  static class Node {
+
+    @Bean
+    Received received() {
+      return new Received(new CopyOnWriteArrayList<>());
+    }
+  }
+
+  /** Keys this instance was told about, in order of arrival. */
+  record Received(List<String> keys) {
+
+    @EventListener
+    public void on(CacheInvalidated event) {
+      keys.add(event.key());
+    }
+  }
+}
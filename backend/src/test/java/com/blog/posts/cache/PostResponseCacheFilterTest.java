@@ -0,0 +1,184 @@
+package com.blog.posts.cache;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.posts.config.PostProperties;
+import com.blog.posts.event.PostUpdated;
+import com.blog.sharedkernel.invalidation.CacheInvalidated;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class PostResponseCacheFilterTest {
+  private static final String POST_1 = "/v1/api/post/1";
+  private static final String FEED = "/v1/api/post";
+
+  private PostResponseCache cache;
+  private PostResponseCacheFilter filter;
+  private final AtomicInteger calls = new AtomicInteger();
+  private int status = HttpServletResponse.SC_OK;
+  private String contentType = MediaType.APPLICATION_JSON_VALUE;
+  private Runnable duringRequest = () -> {};
+
+  /** Stands in for the controller: a JSON body and ETag that change with every call. */
+  private final FilterChain controller =
+      (request, response) -> {
+        int call = calls.incrementAndGet();
+        duringRequest.run();
+        HttpServletResponse http = (HttpServletResponse) response;
+        http.setStatus(status);
+        http.setContentType(contentType);
+        http.setHeader(HttpHeaders.ETAG, "\"v" + call + "\"");
+        http.getOutputStream().write(("{\"call\":" + call + "}").getBytes(StandardCharsets.UTF_8));
+      };
+
+  @BeforeEach
+  void setUp() {
+    cache =
+        new PostResponseCache(
+            new PostProperties(),
+            new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    filter = new PostResponseCacheFilter(cache);
+  }
+
+  @Test
+  void firstReadFillsTheCacheAndLaterReadsHitIt() throws Exception {
+    MockHttpServletResponse first = get(POST_1);
+    MockHttpServletResponse second = get(POST_1);
+
+    assertThat(calls).hasValue(1);
+    assertThat(second.getStatus()).isEqualTo(200);
+    assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString());
+    assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo("\"v1\"");
+    assertThat(second.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+  }
+
+  @Test
+  void feedPagesAreKeyedByCanonicalParameters() throws Exception {
+    get(FEED, "size", "10", "published", "true");
+    MockHttpServletResponse reordered = get(FEED, "published", "true", "size", "10");
+    get(FEED, "size", "20");
+
+    assertThat(reordered.getContentAsString()).isEqualTo("{\"call\":1}");
+    assertThat(calls).hasValue(2);
+  }
+
+  @Test
+  void hitAnswersConditionalRequestWith304() throws Exception {
+    get(POST_1);
+
+    MockHttpServletRequest request = request(POST_1);
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"v1\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, controller);
+
+    assertThat(response.getStatus()).isEqualTo(304);
+    assertThat(response.getContentAsByteArray()).isEmpty();
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  void responseReadDuringAnEvictionIsNotStored() throws Exception {
+    duringRequest = () -> cache.on(new PostUpdated(1L));
+    get(POST_1);
+    get(FEED);
+    duringRequest = () -> {};
+
+    get(POST_1);
+    get(FEED);
+
+    assertThat(calls).hasValue(4);
+  }
+
+  @Test
+  void postChangeEvictsThePostAndTheFeed() throws Exception {
+    get(POST_1);
+    get("/v1/api/post/2");
+    get(FEED);
+
+    cache.on(new PostUpdated(1L));
+
+    assertThat(get(POST_1).getContentAsString()).isEqualTo("{\"call\":4}");
+    assertThat(get(FEED).getContentAsString()).isEqualTo("{\"call\":5}");
+    assertThat(get("/v1/api/post/2").getContentAsString()).isEqualTo("{\"call\":2}");
+  }
+
+  @Test
+  void commentChangeEvictsOnlyThePost() throws Exception {
+    get(POST_1);
+    get(FEED);
+
+    cache.on(new CacheInvalidated(CacheKeys.postComments(1L)));
+
+    assertThat(get(POST_1).getContentAsString()).isEqualTo("{\"call\":3}");
+    assertThat(get(FEED).getContentAsString()).isEqualTo("{\"call\":2}");
+  }
+
+  @Test
+  void missedChangesEvictEverything() throws Exception {
+    get(POST_1);
+    get(FEED);
+
+    cache.on(new CacheInvalidated(CacheKeys.ALL));
+    get(POST_1);
+    get(FEED);
+
+    assertThat(calls).hasValue(4);
+  }
+
+  @Test
+  void errorResponsesAreNotCached() throws Exception {
+    status = HttpServletResponse.SC_NOT_FOUND;
+    assertThat(get(POST_1).getStatus()).isEqualTo(404);
+    status = HttpServletResponse.SC_OK;
+
+    get(POST_1);
+
+    assertThat(calls).hasValue(2);
+  }
+
+  @Test
+  void nonJsonResponsesAreNotCached() throws Exception {
+    contentType = MediaType.TEXT_PLAIN_VALUE;
+    get(POST_1);
+    get(POST_1);
+
+    assertThat(calls).hasValue(2);
+  }
+
+  @Test
+  void otherRequestsPassThrough() throws Exception {
+    MockHttpServletRequest post = request(POST_1);
+    post.setMethod("POST");
+    filter.doFilter(post, new MockHttpServletResponse(), controller);
+    filter.doFilter(post, new MockHttpServletResponse(), controller);
+    get("/v1/api/post/1/comments");
+    get("/v1/api/post/1/comments");
+
+    assertThat(calls).hasValue(4);
+  }
+
+  private MockHttpServletResponse get(String path, String... params) throws Exception {
+    MockHttpServletRequest request = request(path);
+    for (int i = 0; i < params.length; i += 2) {
+      request.addParameter(params[i], params[i + 1]);
+    }
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, controller);
+    return response;
+  }
+
+  private static MockHttpServletRequest request(String path) {
+    return new MockHttpServletRequest("GET", path);
+  }
+}
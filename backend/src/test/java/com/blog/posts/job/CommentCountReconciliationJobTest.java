@@ -0,0 +1,123 @@
+package com.blog.posts.job;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.blog.comments.model.Comment;
+import com.blog.comments.service.impl.CommentStatisticsImpl;
+import com.blog.comments.stats.CommentStatistics;
+import com.blog.posts.cache.PostResponseCache;
+import com.blog.posts.config.PostConfig;
+import com.blog.posts.model.JobLease;
+import com.blog.posts.model.Post;
+import com.blog.posts.repository.JobLeaseRepository;
+import com.blog.posts.repository.PostRepository;
+import com.blog.sharedkernel.invalidation.CacheKeys;
+import com.blog.sharedkernel.invalidation.InvalidationBus;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({
+  CommentCountReconciliationJob.class,
+  CommentStatisticsImpl.class,
+  PostResponseCache.class,
+  PostConfig.class
+})
+class CommentCountReconciliationJobTest {
+
+  @Autowired private CommentCountReconciliationJob job;
+  @Autowired private PostRepository postRepository;
+  @Autowired private JobLeaseRepository leaseRepository;
+  @Autowired private EntityManager entityManager;
+  @MockitoBean private InvalidationBus invalidationBus;
+  @MockitoSpyBean private CommentStatistics commentStatistics;
+
+  @Test
+  void countersFollowEventsAndDriftIsCorrected() {
+    Post busy = persistPost("busy");
+    Post quiet = persistPost("quiet");
+    for (int i = 0; i < 3; i++) {
+      persistComment(busy.getId());
+    }
+    entityManager.flush();
+
+    // Two events applied to the busy post, one lost; a stray decrement on the quiet one.
+    postRepository.adjustCommentCount(busy.getId(), 1);
+    postRepository.adjustCommentCount(busy.getId(), 1);
+    postRepository.adjustCommentCount(quiet.getId(), -1);
+    assertThat(commentCount(busy)).isEqualTo(2);
+    assertThat(commentCount(quiet)).isZero();
+
+    assertThat(job.reconcile()).isEqualTo(1);
+    assertThat(commentCount(busy)).isEqualTo(3);
+    verify(invalidationBus).publish(CacheKeys.postComments(busy.getId()));
+    assertThat(job.reconcile()).isZero();
+    verifyNoMoreInteractions(invalidationBus);
+  }
+
+  @Test
+  void counterChangedDuringThePassIsLeftForTheNextOne() {
+    Post post = persistPost("busy");
+    persistComment(post.getId());
+    persistComment(post.getId());
+    entityManager.flush();
+    // An event lands after the counter was read but before the job writes it.
+    doAnswer(
+            invocation -> {
+              postRepository.adjustCommentCount(post.getId(), 1);
+              return invocation.callRealMethod();
+            })
+        .doCallRealMethod()
+        .when(commentStatistics)
+        .countByPostIds(anyCollection());
+
+    assertThat(job.reconcile()).isZero();
+    assertThat(commentCount(post)).isEqualTo(1);
+    verifyNoInteractions(invalidationBus);
+
+    assertThat(job.reconcile()).isEqualTo(1);
+    assertThat(commentCount(post)).isEqualTo(2);
+  }
+
+  @Test
+  void passIsSkippedWhileAnotherInstanceHoldsTheLease() {
+    Post post = persistPost("busy");
+    persistComment(post.getId());
+    entityManager.persist(new JobLease(CommentCountReconciliationJob.JOB_NAME));
+    entityManager.flush();
+    LocalDateTime now = LocalDateTime.now();
+    leaseRepository.claim(
+        CommentCountReconciliationJob.JOB_NAME, "other-instance", now, now.plusMinutes(5));
+
+    assertThat(job.reconcile()).isZero();
+    assertThat(commentCount(post)).isZero();
+  }
+
+  private Post persistPost(String slug) {
+    Post post =
+        Post.builder().title(slug).content(slug).authorUsername("author").slug(slug).build();
+    entityManager.persist(post);
+    return post;
+  }
+
+  private void persistComment(Long postId) {
+    Comment comment = new Comment();
+    comment.setComment("Nice post");
+    comment.setAuthorUserName("reader");
+    comment.setPostId(postId);
+    comment.setIsEdited(false);
+    entityManager.persist(comment);
+  }
+
+  private int commentCount(Post post) {
+    entityManager.clear();
+    return postRepository.findById(post.getId()).orElseThrow().getCommentCount();
+  }
+}
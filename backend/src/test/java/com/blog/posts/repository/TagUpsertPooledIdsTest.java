@@ -0,0 +1,44 @@
+package com.blog.posts.repository;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.posts.model.Tag;
+import com.blog.support.EmbeddedPostgresConfig;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+/** The upsert with ids taken from {@code blog_id_seq}, see {@code META-INF/pooled-ids.xml}. */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+      "spring.jpa.mapping-resources=META-INF/pooled-ids.xml"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+class TagUpsertPooledIdsTest {
+
+  @Autowired TagRepository tagRepository;
+  @Autowired EntityManager entityManager;
+
+  @Test
+  void insertsTagsWithIdsFromTheSequence() {
+    entityManager.persist(Tag.builder().name("java").slug("java").build());
+    entityManager.flush();
+
+    List<Tag> inserted =
+        tagRepository.insertMissing(
+            List.of(
+                Tag.builder().name("java").slug("java").build(),
+                Tag.builder().name("kotlin").slug("kotlin").build()));
+
+    assertThat(inserted).extracting(Tag::getName).containsExactly("kotlin");
+    Long id = inserted.get(0).getId();
+    entityManager.clear();
+    assertThat(tagRepository.findById(id)).get().extracting(Tag::getName).isEqualTo("kotlin");
+  }
+}
@@ -0,0 +1,80 @@
+package com.blog.posts.repository;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.posts.model.Tag;
+import com.blog.support.EmbeddedPostgresConfig;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+/** Runs the Postgres-only upsert against a real PostgreSQL server. */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+      "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+class TagUpsertRepositoryImplTest {
+
+  @Autowired TagRepository tagRepository;
+  @Autowired EntityManager entityManager;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    entityManager.persist(Tag.builder().name("java").slug("java").build());
+    entityManager.persist(Tag.builder().name("Spring Boot").slug("spring").build());
+    entityManager.flush();
+    entityManager.clear();
+    statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void insertsNewTagsInOneStatement() {
+    List<Tag> inserted =
+        tagRepository.insertMissing(
+            List.of(
+                tag("kotlin"), Tag.builder().name("jvm").slug("jvm").description("VM").build()));
+
+    assertThat(inserted).extracting(Tag::getName).containsExactlyInAnyOrder("kotlin", "jvm");
+    assertThat(inserted).allSatisfy(tag -> assertThat(tag.getId()).isNotNull());
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    assertThat(tagRepository.findByNameIn(Set.of("jvm")))
+        .singleElement()
+        .extracting(Tag::getDescription)
+        .isEqualTo("VM");
+  }
+
+  @Test
+  void skipsTagsWhoseNameExists() {
+    List<Tag> inserted = tagRepository.insertMissing(List.of(tag("java"), tag("kotlin")));
+
+    assertThat(inserted).extracting(Tag::getName).containsExactly("kotlin");
+    assertThat(tagRepository.count()).isEqualTo(3);
+  }
+
+  @Test
+  void skipsTagsWhoseSlugBelongsToAnotherTag() {
+    List<Tag> inserted = tagRepository.insertMissing(List.of(tag("spring"), tag("kotlin")));
+
+    assertThat(inserted).extracting(Tag::getName).containsExactly("kotlin");
+    assertThat(tagRepository.findByNameIn(Set.of("spring"))).isEmpty();
+  }
+
+  private static Tag tag(String name) {
+    return Tag.builder().name(name).slug(name).build();
+  }
+}
@@ -0,0 +1,112 @@
+package com.blog.posts.service.impl;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.posts.cache.TaxonomyCache;
+import com.blog.posts.config.PostConfig;
+import com.blog.posts.dto.response.PostSummaryDTO;
+import com.blog.posts.mapper.CategoryMapperImpl;
+import com.blog.posts.mapper.CategoryResolver;
+import com.blog.posts.mapper.PostMapperImpl;
+import com.blog.posts.mapper.TagMapperImpl;
+import com.blog.posts.model.Category;
+import com.blog.posts.model.Post;
+import com.blog.posts.model.Tag;
+import com.blog.posts.service.PostService;
+import com.blog.sharedkernel.dto.CursorPagingResult;
+import com.blog.sharedkernel.invalidation.LocalInvalidationBus;
+import jakarta.persistence.EntityManager;
+import java.util.Set;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+/** Verifies that reading a page of posts costs a constant number of statements. */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+@Import({
+  PostServiceImpl.class,
+  PostMapperImpl.class,
+  CategoryMapperImpl.class,
+  TagMapperImpl.class,
+  CategoryResolver.class,
+  TaxonomyCache.class,
+  PostConfig.class,
+  LocalInvalidationBus.class
+})
+class PostFeedQueryCountTest {
+
+  private static final int POSTS = 12;
+
+  @Autowired private PostService postService;
+  @Autowired private EntityManager entityManager;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    Category tech = new Category("Technology", "technology", "All about technology");
+    Category science = new Category("Science", "science", "Scientific discoveries");
+    entityManager.persist(tech);
+    entityManager.persist(science);
+    for (int i = 0; i < POSTS; i++) {
+      Tag tag = Tag.builder().name("tag-" + i).slug("tag-" + i).build();
+      entityManager.persist(tag);
+      entityManager.persist(
+          Post.builder()
+              .title("Post " + i)
+              .content("Content " + i)
+              .authorUsername("author")
+              .slug("post-" + i)
+              .published(true)
+              .categories(Set.of(tech, science))
+              .tags(Set.of(tag))
+              .build());
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void pageOfSummariesUsesThreeStatementsAndNoBody() {
+    CursorPagingResult<PostSummaryDTO> page = postService.getPostSummaries(null, 10, null);
+
+    assertThat(page.getContent()).hasSize(10);
+    assertThat(page.getContent())
+        .allSatisfy(
+            post -> {
+              assertThat(post.getCategories()).containsExactlyInAnyOrder("Technology", "Science");
+              assertThat(post.getTags()).hasSize(1);
+            });
+    assertThat(page.isHasNext()).isTrue();
+    // summary rows, category names and tag names; no entity (and so no content) is loaded
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    assertThat(statistics.getEntityLoadCount()).isZero();
+  }
+
+  @Test
+  void followingPageStartsAfterCursor() {
+    CursorPagingResult<PostSummaryDTO> first = postService.getPostSummaries(null, 10, null);
+    CursorPagingResult<PostSummaryDTO> second =
+        postService.getPostSummaries(first.getNextCursor(), 10, null);
+
+    assertThat(second.getContent()).hasSize(POSTS - 10);
+    assertThat(second.isHasNext()).isFalse();
+    assertThat(second.getNextCursor()).isNull();
+    assertThat(second.getContent())
+        .extracting(PostSummaryDTO::getId)
+        .doesNotContainAnyElementsOf(
+            first.getContent().stream().map(PostSummaryDTO::getId).toList());
+  }
+}
@@ -0,0 +1,87 @@
+package com.blog.posts.service.impl;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.posts.cache.TaxonomyCache;
+import com.blog.posts.config.PostConfig;
+import com.blog.posts.dto.request.PostDTO;
+import com.blog.posts.dto.request.TagDTO;
+import com.blog.posts.mapper.CategoryMapperImpl;
+import com.blog.posts.mapper.CategoryResolver;
+import com.blog.posts.mapper.PostMapperImpl;
+import com.blog.posts.mapper.TagMapperImpl;
+import com.blog.posts.model.Tag;
+import com.blog.posts.repository.TagRepository;
+import com.blog.posts.service.PostService;
+import com.blog.sharedkernel.invalidation.LocalInvalidationBus;
+import com.blog.support.EmbeddedPostgresConfig;
+import jakarta.persistence.EntityManager;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+/** Tag creation on the post write path, which relies on the PostgreSQL upsert. */
+@DataJpaTest(
+    properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({
+  EmbeddedPostgresConfig.class,
+  PostServiceImpl.class,
+  PostMapperImpl.class,
+  CategoryMapperImpl.class,
+  TagMapperImpl.class,
+  CategoryResolver.class,
+  TaxonomyCache.class,
+  PostConfig.class,
+  LocalInvalidationBus.class
+})
+class PostTagsPostgresTest {
+
+  @Autowired private PostService postService;
+  @Autowired private TagRepository tagRepository;
+  @Autowired private EntityManager entityManager;
+
+  @Test
+  void createsNewTagsAndReusesExistingOnes() {
+    entityManager.persist(Tag.builder().name("java").slug("java").build());
+    entityManager.flush();
+
+    postService.createOrUpdatePost(postDTO(tag("java", "java"), tag("kotlin", "kotlin")));
+    entityManager.flush();
+
+    assertThat(tagRepository.findAll())
+        .extracting(Tag::getName)
+        .containsExactlyInAnyOrder("java", "kotlin");
+  }
+
+  @Test
+  void newTagWhoseSlugIsTakenGetsAUniqueSlug() {
+    entityManager.persist(Tag.builder().name("Spring Boot").slug("spring").build());
+    entityManager.flush();
+
+    var created = postService.createOrUpdatePost(postDTO(tag("spring", "spring")));
+    entityManager.flush();
+
+    assertThat(created.getTags()).containsExactly("spring");
+    Tag spring = tagRepository.findByNameIn(Set.of("spring")).get(0);
+    assertThat(spring.getSlug()).startsWith("spring-");
+  }
+
+  private static TagDTO tag(String name, String slug) {
+    return TagDTO.builder().name(name).slug(slug).build();
+  }
+
+  private static PostDTO postDTO(TagDTO... tags) {
+    PostDTO postDTO = new PostDTO();
+    postDTO.setTitle("Upserting tags");
+    postDTO.setContent("Content");
+    postDTO.setSlug("upserting-tags");
+    postDTO.setAuthorUsername("author");
+    postDTO.setCategories(Set.of());
+    postDTO.setTags(Set.of(tags));
+    return postDTO;
+  }
+}
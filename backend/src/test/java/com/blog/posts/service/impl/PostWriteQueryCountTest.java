@@ -0,0 +1,152 @@
+package com.blog.posts.service.impl;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.posts.cache.TaxonomyCache;
+import com.blog.posts.config.PostConfig;
+import com.blog.posts.dto.request.PostDTO;
+import com.blog.posts.dto.request.TagDTO;
+import com.blog.posts.dto.response.CategoryDTO;
+import com.blog.posts.dto.response.ResponsePostDTO;
+import com.blog.posts.mapper.CategoryMapperImpl;
+import com.blog.posts.mapper.CategoryResolver;
+import com.blog.posts.mapper.PostMapperImpl;
+import com.blog.posts.mapper.TagMapperImpl;
+import com.blog.posts.model.Category;
+import com.blog.posts.model.Tag;
+import com.blog.posts.service.CategoriesService;
+import com.blog.posts.service.PostService;
+import com.blog.sharedkernel.dto.ContentVersion;
+import com.blog.sharedkernel.invalidation.LocalInvalidationBus;
+import jakarta.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+/** Verifies that category and tag lookups on the write path are served by the cache. */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+@Import({
+  PostServiceImpl.class,
+  CategoriesServiceImpl.class,
+  PostMapperImpl.class,
+  CategoryMapperImpl.class,
+  TagMapperImpl.class,
+  CategoryResolver.class,
+  TaxonomyCache.class,
+  PostConfig.class,
+  LocalInvalidationBus.class
+})
+class PostWriteQueryCountTest {
+
+  @Autowired private PostService postService;
+  @Autowired private CategoriesService categoriesService;
+  @Autowired private TaxonomyCache taxonomyCache;
+  @Autowired private EntityManager entityManager;
+
+  private Category tech;
+  private Category science;
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    tech = new Category("Technology", "technology", "All about technology");
+    science = new Category("Science", "science", "Scientific discoveries");
+    entityManager.persist(tech);
+    entityManager.persist(science);
+    entityManager.persist(Tag.builder().name("java").slug("java").build());
+    entityManager.persist(Tag.builder().name("spring").slug("spring").build());
+    entityManager.flush();
+    entityManager.clear();
+    taxonomyCache.reload();
+    // Tags are read through; remember the two used below.
+    taxonomyCache.tagsByName(Set.of("java", "spring"));
+
+    statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void categoriesAreServedWithoutStatements() {
+    List<CategoryDTO> categories = categoriesService.getAllCategories();
+
+    assertThat(categories)
+        .extracting(CategoryDTO::getName)
+        .containsExactly("Technology", "Science");
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+  }
+
+  @Test
+  void postWithKnownCategoriesAndTagsOnlyWritesThePost() {
+    PostDTO postDTO = postDTO(Set.of(tech.getId(), science.getId()), "java", "spring");
+
+    ResponsePostDTO created = postService.createOrUpdatePost(postDTO);
+    entityManager.flush();
+
+    assertThat(created.getCategories()).containsExactlyInAnyOrder("Technology", "Science");
+    assertThat(created.getTags()).containsExactlyInAnyOrder("java", "spring");
+    assertThat(statistics.getQueryExecutionCount()).isZero();
+    assertThat(statistics.getEntityLoadCount()).isZero();
+    // the post row plus one insert for each join table
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+  }
+
+  @Test
+  void updateResolvesCategoriesAndTagsFromTheCache() {
+    PostDTO postDTO = postDTO(Set.of(tech.getId()), "java");
+    Long id = postService.createOrUpdatePost(postDTO).getId();
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+
+    PostDTO update = postDTO(Set.of(science.getId()), "spring");
+    update.setAuthorUsername(null); // the update path compares it with Post#authorName
+    ResponsePostDTO updated = postService.createOrUpdatePost(id, update);
+    entityManager.flush();
+
+    assertThat(updated.getCategories()).containsExactly("Science");
+    assertThat(updated.getTags()).containsExactly("spring");
+    assertThat(statistics.getQueryExecutionCount()).isZero();
+  }
+
+  @Test
+  void versionChangesWhenOnlyTagsChange() {
+    PostDTO postDTO = postDTO(Set.of(tech.getId()), "java");
+    Long id = postService.createOrUpdatePost(postDTO).getId();
+    entityManager.flush();
+    ContentVersion before = postService.getPostVersion(id);
+
+    postDTO.setAuthorUsername(null);
+    postDTO.setTags(Set.of(TagDTO.builder().name("spring").slug("spring").build()));
+    postService.createOrUpdatePost(id, postDTO);
+    entityManager.flush();
+
+    assertThat(postService.getPostVersion(id).etag()).isNotEqualTo(before.etag());
+  }
+
+  private static PostDTO postDTO(Set<Long> categoryIds, String... tags) {
+    PostDTO postDTO = new PostDTO();
+    postDTO.setTitle("Caching dictionaries");
+    postDTO.setContent("Content");
+    postDTO.setSlug("caching-dictionaries");
+    postDTO.setAuthorUsername("author");
+    postDTO.setCategories(categoryIds);
+    postDTO.setTags(
+        Arrays.stream(tags)
+            .map(tag -> TagDTO.builder().name(tag).slug(tag).build())
+            .collect(Collectors.toSet()));
+    return postDTO;
+  }
+}
@@ -0,0 +1,136 @@
+package com.blog.search.engine;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class InvertedIndexTest {
+
+  private final Analyzer analyzer = new Analyzer();
+  private final InvertedIndex index = new InvertedIndex(analyzer, 1.2f, 0.75f);
+
+  @Test
+  void analyzerLowerCasesDropsStopWordsAndStems() {
+    assertThat(analyzer.analyze("The Running of the Connections, caresses & ponies!"))
+        .containsExactly("run", "connect", "caress", "poni");
+    assertThat(analyzer.analyze("Relational generalization hopeful"))
+        .containsExactly("relat", "gener", "hope");
+  }
+
+  @Test
+  void titleMatchesOutrankContentMatches() {
+    index.upsert(doc(1, "Cooking pasta", "A post about the kitchen and spring onions", Set.of()));
+    index.upsert(doc(2, "Spring Boot in practice", "Configuring applications", Set.of("java")));
+    index.upsert(doc(3, "Gardening", "Nothing relevant here", Set.of()));
+
+    SearchResult result = index.search("spring", 0, 10);
+
+    assertThat(result.totalHits()).isEqualTo(2);
+    assertThat(result.hits()).extracting(SearchHit::postId).containsExactly(2L, 1L);
+  }
+
+  @Test
+  void stemmedQueryFindsInflectedForms() {
+    index.upsert(doc(1, "Connecting services", "", Set.of()));
+
+    assertThat(index.search("connections", 0, 10).hits())
+        .extracting(SearchHit::postId)
+        .containsExactly(1L);
+  }
+
+  @Test
+  void updateReplacesAndRemoveDeletes() {
+    index.upsert(doc(1, "Old title about kotlin", "", Set.of()));
+    index.upsert(doc(1, "New title about java", "", Set.of()));
+
+    assertThat(index.search("kotlin", 0, 10).totalHits()).isZero();
+    assertThat(index.search("java", 0, 10).hits())
+        .extracting(SearchHit::title)
+        .containsExactly("New title about java");
+
+    assertThat(index.remove(1)).isTrue();
+    assertThat(index.search("java", 0, 10).totalHits()).isZero();
+    assertThat(index.size()).isZero();
+  }
+
+  @Test
+  void pagesThroughRankingAndSurvivesCompaction() {
+    for (int i = 0; i < 3000; i++) {
+      index.upsert(doc(i, "post number " + i, i % 2 == 0 ? "even" : "odd", Set.of()));
+    }
+    for (int i = 0; i < 2000; i++) {
+      index.remove(i);
+    }
+
+    SearchResult first = index.search("even", 0, 10);
+    SearchResult second = index.search("even", 10, 10);
+
+    assertThat(first.totalHits()).isEqualTo(500);
+    assertThat(first.hits()).hasSize(10);
+    assertThat(second.hits()).hasSize(10);
+    List<Long> firstIds = first.hits().stream().map(SearchHit::postId).toList();
+    assertThat(second.hits()).extracting(SearchHit::postId).doesNotContainAnyElementsOf(firstIds);
+    assertThat(index.search("number", 0, 1).totalHits()).isEqualTo(1000);
+  }
+
+  @Test
+  void countsFacetsOverAllHitsAndFilters() {
+    // Enough posts for the common tag to switch to a bitmap chunk and to trigger compaction.
+    for (int i = 0; i < 10_000; i++) {
+      index.upsert(
+          new SearchDocument(
+              i,
+              "post " + i,
+              "post-" + i,
+              null,
+              i % 3 == 0 ? "spring" : "other",
+              i % 2 == 0 ? "alice" : "bob",
+              Set.of(i % 5 == 0 ? "Technology" : "Travel"),
+              i % 3 == 0 ? Set.of("java", "common") : Set.of("common")));
+    }
+    for (int i = 0; i < 3000; i++) {
+      index.remove(i);
+    }
+
+    SearchResult result = index.search("spring", Map.of(), 0, 5, 10);
+
+    assertThat(result.totalHits()).isEqualTo(2334);
+    assertThat(result.facets().get(Facets.TAG))
+        .containsExactly(new FacetCount("common", 2334), new FacetCount("java", 2334));
+    assertThat(result.facets().get(Facets.AUTHOR))
+        .containsExactly(new FacetCount("alice", 1167), new FacetCount("bob", 1167));
+    assertThat(result.facets().get(Facets.CATEGORY))
+        .containsExactly(new FacetCount("Travel", 1867), new FacetCount("Technology", 467));
+
+    SearchResult filtered =
+        index.search(
+            "spring", Map.of(Facets.CATEGORY, "Technology", Facets.AUTHOR, "bob"), 0, 5, 1);
+    assertThat(filtered.totalHits()).isEqualTo(233);
+    assertThat(filtered.facets().get(Facets.TAG)).containsExactly(new FacetCount("common", 233));
+    assertThat(index.search("spring", Map.of(Facets.TAG, "kotlin"), 0, 5, 10).totalHits()).isZero();
+  }
+
+  @Test
+  void rebuiltIndexReplacesContentsInOneStep() {
+    index.upsert(doc(1, "Old post about kotlin", "", Set.of("kotlin")));
+    InvertedIndex rebuilt = index.emptyCopy();
+    rebuilt.upsert(doc(2, "New post about java", "", Set.of("java")));
+
+    assertThat(index.search("java", 0, 10).totalHits()).isZero();
+    index.replaceWith(rebuilt);
+
+    assertThat(index.search("kotlin", 0, 10).totalHits()).isZero();
+    assertThat(index.search("java", Map.of(Facets.TAG, "java"), 0, 10, 10).hits())
+        .extracting(SearchHit::postId)
+        .containsExactly(2L);
+    assertThat(index.size()).isEqualTo(1);
+    assertThat(rebuilt.size()).isZero();
+  }
+
+  private static SearchDocument doc(long id, String title, String content, Set<String> tags) {
+    return new SearchDocument(id, title, "post-" + id, null, content, "author", Set.of(), tags);
+  }
+}
@@ -0,0 +1,31 @@
+package com.blog.search.engine;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LongObjectMapTest {
+
+  @Test
+  void behavesLikeAHashMapUnderRandomUpdates() {
+    LongObjectMap<String> map = new LongObjectMap<>();
+    Map<Long, String> expected = new HashMap<>();
+    Random random = new Random(7);
+    for (int i = 0; i < 200_000; i++) {
+      // A small key range keeps probe runs long, so removals shift entries back often.
+      long key = random.nextInt(5_000) * 1024L;
+      if (random.nextInt(3) == 0) {
+        assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+      } else {
+        String value = "v" + i;
+        assertThat(map.put(key, value)).isEqualTo(expected.put(key, value));
+      }
+      assertThat(map.size()).isEqualTo(expected.size());
+    }
+    expected.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+    assertThat(map.get(-1L)).isNull();
+  }
+}
@@ -0,0 +1,92 @@
+package com.blog.search.engine;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class PrefixTrieTest {
+
+  private final PrefixTrie trie = new PrefixTrie();
+
+  @Test
+  void completesHeaviestEntriesFirst() {
+    trie.adjust("Spring Boot in practice", 1);
+    trie.adjust("spring", 5);
+    trie.adjust("Spring  Security", 3);
+    trie.adjust("Sprouts", 4);
+    trie.adjust("Java", 9);
+
+    assertThat(trie.complete("spr", 3))
+        .extracting(PrefixTrie.Completion::text)
+        .containsExactly("spring", "Sprouts", "Spring  Security");
+    assertThat(trie.complete("SPRING ", 10))
+        .extracting(PrefixTrie.Completion::text)
+        .containsExactly("Spring  Security", "Spring Boot in practice");
+    assertThat(trie.complete("kotlin", 10)).isEmpty();
+  }
+
+  @Test
+  void weightsAreAdjustedAndEmptyEntriesRemoved() {
+    trie.adjust("docker", 1);
+    trie.adjust("docs", 2);
+    trie.adjust("docker", 2);
+    assertThat(trie.complete("doc", 10))
+        .extracting(PrefixTrie.Completion::text, PrefixTrie.Completion::weight)
+        .containsExactly(tuple("docker", 3), tuple("docs", 2));
+
+    trie.adjust("docker", -3);
+    trie.adjust("unknown", -1);
+
+    assertThat(trie.size()).isEqualTo(1);
+    assertThat(trie.complete("d", 10))
+        .extracting(PrefixTrie.Completion::text)
+        .containsExactly("docs");
+    assertThat(trie.complete("dock", 10)).isEmpty();
+
+    trie.adjust("docs", -2);
+    assertThat(trie.size()).isZero();
+    assertThat(trie.complete("d", 10)).isEmpty();
+  }
+
+  @Test
+  void adjustReturnsTheNodeOfTheEntry() {
+    PrefixTrie.Node node = trie.adjust("Spring Boot", 1);
+
+    assertThat(trie.adjust("spring  boot ", 1)).isSameAs(node);
+    trie.adjust("Spring Batch", 1); // splits the edge above the entry
+    assertThat(trie.adjust(node, 1)).isSameAs(node);
+    assertThat(trie.complete("spring b", 10))
+        .extracting(PrefixTrie.Completion::text, PrefixTrie.Completion::weight)
+        .containsExactly(tuple("Spring Boot", 3), tuple("Spring Batch", 1));
+
+    assertThat(trie.adjust(node, -3)).isNull();
+    assertThat(trie.adjust(node, 1)).isNull();
+    assertThat(trie.adjust("unknown", -1)).isNull();
+    assertThat(trie.complete("spring b", 10))
+        .extracting(PrefixTrie.Completion::text)
+        .containsExactly("Spring Batch");
+  }
+
+  @Test
+  void displayTextIsRebuiltFromTheKeyOrKept() {
+    String longTitle = "A Very Long Title " + "x".repeat(60);
+    trie.adjust("JavaScript Tips", 1);
+    trie.adjust("Straße ÜBER alles", 1);
+    trie.adjust("İstanbul notes", 1);
+    trie.adjust(longTitle, 1);
+    trie.adjust("javascript tips", 1);
+
+    assertThat(trie.complete("javascript", 10))
+        .extracting(PrefixTrie.Completion::text)
+        .containsExactly("JavaScript Tips");
+    assertThat(trie.complete("straße ü", 10))
+        .extracting(PrefixTrie.Completion::text)
+        .containsExactly("Straße ÜBER alles");
+    assertThat(trie.complete("İSTAN", 10))
+        .extracting(PrefixTrie.Completion::text)
+        .containsExactly("İstanbul notes");
+    assertThat(trie.complete("a very", 10))
+        .extracting(PrefixTrie.Completion::text)
+        .containsExactly(longTitle);
+  }
+}
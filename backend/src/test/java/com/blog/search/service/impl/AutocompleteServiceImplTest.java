@@ -0,0 +1,80 @@
+package com.blog.search.service.impl;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.posts.catalog.PostCatalog;
+import com.blog.posts.catalog.PostDocument;
+import com.blog.search.config.SearchProperties;
+import com.blog.search.dto.response.SuggestionDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class AutocompleteServiceImplTest {
+
+  private final List<PostDocument> published = new ArrayList<>();
+  private final List<List<SuggestionDTO>> seenDuringRebuild = new ArrayList<>();
+  private final AutocompleteServiceImpl service =
+      new AutocompleteServiceImpl(new Catalog(), new SearchProperties());
+
+  @Test
+  void changesBecomeWeightDeltas() {
+    service.indexPost(post(1L, "Spring Boot tips", "spring", "java"));
+    service.indexPost(post(2L, "Spring Boot tips", "Spring"));
+    service.indexPost(post(3L, "Kotlin coroutines", "kotlin"));
+
+    assertThat(service.suggest("spr", 10))
+        .extracting(SuggestionDTO::getText, SuggestionDTO::getType, SuggestionDTO::getWeight)
+        .containsExactly(
+            tuple("spring", SuggestionDTO.Type.TAG, 2),
+            tuple("Spring Boot tips", SuggestionDTO.Type.TITLE, 2));
+
+    service.indexPost(post(2L, "Spring Security", "security"));
+    service.removePost(1L);
+
+    assertThat(service.suggest("spr", 10))
+        .extracting(SuggestionDTO::getText, SuggestionDTO::getWeight)
+        .containsExactly(tuple("Spring Security", 1));
+    assertThat(service.suggest("j", 10)).isEmpty();
+  }
+
+  @Test
+  void suggestionsComeFromThePreviousTriesUntilTheRebuildIsDone() {
+    service.indexPost(post(1L, "Spring Boot tips", "spring"));
+    published.add(post(2L, "Spring Data in depth", "data"));
+
+    assertThat(service.rebuild()).isEqualTo(1);
+
+    assertThat(seenDuringRebuild)
+        .singleElement()
+        .satisfies(
+            seen ->
+                assertThat(seen)
+                    .extracting(SuggestionDTO::getText)
+                    .containsExactly("spring", "Spring Boot tips"));
+    assertThat(service.suggest("spring", 10))
+        .extracting(SuggestionDTO::getText)
+        .containsExactly("Spring Data in depth");
+  }
+
+  private static PostDocument post(Long id, String title, String... tags) {
+    return new PostDocument(
+        id, title, "slug-" + id, null, null, "author", Set.of(), Set.of(tags), null, null);
+  }
+
+  /** Serves {@link #published} in one batch and records what suggest returns meanwhile. */
+  private class Catalog implements PostCatalog {
+    @Override
+    public List<PostDocument> findPublishedAfter(long afterId, int limit) {
+      seenDuringRebuild.add(service.suggest("spring", 10));
+      return published.stream().filter(post -> post.id() > afterId).limit(limit).toList();
+    }
+
+    @Override
+    public Optional<PostDocument> findPublishedById(Long id) {
+      return published.stream().filter(post -> post.id().equals(id)).findFirst();
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package com.blog.search.service.impl;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.posts.model.Category;
+import com.blog.posts.model.Post;
+import com.blog.posts.model.Tag;
+import com.blog.search.config.SearchProperties;
+import com.blog.search.dto.request.SearchFilterDTO;
+import com.blog.search.dto.response.FacetCountDTO;
+import com.blog.search.dto.response.SearchHitDTO;
+import com.blog.search.dto.response.SearchResponseDTO;
+import com.blog.search.engine.Facets;
+import com.blog.support.EmbeddedPostgresConfig;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/** Runs the tsvector search mode against PostgreSQL, which owns its index and query syntax. */
+@DataJpaTest(
+    properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+class PostgresSearchServiceImplTest {
+
+  @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+  @Autowired private EntityManager entityManager;
+
+  private PostgresSearchServiceImpl searchService;
+  private Category streaming;
+  private Category databases;
+  private Tag kafka;
+  private Tag postgres;
+
+  @BeforeEach
+  void setUp() {
+    searchService = new PostgresSearchServiceImpl(jdbcTemplate, new SearchProperties());
+    streaming = persist(Category.builder().name("Streaming").slug("streaming").build());
+    databases = persist(Category.builder().name("Databases").slug("databases").build());
+    kafka = persist(Tag.builder().name("kafka").slug("kafka").build());
+    postgres = persist(Tag.builder().name("postgres").slug("postgres").build());
+  }
+
+  @Test
+  void rebuildCreatesTheColumnAndCountsSearchablePosts() {
+    post("zeppelin-title", "Zeppelin pipelines", "Moving data around.", "alice", true, false);
+    post("zeppelin-draft", "Zeppelin drafts", "Not out yet.", "alice", false, false);
+    post("zeppelin-gone", "Zeppelin removed", "Deleted.", "alice", true, true);
+
+    assertThat(searchService.rebuildIndex()).isEqualTo(1);
+    // Running it again is harmless.
+    assertThat(searchService.rebuildIndex()).isEqualTo(1);
+
+    assertThat(searchService.search("zeppelin", null, 0, 10).getContent())
+        .extracting(SearchHitDTO::getSlug)
+        .containsExactly("zeppelin-title");
+  }
+
+  @Test
+  void titleMatchesRankAboveContentMatches() {
+    post("in-content", "Pipelines", "We use zeppelin for the pipelines.", "alice", true, false);
+    post("in-title", "Zeppelin basics", "Getting started.", "bob", true, false);
+    searchService.rebuildIndex();
+
+    SearchResponseDTO response = searchService.search("zeppelin", null, 0, 10);
+
+    assertThat(response.getContent())
+        .extracting(SearchHitDTO::getSlug)
+        .containsExactly("in-title", "in-content");
+    assertThat(response.getContent().get(0).getScore())
+        .isGreaterThan(response.getContent().get(1).getScore());
+    assertThat(response.getTotalElements()).isEqualTo(2);
+  }
+
+  @Test
+  void filtersNarrowHitsAndFacetsCountAllOfThem() {
+    post("a", "Zeppelin streams", "Events.", "alice", true, false, streaming, kafka);
+    post("b", "Zeppelin tables", "Rows.", "bob", true, false, databases, postgres);
+    post("c", "Zeppelin both", "Events and rows.", "alice", true, false, databases, kafka);
+    searchService.rebuildIndex();
+
+    SearchResponseDTO all = searchService.search("zeppelin", null, 0, 10);
+    assertThat(all.getFacets().get(Facets.AUTHOR))
+        .extracting(FacetCountDTO::getValue, FacetCountDTO::getCount)
+        .containsExactly(tuple("alice", 2L), tuple("bob", 1L));
+    assertThat(all.getFacets().get(Facets.CATEGORY))
+        .extracting(FacetCountDTO::getValue, FacetCountDTO::getCount)
+        .containsExactly(tuple("Databases", 2L), tuple("Streaming", 1L));
+    assertThat(all.getFacets().get(Facets.TAG))
+        .extracting(FacetCountDTO::getValue, FacetCountDTO::getCount)
+        .containsExactly(tuple("kafka", 2L), tuple("postgres", 1L));
+
+    assertThat(slugs("zeppelin", SearchFilterDTO.builder().tag("KAFKA").build()))
+        .containsExactlyInAnyOrder("a", "c");
+    assertThat(slugs("zeppelin", SearchFilterDTO.builder().category("Databases").build()))
+        .containsExactlyInAnyOrder("b", "c");
+    assertThat(
+            slugs(
+                "zeppelin",
+                SearchFilterDTO.builder().author("alice").category("Databases").build()))
+        .containsExactly("c");
+    SearchResponseDTO bob =
+        searchService.search("zeppelin", SearchFilterDTO.builder().author("bob").build(), 0, 10);
+    assertThat(bob.getTotalElements()).isEqualTo(1);
+    assertThat(bob.getFacets().get(Facets.TAG))
+        .extracting(FacetCountDTO::getValue)
+        .containsExactly("postgres");
+  }
+
+  @Test
+  void queriesUseWebSearchSyntax() {
+    post("phrase", "Quokka zeppelin", "Both words in order.", "alice", true, false);
+    post("reversed", "Zeppelin quokka", "Both words, reversed.", "alice", true, false);
+    post("alone", "Zeppelin only", "One word.", "alice", true, false);
+    post("other", "Wombat notes", "Something else.", "alice", true, false);
+    searchService.rebuildIndex();
+
+    assertThat(slugs("\"quokka zeppelin\"", null)).containsExactly("phrase");
+    assertThat(slugs("zeppelin -quokka", null)).containsExactly("alone");
+    assertThat(slugs("quokka or wombat", null))
+        .containsExactlyInAnyOrder("phrase", "reversed", "other");
+    // Unbalanced quotes and stray operators are not syntax errors.
+    assertThat(slugs("\"zeppelin -", null)).hasSize(3);
+  }
+
+  @Test
+  void highlightsEscapePostMarkup() {
+    post(
+        "markup",
+        "Zeppelin and markup",
+        "<script>alert('x')</script> The zeppelin \u0001lands\u0002 & floats"
+            + " <img src=x onerror=alert(1)// over town.",
+        "alice",
+        true,
+        false);
+    searchService.rebuildIndex();
+
+    String highlight =
+        searchService.search("zeppelin", null, 0, 10).getContent().get(0).getHighlight();
+
+    assertThat(highlight).contains("<b>zeppelin</b>", "lands &amp; floats");
+    assertThat(highlight.replace("<b>", "").replace("</b>", ""))
+        .doesNotContain("<", ">", "\u0001", "\u0002");
+    assertThat(PostgresSearchServiceImpl.toHtml("<i>\u0001x\u0002</i>"))
+        .isEqualTo("&lt;i&gt;<b>x</b>&lt;/i&gt;");
+  }
+
+  private List<String> slugs(String query, SearchFilterDTO filter) {
+    return searchService.search(query, filter, 0, 10).getContent().stream()
+        .map(SearchHitDTO::getSlug)
+        .toList();
+  }
+
+  private void post(
+      String slug,
+      String title,
+      String content,
+      String author,
+      boolean published,
+      boolean deleted,
+      Object... taxonomy) {
+    Post post =
+        Post.builder()
+            .title(title)
+            .content(content)
+            .slug(slug)
+            .authorUsername(author)
+            .published(published)
+            .deleted(deleted)
+            .build();
+    for (Object term : taxonomy) {
+      if (term instanceof Category category) {
+        post.getCategories().add(category);
+      } else {
+        post.getTags().add((Tag) term);
+      }
+    }
+    persist(post);
+    entityManager.flush();
+  }
+
+  private <T> T persist(T entity) {
+    entityManager.persist(entity);
+    return entity;
+  }
+}
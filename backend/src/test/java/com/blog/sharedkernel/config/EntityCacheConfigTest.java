@@ -0,0 +1,120 @@
+package com.blog.sharedkernel.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.auth.model.User;
+import com.blog.auth.repository.UserRepository;
+import com.blog.posts.model.Category;
+import com.blog.posts.repository.CategoryRepository;
+import com.blog.posts.repository.PostRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Repeated point lookups of cached entities reach the database once. */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "entityCache.enabled=true"
+    })
+@Import(EntityCacheConfig.class)
+// Entities reach the cache when the transaction that loaded them ends, so every call commits.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityCacheConfigTest {
+
+  @Autowired private CategoryRepository categoryRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private PostRepository postRepository;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    userRepository.deleteAll();
+    categoryRepository.deleteAll();
+    entityManagerFactory.getCache().evictAll();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @Test
+  void categoryByIdIsLoadedOnce() {
+    Long id = categoryRepository.save(new Category("Science", "science", "Discoveries")).getId();
+    entityManagerFactory.getCache().evictAll();
+    statistics.clear();
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(categoryRepository.findById(id))
+          .get()
+          .extracting(Category::getName)
+          .isEqualTo("Science");
+    }
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+  }
+
+  @Test
+  void userByUsernameIsQueriedOnceUntilUsersChange() {
+    User user = userRepository.save(user("alice"));
+    statistics.clear();
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(userRepository.findByUsername("alice")).isPresent();
+    }
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    assertThat(statistics.getQueryCacheHitCount()).isEqualTo(2);
+
+    user.setFirstName("Alicia");
+    userRepository.save(user);
+    statistics.clear();
+
+    assertThat(userRepository.findByUsername("alice"))
+        .get()
+        .extracting(User::getFirstName)
+        .isEqualTo("Alicia");
+    assertThat(statistics.getQueryCacheHitCount()).isZero();
+  }
+
+  @Test
+  void commentCounterUpdatesKeepOtherRegions() {
+    Long id = categoryRepository.save(new Category("Science", "science", "Discoveries")).getId();
+    userRepository.save(user("alice"));
+    categoryRepository.findById(id);
+    userRepository.findByUsername("alice");
+    statistics.clear();
+
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          postRepository.adjustCommentCount(1L, 1);
+          postRepository.updateCommentCount(1L, 1, 3);
+        });
+
+    assertThat(categoryRepository.findById(id)).isPresent();
+    assertThat(userRepository.findByUsername("alice")).isPresent();
+    assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+  }
+
+  private static User user(String username) {
+    User user = new User();
+    user.setUsername(username);
+    user.setEmail(username + "@example.com");
+    user.setFirstName(username);
+    user.setLastName("Example");
+    user.setKeycloakId("kc-" + username);
+    user.setRole("USER");
+    user.setIsEnabled(true);
+    user.setIsEmailVerified(true);
+    return user;
+  }
+}
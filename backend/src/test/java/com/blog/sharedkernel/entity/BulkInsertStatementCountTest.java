@@ -0,0 +1,68 @@
+package com.blog.sharedkernel.entity;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.blog.comments.model.Comment;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Inserts the same comments with identity ids and with pooled sequence ids and counts the
+ * statements: only the latter can be sent in JDBC batches.
+ */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "spring.jpa.properties.hibernate.generate_statistics=true",
+      "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+      "spring.jpa.properties.hibernate.order_inserts=true",
+      "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn"
+    })
+class BulkInsertStatementCountTest {
+  private static final int ROWS = 500;
+
+  @Nested
+  class IdentityIds {
+    @Autowired private EntityManager entityManager;
+
+    @Test
+    void insertsOneStatementPerRow() {
+      assertThat(insertComments(entityManager)).isGreaterThanOrEqualTo(ROWS);
+    }
+  }
+
+  @Nested
+  @TestPropertySource(properties = "spring.jpa.mapping-resources=META-INF/pooled-ids.xml")
+  class PooledSequenceIds {
+    @Autowired private EntityManager entityManager;
+
+    @Test
+    void insertsInJdbcBatches() {
+      // one statement per JDBC batch of 50 plus one sequence call per block of 50 ids
+      assertThat(insertComments(entityManager)).isLessThanOrEqualTo(ROWS / 50 + ROWS / 50 + 2);
+    }
+  }
+
+  /** Inserts {@link #ROWS} comments and returns the number of statements prepared. */
+  private static long insertComments(EntityManager entityManager) {
+    Statistics statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    for (int i = 0; i < ROWS; i++) {
+      Comment comment = new Comment();
+      comment.setComment("Comment " + i);
+      comment.setAuthorUserName("author");
+      comment.setPostId((long) (i % 20));
+      comment.setIsEdited(false);
+      entityManager.persist(comment);
+    }
+    entityManager.flush();
+    return statistics.getPrepareStatementCount();
+  }
+}
@@ -0,0 +1,48 @@
+package com.blog.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import javax.sql.DataSource;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Points a test context at a real PostgreSQL server, for code that relies on Postgres-only SQL.
+ * Combine with {@code @AutoConfigureTestDatabase(replace = NONE)} and the PostgreSQL dialect. One
+ * server is started per test JVM and shared by all contexts.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class EmbeddedPostgresConfig {
+  private static EmbeddedPostgres postgres;
+
+  @Bean
+  DataSource dataSource() {
+    return server().getPostgresDatabase();
+  }
+
+  /** JDBC URL of the shared server, for contexts that configure their own data source. */
+  public static String jdbcUrl() {
+    return server().getJdbcUrl("postgres", "postgres");
+  }
+
+  private static synchronized EmbeddedPostgres server() {
+    if (postgres == null) {
+      try {
+        postgres = EmbeddedPostgres.start();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+      }
+      Runtime.getRuntime().addShutdownHook(new Thread(EmbeddedPostgresConfig::stop));
+    }
+    return postgres;
+  }
+
+  private static void stop() {
+    try {
+      postgres.close();
+    } catch (IOException e) {
+      // The JVM is exiting anyway.
+    }
+  }
+}
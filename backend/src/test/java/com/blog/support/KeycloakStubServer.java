@@ -0,0 +1,106 @@
+package com.blog.support;
+
+import com.blog.sharedkernel.config.IDPConfigProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+/**
+ * Stub HTTP server standing in for Keycloak: it hands out a token for realm {@value #REALM} and
+ * answers the admin API paths a test routes, 404 for the others.
+ */
+public class KeycloakStubServer implements AutoCloseable {
+  public static final String REALM = "test";
+  private static final String TOKEN =
+      "{\"access_token\":\"token\",\"expires_in\":300,\"token_type\":\"Bearer\"}";
+
+  private final HttpServer server;
+  private final Map<String, Handler> routes = new ConcurrentHashMap<>();
+  private final List<String> requests = new CopyOnWriteArrayList<>();
+
+  public KeycloakStubServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/", this::dispatch);
+    routes.put(
+        "/realms/" + REALM + "/protocol/openid-connect/token",
+        exchange -> respond(exchange, 200, TOKEN));
+    server.start();
+  }
+
+  /** Answers {@code path}, relative to the realm's admin API, e.g. {@code /users/count}. */
+  public void admin(String path, Handler handler) {
+    routes.put(adminPath(path), handler);
+  }
+
+  /** Admin API paths requested so far, relative to the realm and without their query. */
+  public List<String> requests() {
+    return List.copyOf(requests);
+  }
+
+  /** Properties pointing the admin client at this server. */
+  public IDPConfigProperties properties() {
+    IDPConfigProperties properties = new IDPConfigProperties();
+    properties.setServerUri("http://127.0.0.1:" + server.getAddress().getPort());
+    properties.setRealm(REALM);
+    properties.setIdpName("keycloak");
+    properties.setClientId("client");
+    properties.setClientSecret("secret");
+    return properties;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  public static Map<String, String> query(HttpExchange exchange) {
+    Map<String, String> query = new HashMap<>();
+    String raw = exchange.getRequestURI().getQuery();
+    if (raw != null) {
+      for (String parameter : raw.split("&")) {
+        String[] pair = parameter.split("=", 2);
+        query.put(pair[0], pair.length > 1 ? pair[1] : "");
+      }
+    }
+    return query;
+  }
+
+  public static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+    try (var out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private void dispatch(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    if (path.startsWith(adminPath(""))) {
+      requests.add(path.substring(adminPath("").length()));
+    }
+    Handler handler = routes.get(path);
+    if (handler == null) {
+      respond(exchange, 404, "");
+    } else {
+      handler.handle(exchange);
+    }
+  }
+
+  private static String adminPath(String path) {
+    return "/admin/realms/" + REALM + path;
+  }
+
+  public interface Handler {
+    void handle(HttpExchange exchange) throws IOException;
+  }
+}
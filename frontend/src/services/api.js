@@ -33,19 +33,23 @@ const createApiMethods = (api) => ({
 
   // POST APIs (exposed as postsAPI for backwards-compatibility with existing components)
   postsAPI: {
-    // GET /v1/api/post
+    // GET /v1/api/post returns summaries (list views never need the post body)
     getAllPosts: async (params) => {
       const response = await api.get('/v1/api/post', { params });
       // Transform the response to ensure consistent data structure
-      const posts = Array.isArray(response.data) ? response.data : [];
+      const page = response.data || {};
+      const posts = Array.isArray(page) ? page : (Array.isArray(page.content) ? page.content : []);
       return {
         ...response,
+        nextCursor: page.nextCursor || null,
+        hasNext: Boolean(page.hasNext),
         data: posts.map(post => ({
           id: post.id,
           title: post.title,
-          summary: post.summary,
-          content: post.content,
-          imageUrl: post.imageUrl,
+          summary: post.excerpt || post.summary,
+          excerpt: post.excerpt,
+          slug: post.slug,
+          imageUrl: post.featuredImage || post.imageUrl,
           authorUsername: post.authorUsername || (post.author ? post.author.username : null),
           categories: post.categories || [],
           tags: post.tags || [],
@@ -130,14 +134,18 @@ const createApiMethods = (api) => ({
       comment: data.content,
       edited: data.edited || false 
     }),
-    // POST /v1/api/comment/reply  – body should include { postId, parentId, comment, edited }
-    addReply: (postId, parentId, content) => 
-      api.post('/v1/api/comment/reply', { 
-        postId, 
-        parentId, 
-        comment: content,
-        edited: false 
+    // POST /v1/api/comment  – a reply is a comment with parentId set
+    addReply: (postId, parentId, content) =>
+      api.post('/v1/api/comment', {
+        postId,
+        parentId,
+        comment: content
       }),
+    // GET /v1/api/comment/post/{postId}/threads?cursor=&size=&replies=
+    getCommentThreads: (postId, params) =>
+      api.get(`/v1/api/comment/post/${postId}/threads`, { params }),
+    // GET /v1/api/comment/{commentId}/replies?cursor=&size=
+    getReplies: (commentId, params) => api.get(`/v1/api/comment/${commentId}/replies`, { params }),
     // DELETE /v1/api/comment/{id}
     deleteComment: (commentId) => api.delete(`/v1/api/comment/${commentId}`),
     // PUT /v1/api/comment/{id}
@@ -146,6 +154,12 @@ const createApiMethods = (api) => ({
     getCommentTree: (postId) => api.get(`/v1/api/comment/tree/post/${postId}`),
     // GET /v1/api/comment/count/post/{postId}
     getCommentCount: (postId) => api.get(`/v1/api/comment/count/post/${postId}`),
+    // GET /v1/api/comment/post/counts?postIds=1,2,3 – { "1": 4, "2": 0, "3": 1 }
+    getCommentCounts: (postIds) =>
+      api.get('/v1/api/comment/post/counts', { params: { postIds: postIds.join(',') } }),
+    // GET /v1/api/comment/post/{postId}/stream – Server-Sent Events: created, updated, deleted,
+    // resync (reload the comments). Close the returned EventSource when leaving the post.
+    streamComments: (postId) => new EventSource(`${API_URL}/v1/api/comment/post/${postId}/stream`),
   },
 
   // Auth API